@@ -0,0 +1,18 @@
+package clevertec.codegen;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Помечает DTO, для которого {@link JsonCodecProcessor} генерирует JSON-кодек {@code <Имя>JsonCodec}.
+ *
+ * <p>Класс должен иметь конструктор без аргументов, а поля - геттеры и сеттеры по соглашению JavaBeans
+ * (например, сгенерированные Lombok {@code @Data}). Свойства пишутся в порядке объявления полей,
+ * как это делает Jackson.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateJsonCodec {
+}
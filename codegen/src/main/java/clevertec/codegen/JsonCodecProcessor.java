@@ -0,0 +1,343 @@
+package clevertec.codegen;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Генерирует для каждого класса с {@link GenerateJsonCodec} реализацию {@code clevertec.utils.json.JsonCodec}.
+ *
+ * <p>Сгенерированный кодек вызывает геттеры и сеттеры напрямую, без рефлексии. Имена свойств вместе
+ * с кавычками, двоеточием и разделителем закодированы в UTF-8 один раз, в статических полях, и пишутся
+ * в ответ одним копированием массива. Кодеки перечисляются в {@code META-INF/services}, откуда их
+ * загружает {@code JsonCodecs}.
+ *
+ * <p>Поддерживаются поля типов {@code String}, {@code UUID}, {@code int}, {@code long}, {@code double},
+ * {@code boolean}, их обертки и другие классы с {@link GenerateJsonCodec}. Для остальных типов процессор
+ * сообщает об ошибке компиляции.
+ *
+ * <p>Кодек кладется в пакет аннотированного класса. Для вложенного класса имена внешних классов входят
+ * в имя кодека через {@code _}: для {@code Outer.Inner} генерируется {@code Outer_InnerJsonCodec}.
+ */
+@SupportedAnnotationTypes("clevertec.codegen.GenerateJsonCodec")
+public class JsonCodecProcessor extends AbstractProcessor {
+
+    private static final String RUNTIME_PACKAGE = "clevertec.utils.json";
+    private static final String CODEC_SUFFIX = "JsonCodec";
+    private static final String SERVICE_FILE = "META-INF/services/" + RUNTIME_PACKAGE + ".JsonCodec";
+
+    private final List<String> generatedCodecs = new ArrayList<>();
+
+    private Filer filer;
+    private Messager messager;
+    private Elements elements;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+        this.elements = processingEnv.getElementUtils();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServiceFile();
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateJsonCodec.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "@GenerateJsonCodec is only supported on classes",
+                        element);
+                continue;
+            }
+            generate((TypeElement) element);
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) {
+        List<Property> properties = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.TRANSIENT)) {
+                continue;
+            }
+            Kind kind = kindOf(field.asType());
+            if (kind == null) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "Unsupported field type for @GenerateJsonCodec: " + field.asType(), field);
+                return;
+            }
+            String nestedCodec = kind == Kind.NESTED
+                    ? qualifiedCodecName((TypeElement) ((DeclaredType) field.asType()).asElement())
+                    : null;
+            properties.add(new Property(field.getSimpleName().toString(), field.asType(), kind, nestedCodec));
+        }
+
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String typeName = type.getQualifiedName().toString();
+        String codecName = codecName(type);
+        try {
+            JavaFileObject file = filer.createSourceFile(qualifiedCodecName(type), type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source(packageName, typeName, codecName, properties));
+            }
+            generatedCodecs.add(qualifiedCodecName(type));
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to generate " + codecName + ": " + e.getMessage(),
+                    type);
+        }
+    }
+
+    private String source(String packageName, String typeName, String codecName, List<Property> properties) {
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import ").append(RUNTIME_PACKAGE).append(".JsonCodec;\n")
+                .append("import ").append(RUNTIME_PACKAGE).append(".JsonReader;\n")
+                .append("import ").append(RUNTIME_PACKAGE).append(".JsonWriter;\n\n")
+                .append("import javax.annotation.processing.Generated;\n")
+                .append("import java.io.IOException;\n")
+                .append("import java.nio.charset.StandardCharsets;\n\n")
+                .append("@Generated(\"").append(JsonCodecProcessor.class.getName()).append("\")\n")
+                .append("public final class ").append(codecName).append(" implements JsonCodec<").append(typeName)
+                .append("> {\n\n")
+                .append("    public static final ").append(codecName).append(" INSTANCE = new ").append(codecName)
+                .append("();\n\n");
+
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            String prefix = (i == 0 ? "{" : ",") + "\\\"" + property.name + "\\\":";
+            out.append("    private static final byte[] ").append(property.constantName())
+                    .append(" = \"").append(prefix).append("\".getBytes(StandardCharsets.UTF_8);\n");
+        }
+        if (!properties.isEmpty()) {
+            out.append('\n');
+        }
+
+        out.append("    @Override\n")
+                .append("    public Class<").append(typeName).append("> type() {\n")
+                .append("        return ").append(typeName).append(".class;\n")
+                .append("    }\n\n");
+
+        out.append("    @Override\n")
+                .append("    public void write(").append(typeName).append(" value, JsonWriter out) throws IOException {\n")
+                .append("        if (value == null) {\n")
+                .append("            out.writeNull();\n")
+                .append("            return;\n")
+                .append("        }\n");
+        if (properties.isEmpty()) {
+            out.append("        out.writeByte('{');\n");
+        }
+        for (Property property : properties) {
+            out.append("        out.writeRaw(").append(property.constantName()).append(");\n")
+                    .append("        ").append(property.writeStatement()).append('\n');
+        }
+        out.append("        out.writeByte('}');\n")
+                .append("    }\n\n");
+
+        out.append("    @Override\n")
+                .append("    public ").append(typeName).append(" read(JsonReader in) throws IOException {\n")
+                .append("        if (in.readNull()) {\n")
+                .append("            return null;\n")
+                .append("        }\n")
+                .append("        ").append(typeName).append(" value = new ").append(typeName).append("();\n")
+                .append("        in.beginObject();\n")
+                .append("        for (String field = in.nextField(); field != null; field = in.nextField()) {\n")
+                .append("            switch (field) {\n");
+        for (Property property : properties) {
+            out.append("                case \"").append(property.name).append("\" -> value.")
+                    .append(property.setter()).append('(').append(property.readExpression()).append(");\n");
+        }
+        out.append("                default -> throw in.unknownField(field, ").append(typeName).append(".class);\n")
+                .append("            }\n")
+                .append("        }\n")
+                .append("        return value;\n")
+                .append("    }\n")
+                .append("}\n");
+        return out.toString();
+    }
+
+    private String qualifiedCodecName(TypeElement type) {
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        return packageName.isEmpty() ? codecName(type) : packageName + "." + codecName(type);
+    }
+
+    private static String codecName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element enclosing = type.getEnclosingElement(); enclosing instanceof TypeElement outer;
+             enclosing = outer.getEnclosingElement()) {
+            name.insert(0, '_').insert(0, outer.getSimpleName());
+        }
+        return name.append(CODEC_SUFFIX).toString();
+    }
+
+    private void writeServiceFile() {
+        if (generatedCodecs.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer writer = file.openWriter()) {
+                for (String codec : generatedCodecs) {
+                    writer.write(codec);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write " + SERVICE_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private Kind kindOf(TypeMirror type) {
+        switch (type.getKind()) {
+            case INT:
+                return Kind.INT;
+            case LONG:
+                return Kind.LONG;
+            case DOUBLE:
+                return Kind.DOUBLE;
+            case BOOLEAN:
+                return Kind.BOOLEAN;
+            case DECLARED:
+                break;
+            default:
+                return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        switch (element.getQualifiedName().toString()) {
+            case "java.lang.String":
+                return Kind.STRING;
+            case "java.util.UUID":
+                return Kind.UUID;
+            case "java.lang.Integer":
+                return Kind.INT;
+            case "java.lang.Long":
+                return Kind.LONG;
+            case "java.lang.Double":
+                return Kind.DOUBLE;
+            case "java.lang.Boolean":
+                return Kind.BOOLEAN;
+            default:
+                return element.getAnnotation(GenerateJsonCodec.class) != null ? Kind.NESTED : null;
+        }
+    }
+
+    private enum Kind {
+        STRING("String", "readString"),
+        UUID("Uuid", "readUuid"),
+        INT("Int", "readInt"),
+        LONG("Long", "readLong"),
+        DOUBLE("Double", "readDouble"),
+        BOOLEAN("Boolean", "readBoolean"),
+        NESTED(null, null);
+
+        private final String writeSuffix;
+        private final String readMethod;
+
+        Kind(String writeSuffix, String readMethod) {
+            this.writeSuffix = writeSuffix;
+            this.readMethod = readMethod;
+        }
+    }
+
+    private static final class Property {
+
+        private final String name;
+        private final TypeMirror type;
+        private final Kind kind;
+        private final String nestedCodec;
+
+        private Property(String name, TypeMirror type, Kind kind, String nestedCodec) {
+            this.name = name;
+            this.type = type;
+            this.kind = kind;
+            this.nestedCodec = nestedCodec;
+        }
+
+        String constantName() {
+            StringBuilder constant = new StringBuilder();
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (Character.isUpperCase(c) && i > 0) {
+                    constant.append('_');
+                }
+                constant.append(Character.toUpperCase(c));
+            }
+            return constant.append("_FIELD").toString();
+        }
+
+        String getter() {
+            String prefix = type.getKind() == TypeKind.BOOLEAN ? "is" : "get";
+            return prefix + capitalizedName() + "()";
+        }
+
+        String setter() {
+            return "set" + capitalizedName();
+        }
+
+        String writeStatement() {
+            if (kind == Kind.NESTED) {
+                return nestedCodec + ".INSTANCE.write(value." + getter() + ", out);";
+            }
+            return "out.write" + kind.writeSuffix + "(value." + getter() + ");";
+        }
+
+        String readExpression() {
+            if (kind == Kind.NESTED) {
+                return nestedCodec + ".INSTANCE.read(in)";
+            }
+            if (type.getKind().isPrimitive()) {
+                return "in." + kind.readMethod + "(" + defaultValue() + ")";
+            }
+            return "in." + kind.readMethod + "()";
+        }
+
+        private String defaultValue() {
+            switch (type.getKind()) {
+                case BOOLEAN:
+                    return "false";
+                case LONG:
+                    return "0L";
+                case DOUBLE:
+                    return "0.0";
+                default:
+                    return "0";
+            }
+        }
+
+        private String capitalizedName() {
+            return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package clevertec.utils.json;
+
+import clevertec.dto.InfoProductDto;
+import clevertec.dto.ProductDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение сгенерированных кодеков с {@link ObjectMapper} в той конфигурации, в которой его использует
+ * {@code BodyCodec}: заранее созданные writer и reader для типа.
+ *
+ * <p>Запуск: {@code ./gradlew jmh -PjmhIncludes=JsonCodecBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonCodecBenchmark {
+
+    @Param({"1", "20", "100"})
+    private int pageSize;
+
+    private List<InfoProductDto> page;
+    private byte[] productBody;
+
+    private ObjectWriter jacksonListWriter;
+    private ObjectReader jacksonProductReader;
+    private JsonCodecs generatedCodecs;
+    private JsonCodec<ProductDto> productCodec;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        jacksonListWriter = objectMapper
+                .writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, InfoProductDto.class))
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        jacksonProductReader = objectMapper.readerFor(ProductDto.class);
+        generatedCodecs = new JsonCodecs();
+        productCodec = generatedCodecs.find(ProductDto.class);
+
+        page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            page.add(InfoProductDto.builder()
+                    .id(UUID.randomUUID())
+                    .name("Product number " + i)
+                    .price(10.5 + i)
+                    .weight(0.25 * (i + 1))
+                    .build());
+        }
+        productBody = objectMapper.writeValueAsBytes(ProductDto.builder()
+                .name("Wireless Headphones")
+                .price(129.99)
+                .weight(0.35)
+                .build());
+    }
+
+    @Benchmark
+    public int writePageJackson() throws IOException {
+        out.reset();
+        jacksonListWriter.writeValue(out, page);
+        return out.size();
+    }
+
+    @Benchmark
+    public int writePageGenerated() throws IOException {
+        out.reset();
+        generatedCodecs.write(page, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public ProductDto readProductJackson() throws IOException {
+        return jacksonProductReader.readValue(new ByteArrayInputStream(productBody));
+    }
+
+    @Benchmark
+    public ProductDto readProductGenerated() throws IOException {
+        return generatedCodecs.read(productCodec, new ByteArrayInputStream(productBody));
+    }
+}
@@ -0,0 +1,58 @@
+package clevertec.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Документ из {@link PdfFileCache}, уже открытый для чтения.
+ *
+ * <p>Канал открывается, пока кэш держит блокировку индекса, поэтому вытеснение или инвалидация после
+ * этого не мешают отдать документ: удаленный файл дочитывается через открытый канал. Документ нужно
+ * закрыть после отправки.
+ */
+public final class CachedPdf implements Closeable {
+
+    private final String fileName;
+    private final FileChannel channel;
+
+    CachedPdf(String fileName, FileChannel channel) {
+        this.fileName = fileName;
+        this.channel = channel;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @return размер документа в байтах
+     * @throws IOException если размер не удалось прочитать
+     */
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Пишет документ в поток; поток не закрывается.
+     *
+     * @param out поток
+     * @throws IOException если чтение или запись не удались
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        long size = channel.size();
+        long position = 0;
+        while (position < size) {
+            position += channel.transferTo(position, size - position, target);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
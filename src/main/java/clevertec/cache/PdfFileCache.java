@@ -0,0 +1,229 @@
+package clevertec.cache;
+
+import clevertec.utils.pdfserializer.PdfDocument;
+import clevertec.utils.pdfserializer.PdfStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Дисковый кэш PDF-документов продуктов с ограничением по суммарному размеру.
+ *
+ * <p>Имя файла - {@code <id продукта>-<хэш содержимого>.pdf}: хэш вычисляется по данным, из которых
+ * строится документ, поэтому измененный продукт получает новый файл, а неизменный отдается готовым без
+ * повторного рендеринга. Документ пишется во временный файл и атомарно переименовывается, так что
+ * читатели никогда не видят недописанный PDF.
+ *
+ * <p>Когда суммарный размер превышает {@code maxBytes}, удаляются файлы, к которым обращались давнее
+ * всего (LRU). При старте кэш подхватывает уже лежащие в каталоге файлы в порядке времени изменения и
+ * удаляет оставшиеся от прерванного рендеринга временные файлы. Методы индекса синхронизированы, а
+ * рендеринг и удаление файлов выполняются вне блокировки. Документ отдается открытым каналом
+ * ({@link CachedPdf}), а не путем, чтобы вытеснение не удалило файл между поиском и чтением.
+ */
+@Slf4j
+public class PdfFileCache implements PdfStore {
+
+    private static final String PDF_SUFFIX = ".pdf";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Pattern FILE_NAME = Pattern.compile("[0-9a-f-]{36}-[0-9a-f]+\\.pdf");
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> files = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public PdfFileCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        loadExistingFiles();
+        log.info("PDF cache initialized in {} with {} files, {} of {} bytes", directory, files.size(), totalBytes, maxBytes);
+    }
+
+    @Override
+    public PdfDocument open(UUID productId, String contentHash, PdfRenderer renderer) throws IOException {
+        return PdfDocument.ofFile(getOrRender(productId, contentHash, renderer));
+    }
+
+    /**
+     * Возвращает закэшированный документ или отрисовывает и сохраняет новый.
+     *
+     * <p>Документ открывается под блокировкой индекса, поэтому параллельное вытеснение уже не может его
+     * удалить. Если файл из индекса пропал с диска, запись удаляется и документ отрисовывается заново.
+     *
+     * @param productId   id продукта
+     * @param contentHash хэш данных документа в шестнадцатеричном виде
+     * @param renderer    рендеринг документа при промахе
+     * @return открытый документ, который нужно закрыть после отправки
+     * @throws IOException если документ не удалось записать или открыть
+     */
+    public CachedPdf getOrRender(UUID productId, String contentHash, PdfRenderer renderer) throws IOException {
+        String fileName = productId + "-" + contentHash + PDF_SUFFIX;
+        Path target = directory.resolve(fileName);
+        CachedPdf cached = openCached(fileName, target);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        Path temp = Files.createTempFile(directory, productId.toString(), TEMP_SUFFIX);
+        FileChannel channel = null;
+        try {
+            try (BufferedOutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                renderer.render(out);
+            }
+            channel = FileChannel.open(temp, StandardOpenOption.READ);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            throw e;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        long size = channel.size();
+        List<String> evicted;
+        synchronized (this) {
+            Long previous = files.put(fileName, size);
+            totalBytes += size - (previous != null ? previous : 0);
+            evicted = evictOverflow(fileName);
+        }
+        deleteFiles(evicted);
+        return new CachedPdf(fileName, channel);
+    }
+
+    /**
+     * Удаляет все документы продукта, например после его изменения или удаления.
+     *
+     * @param productId id продукта
+     */
+    @Override
+    public void invalidate(UUID productId) {
+        String prefix = productId + "-";
+        List<String> removed = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Long>> iterator = files.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Long> entry = iterator.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    totalBytes -= entry.getValue();
+                    removed.add(entry.getKey());
+                    iterator.remove();
+                }
+            }
+        }
+        deleteFiles(removed);
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int getFileCount() {
+        return files.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private synchronized CachedPdf openCached(String fileName, Path target) throws IOException {
+        Long size = files.get(fileName);
+        if (size == null) {
+            return null;
+        }
+        try {
+            return new CachedPdf(fileName, FileChannel.open(target, StandardOpenOption.READ));
+        } catch (NoSuchFileException e) {
+            log.warn("Cached PDF {} is missing on disk, rendering it again", fileName);
+            files.remove(fileName);
+            totalBytes -= size;
+            return null;
+        }
+    }
+
+    /**
+     * Удаляет самые давние файлы, пока размер кэша превышает предел; только что добавленный файл остается.
+     */
+    private List<String> evictOverflow(String keep) {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> iterator = files.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            totalBytes -= eldest.getValue();
+            evicted.add(eldest.getKey());
+            iterator.remove();
+        }
+        return evicted;
+    }
+
+    private void loadExistingFiles() throws IOException {
+        List<Path> cached = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else if (FILE_NAME.matcher(fileName).matches()) {
+                    cached.add(file);
+                }
+            }
+        }
+        cached.sort(Comparator.comparing(PdfFileCache::lastModified));
+        for (Path file : cached) {
+            long size = Files.size(file);
+            files.put(file.getFileName().toString(), size);
+            totalBytes += size;
+        }
+        deleteFiles(evictOverflow(null));
+    }
+
+    private void deleteFiles(List<String> fileNames) {
+        for (String fileName : fileNames) {
+            try {
+                Files.deleteIfExists(directory.resolve(fileName));
+            } catch (IOException e) {
+                log.warn("Failed to delete cached PDF {}: {}", fileName, e.getMessage());
+            }
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
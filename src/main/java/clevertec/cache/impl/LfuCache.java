@@ -14,6 +14,7 @@ import java.util.TreeMap;
 /**
  * Реализация стратегии кэширования "Least Frequently Used" (LFU).
  * Этот кэш удаляет элементы, которые используются наименее часто.
+ * Методы синхронизированы, так как кэш используется из нескольких потоков одновременно.
  *
  * @param <K> тип ключей, поддерживаемых этим кэшем
  * @param <V> тип значений, хранящихся в кэше
@@ -48,7 +49,7 @@ public class LfuCache<K, V> implements Cache<K, V> {
      * @param value значение, которое должно быть связано с указанным ключом
      */
     @Override
-    public void put(K key, V value) {
+    public synchronized void put(K key, V value) {
         if (key == null || value == null) {
             log.warn("Key or value cannot be null");
             return;
@@ -84,7 +85,7 @@ public class LfuCache<K, V> implements Cache<K, V> {
      * или значение не найдено, возвращается пустой {@link Optional}.
      */
     @Override
-    public Optional<V> get(K key) {
+    public synchronized Optional<V> get(K key) {
         if (key == null) {
             log.debug("Key is null");
             return Optional.empty();
@@ -108,7 +109,7 @@ public class LfuCache<K, V> implements Cache<K, V> {
      * @param key ключ, значение которого должно быть удалено из кэша
      */
     @Override
-    public void delete(K key) {
+    public synchronized void delete(K key) {
         if (key != null && mainMap.containsKey(key)) {
             Integer freq = freqMap.remove(key);
             mainMap.remove(key);
@@ -13,6 +13,7 @@ import java.util.Optional;
 /**
  * Реализация кэша, использующего стратегию "Least Recently Used" (LRU).
  * В этой стратегии удаляются элементы, к которым обращались давнее всего.
+ * Методы синхронизированы, так как кэш используется из нескольких потоков одновременно.
  *
  * @param <K> тип ключей, поддерживаемых этим кэшем
  * @param <V> тип значений, хранящихся в кэше
@@ -44,7 +45,7 @@ public class LruCache<K, V> implements Cache<K, V> {
      * @param value значение, которое должно быть связано с указанным ключом
      */
     @Override
-    public void put(K key, V value) {
+    public synchronized void put(K key, V value) {
         if (map.containsKey(key)) {
             linkedList.remove(key);
         }
@@ -65,7 +66,7 @@ public class LruCache<K, V> implements Cache<K, V> {
      * @return {@link Optional} значение, связанное с указанным ключом
      */
     @Override
-    public Optional<V> get(K key) {
+    public synchronized Optional<V> get(K key) {
         if (!map.containsKey(key)) {
             log.debug("Key not found: {}", key);
             return Optional.empty();
@@ -82,7 +83,7 @@ public class LruCache<K, V> implements Cache<K, V> {
      * @param key ключ, значение которого должно быть удалено из кэша
      */
     @Override
-    public void delete(K key) {
+    public synchronized void delete(K key) {
         if (map.containsKey(key)) {
             map.remove(key);
             linkedList.remove(key);
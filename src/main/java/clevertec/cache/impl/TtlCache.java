@@ -0,0 +1,115 @@
+package clevertec.cache.impl;
+
+import clevertec.cache.Cache;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Потокобезопасный кэш, записи которого устаревают через заданное время после вставки.
+ * Используется для коротко живущих результатов запросов, которые не инвалидируются явно.
+ * При заполнении сначала удаляются устаревшие записи, затем запись, которая устареет раньше всех.
+ *
+ * @param <K> тип ключей, поддерживаемых этим кэшем
+ * @param <V> тип значений, хранящихся в кэше
+ */
+@Slf4j
+public class TtlCache<K, V> implements Cache<K, V> {
+
+    private final int capacity;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<K, Entry<V>> map = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор для создания кэша с заданной вместимостью и временем жизни записей.
+     *
+     * @param capacity  максимальное количество элементов, которое может хранить кэш
+     * @param ttlMillis время жизни записи в миллисекундах
+     */
+    public TtlCache(int capacity, long ttlMillis) {
+        this(capacity, ttlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Конструктор с источником текущего времени, используется в тестах.
+     *
+     * @param capacity  максимальное количество элементов, которое может хранить кэш
+     * @param ttlMillis время жизни записи в миллисекундах
+     * @param clock     источник текущего времени в миллисекундах
+     */
+    public TtlCache(int capacity, long ttlMillis, LongSupplier clock) {
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        log.info("TTL Cache initialized with capacity: {}, ttl: {} ms", capacity, ttlMillis);
+    }
+
+    /**
+     * Вставляет или обновляет значение, связанное с указанным ключом.
+     *
+     * @param key   ключ, с которым связано указанное значение
+     * @param value значение, которое должно быть связано с указанным ключом
+     */
+    @Override
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (map.size() >= capacity && !map.containsKey(key)) {
+            evict(now);
+        }
+        map.put(key, new Entry<>(value, now + ttlMillis));
+    }
+
+    /**
+     * Возвращает значение, если оно есть в кэше и еще не устарело.
+     *
+     * @param key ключ, значение которого нужно вернуть
+     * @return {@link Optional} значение, связанное с указанным ключом
+     */
+    @Override
+    public Optional<V> get(K key) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.expiresAt() <= clock.getAsLong()) {
+            map.remove(key, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.value());
+    }
+
+    /**
+     * Удаляет значение для ключа из кэша, если оно присутствует.
+     *
+     * @param key ключ, значение которого должно быть удалено из кэша
+     */
+    @Override
+    public void delete(K key) {
+        if (key != null) {
+            map.remove(key);
+        }
+    }
+
+    private void evict(long now) {
+        map.entrySet().removeIf(e -> e.getValue().expiresAt() <= now);
+        while (!map.isEmpty() && map.size() >= capacity) {
+            map.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().expiresAt()))
+                    .ifPresent(e -> map.remove(e.getKey(), e.getValue()));
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
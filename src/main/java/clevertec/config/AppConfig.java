@@ -1,28 +1,58 @@
 package clevertec.config;
 
 import clevertec.cache.Cache;
+import clevertec.cache.PdfFileCache;
 import clevertec.cache.impl.LfuCache;
 import clevertec.cache.impl.LruCache;
+import clevertec.cache.impl.TtlCache;
+import clevertec.dao.ProductDao;
+import clevertec.dao.impl.LogStructuredProductDao;
+import clevertec.dao.impl.ProductDaoImpl;
+import clevertec.dao.impl.SnapshotProductDao;
+import clevertec.dao.impl.WriteBehindBuffer;
 import clevertec.entity.Product;
+import clevertec.filter.AdaptiveConcurrencyLimit;
+import clevertec.filter.AdmissionControlFilter;
+import clevertec.filter.TokenBucketRateLimiter;
 import clevertec.mapper.ProductMapper;
 import clevertec.mapper.ProductMapperImpl;
+import clevertec.metrics.InstrumentedDataSource;
+import clevertec.metrics.MetricsRegistry;
 import clevertec.servlet.ProductServlet;
+import clevertec.utils.concurrent.TaskExecutors;
+import clevertec.utils.pdfserializer.CatalogPdfWriter;
+import clevertec.utils.pdfserializer.InMemoryPdfStore;
+import clevertec.utils.pdfserializer.PdfSerializer;
+import clevertec.utils.pdfserializer.PdfStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import liquibase.integration.spring.SpringLiquibase;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
 import org.springframework.core.io.ClassPathResource;
 
 import javax.sql.DataSource;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.function.ToIntFunction;
 
 @Configuration
 @ComponentScan(basePackages = "clevertec")
@@ -41,18 +71,156 @@ public class AppConfig {
     @Value("${database.driver-class-name}")
     private String dbDriverClassName;
 
+    @Value("${database.engine}")
+    private String databaseEngine;
+
+    @Value("${database.local.directory}")
+    private String localDirectory;
+
+    @Value("${database.local.segment-size-mb}")
+    private long localSegmentSizeMb;
+
+    @Value("${database.local.compaction-garbage-ratio}")
+    private double localCompactionGarbageRatio;
+
+    @Value("${database.local.compaction-interval-seconds}")
+    private long localCompactionIntervalSeconds;
+
+    @Value("${database.local.fsync}")
+    private String localFsync;
+
+    @Value("${database.local.fsync-interval-ms}")
+    private long localFsyncIntervalMs;
+
+    @Value("${database.write-behind.enabled}")
+    private boolean writeBehindEnabled;
+
+    @Value("${catalog.snapshot.enabled}")
+    private boolean snapshotEnabled;
+
+    @Value("${catalog.snapshot.refresh-interval-ms}")
+    private long snapshotRefreshIntervalMs;
+
+    @Value("${catalog.snapshot.overlap-ms}")
+    private long snapshotOverlapMs;
+
+    @Value("${database.pool-size}")
+    private int poolSize;
+
     @Value("${database.sql-path}")
     private String sqlPathKey;
 
     @Value("${database.initialize-db}")
     private Boolean initializeDatabase;
 
+    @Value("${servlet.executor}")
+    private String servletExecutor;
+
+    @Value("${servlet.threads}")
+    private int servletThreads;
+
+    @Value("${servlet.queue-capacity}")
+    private int servletQueueCapacity;
+
+    @Value("${admission.retry-after-seconds}")
+    private long admissionRetryAfterSeconds;
+
+    @Value("${admission.reads.limit}")
+    private int admissionReadsLimit;
+
+    @Value("${admission.reads.max-limit}")
+    private int admissionReadsMaxLimit;
+
+    @Value("${admission.reads.latency-threshold-ms}")
+    private long admissionReadsLatencyMs;
+
+    @Value("${admission.writes.limit}")
+    private int admissionWritesLimit;
+
+    @Value("${admission.writes.max-limit}")
+    private int admissionWritesMaxLimit;
+
+    @Value("${admission.writes.latency-threshold-ms}")
+    private long admissionWritesLatencyMs;
+
+    @Value("${admission.pdf.limit}")
+    private int admissionPdfLimit;
+
+    @Value("${admission.pdf.max-limit}")
+    private int admissionPdfMaxLimit;
+
+    @Value("${admission.pdf.latency-threshold-ms}")
+    private long admissionPdfLatencyMs;
+
+    @Value("${admission.catalog.limit}")
+    private int admissionCatalogLimit;
+
+    @Value("${admission.catalog.max-limit}")
+    private int admissionCatalogMaxLimit;
+
+    @Value("${admission.catalog.latency-threshold-ms}")
+    private long admissionCatalogLatencyMs;
+
+    @Value("${admission.client.requests-per-second}")
+    private double admissionClientRate;
+
+    @Value("${admission.client.burst}")
+    private int admissionClientBurst;
+
+    @Value("${admission.client.max-tracked}")
+    private int admissionMaxTrackedClients;
+
+    @Value("${admission.client.key-header}")
+    private String admissionClientKeyHeader;
+
     @Value("${cache.type}")
     private String cacheType;
 
     @Value("${cache.capacity}")
     private int cacheCapacity;
 
+    @Value("${startup.skip-unchanged-changelog}")
+    private boolean skipUnchangedChangelog;
+
+    @Value("${pdf.mode}")
+    private String pdfMode;
+
+    @Value("${pdf.cache.directory}")
+    private String pdfCacheDirectory;
+
+    @Value("${pdf.cache.max-size-mb}")
+    private long pdfCacheMaxSizeMb;
+
+    @Value("${pdf.memory.pool-size}")
+    private int pdfMemoryPoolSize;
+
+    @Value("${pdf.memory.buffer-kb}")
+    private int pdfMemoryBufferKb;
+
+    @Value("${pdf.memory.max-retained-kb}")
+    private int pdfMemoryMaxRetainedKb;
+
+    @Value("${pdf.catalog.threads}")
+    private int pdfCatalogThreads;
+
+    @Value("${pdf.catalog.queue-capacity}")
+    private int pdfCatalogQueueCapacity;
+
+    @Value("${pdf.catalog.batch-size}")
+    private int pdfCatalogBatchSize;
+
+    @Value("${pdf.catalog.window}")
+    private int pdfCatalogWindow;
+
+    @Value("${pdf.catalog.max-products}")
+    private int pdfCatalogMaxProducts;
+
+    @Value("${search.cache-capacity}")
+    private int searchCacheCapacity;
+
+    @Value("${search.cache-ttl-ms}")
+    private long searchCacheTtlMs;
+
     @Bean
     public static PropertySourcesPlaceholderConfigurer properties() {
         PropertySourcesPlaceholderConfigurer propertyConfigurer = new PropertySourcesPlaceholderConfigurer();
@@ -63,13 +231,88 @@ public class AppConfig {
     }
 
     @Bean
-    public DataSource dataSource() {
+    public static LazyInitBeanFactoryPostProcessor lazyInitBeanFactoryPostProcessor() {
+        return new LazyInitBeanFactoryPostProcessor();
+    }
+
+    @Bean
+    public DataSource dataSource(MetricsRegistry metricsRegistry) {
         HikariConfig hikariConfig = new HikariConfig();
         hikariConfig.setJdbcUrl(dbUrl);
         hikariConfig.setUsername(dbUsername);
         hikariConfig.setPassword(dbPassword);
         hikariConfig.setDriverClassName(dbDriverClassName);
-        return new HikariDataSource(hikariConfig);
+        hikariConfig.setMaximumPoolSize(poolSize);
+        if (!isPostgresEngine()) {
+            hikariConfig.setMinimumIdle(0);
+            hikariConfig.setInitializationFailTimeout(-1);
+        }
+        HikariDataSource hikariDataSource = new HikariDataSource(hikariConfig);
+
+        metricsRegistry.registerGauge("hikari.active", () -> poolGauge(hikariDataSource, HikariPoolMXBean::getActiveConnections));
+        metricsRegistry.registerGauge("hikari.idle", () -> poolGauge(hikariDataSource, HikariPoolMXBean::getIdleConnections));
+        metricsRegistry.registerGauge("hikari.pending", () -> poolGauge(hikariDataSource, HikariPoolMXBean::getThreadsAwaitingConnection));
+        metricsRegistry.registerGauge("hikari.total", () -> poolGauge(hikariDataSource, HikariPoolMXBean::getTotalConnections));
+        return new InstrumentedDataSource(hikariDataSource, metricsRegistry);
+    }
+
+    @Bean
+    @Lazy(false)
+    @DependsOn("liquibase")
+    public ProductDao productDao(DataSource dataSource, WriteBehindBuffer writeBehindBuffer) {
+        ProductDao productDao = switch (databaseEngine) {
+            case "postgres" -> new ProductDaoImpl(dataSource, writeBehindBuffer);
+            case "local" -> new LogStructuredProductDao(Path.of(localDirectory), localSegmentSizeMb * 1024 * 1024,
+                    localCompactionGarbageRatio, localCompactionIntervalSeconds,
+                    LogStructuredProductDao.FsyncPolicy.valueOf(localFsync.toUpperCase(Locale.ROOT)), localFsyncIntervalMs);
+            default -> throw new IllegalArgumentException("Unsupported database engine: " + databaseEngine);
+        };
+        if (!snapshotEnabled || !isPostgresEngine()) {
+            return productDao;
+        }
+        if (writeBehindEnabled) {
+            throw new IllegalArgumentException("catalog.snapshot requires database.write-behind to be disabled");
+        }
+        return SnapshotProductDao.create(productDao, dataSource, snapshotRefreshIntervalMs, snapshotOverlapMs);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService requestExecutor() {
+        return switch (servletExecutor) {
+            case "virtual" -> TaskExecutors.newVirtualThreadExecutor("request")
+                    .orElseGet(() -> TaskExecutors.newBoundedThreadPool("request", servletThreads, servletQueueCapacity));
+            case "platform" -> TaskExecutors.newBoundedThreadPool("request", servletThreads, servletQueueCapacity);
+            default -> throw new IllegalArgumentException("Unsupported servlet executor: " + servletExecutor);
+        };
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService pdfExecutor() {
+        int threads = pdfCatalogThreads > 0 ? pdfCatalogThreads : Runtime.getRuntime().availableProcessors();
+        return TaskExecutors.newBoundedThreadPool("pdf", threads, pdfCatalogQueueCapacity);
+    }
+
+    @Bean
+    public AdmissionControlFilter admissionControlFilter(MetricsRegistry metricsRegistry) {
+        AdaptiveConcurrencyLimit reads = new AdaptiveConcurrencyLimit("reads",
+                admissionReadsLimit, admissionReadsMaxLimit, admissionReadsLatencyMs);
+        AdaptiveConcurrencyLimit writes = new AdaptiveConcurrencyLimit("writes",
+                admissionWritesLimit, admissionWritesMaxLimit, admissionWritesLatencyMs);
+        AdaptiveConcurrencyLimit pdf = new AdaptiveConcurrencyLimit("pdf",
+                admissionPdfLimit, admissionPdfMaxLimit, admissionPdfLatencyMs);
+        AdaptiveConcurrencyLimit catalog = new AdaptiveConcurrencyLimit("catalog",
+                admissionCatalogLimit, admissionCatalogMaxLimit, admissionCatalogLatencyMs);
+        AdmissionControlFilter filter = new AdmissionControlFilter(reads, writes, pdf, catalog,
+                new TokenBucketRateLimiter(admissionClientRate, admissionClientBurst, admissionMaxTrackedClients),
+                admissionClientKeyHeader, admissionRetryAfterSeconds);
+
+        for (AdaptiveConcurrencyLimit limit : List.of(reads, writes, pdf, catalog)) {
+            metricsRegistry.registerGauge("admission." + limit.getName() + ".limit", limit::getLimit);
+            metricsRegistry.registerGauge("admission." + limit.getName() + ".in-flight", limit::getInFlight);
+            metricsRegistry.registerGauge("admission." + limit.getName() + ".rejected", limit::getRejected);
+        }
+        metricsRegistry.registerGauge("admission.rate-limited", filter::getRateLimited);
+        return filter;
     }
 
     @Bean
@@ -82,6 +325,15 @@ public class AppConfig {
         return new ProductMapperImpl();
     }
 
+    @Bean
+    public Validator validator() {
+        return Validation.byDefaultProvider()
+                .configure()
+                .messageInterpolator(new ParameterMessageInterpolator())
+                .buildValidatorFactory()
+                .getValidator();
+    }
+
     @Bean
     public Cache<UUID, Product> productCache() {
         return switch (cacheType) {
@@ -92,11 +344,47 @@ public class AppConfig {
     }
 
     @Bean
-    public SpringLiquibase liquibase(DataSource dataSource) {
-        SpringLiquibase liquibase = new SpringLiquibase();
+    public Cache<String, List<Product>> searchCache() {
+        return new TtlCache<>(searchCacheCapacity, searchCacheTtlMs);
+    }
+
+    @Bean
+    public PdfStore pdfStore(MetricsRegistry metricsRegistry) throws IOException {
+        switch (pdfMode) {
+            case "file" -> {
+                PdfFileCache pdfFileCache = new PdfFileCache(Path.of(pdfCacheDirectory), pdfCacheMaxSizeMb * 1024 * 1024);
+                metricsRegistry.registerGauge("pdf.cache.bytes", pdfFileCache::getTotalBytes);
+                metricsRegistry.registerGauge("pdf.cache.files", pdfFileCache::getFileCount);
+                metricsRegistry.registerGauge("pdf.cache.hits", pdfFileCache::getHits);
+                metricsRegistry.registerGauge("pdf.cache.misses", pdfFileCache::getMisses);
+                return pdfFileCache;
+            }
+            case "memory" -> {
+                InMemoryPdfStore inMemoryPdfStore = new InMemoryPdfStore(pdfMemoryPoolSize,
+                        pdfMemoryBufferKb * 1024, pdfMemoryMaxRetainedKb * 1024);
+                metricsRegistry.registerGauge("pdf.memory.pooled", inMemoryPdfStore::getPooledCount);
+                metricsRegistry.registerGauge("pdf.memory.allocations", inMemoryPdfStore::getAllocations);
+                return inMemoryPdfStore;
+            }
+            default -> throw new IllegalArgumentException("Unsupported pdf mode: " + pdfMode);
+        }
+    }
+
+    @Bean
+    public CatalogPdfWriter catalogPdfWriter(PdfSerializer pdfSerializer,
+                                             @Qualifier("pdfExecutor") ExecutorService pdfExecutor) {
+        return new CatalogPdfWriter(pdfSerializer, pdfExecutor, pdfCatalogQueueCapacity, pdfCatalogBatchSize,
+                pdfCatalogWindow, pdfCatalogMaxProducts);
+    }
+
+    @Bean
+    @Lazy(false)
+    public ChecksumGuardedLiquibase liquibase(DataSource dataSource) {
+        ChecksumGuardedLiquibase liquibase = new ChecksumGuardedLiquibase();
         liquibase.setDataSource(dataSource);
         liquibase.setChangeLog(sqlPathKey);
-        liquibase.setShouldRun(initializeDatabase);
+        liquibase.setShouldRun(initializeDatabase && isPostgresEngine());
+        liquibase.setSkipUnchanged(skipUnchangedChangelog);
         return liquibase;
     }
 
@@ -104,4 +392,13 @@ public class AppConfig {
     public ProductServlet productServlet() {
         return new ProductServlet();
     }
+
+    private boolean isPostgresEngine() {
+        return "postgres".equals(databaseEngine);
+    }
+
+    private static int poolGauge(HikariDataSource dataSource, ToIntFunction<HikariPoolMXBean> gauge) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool != null ? gauge.applyAsInt(pool) : 0;
+    }
 }
@@ -0,0 +1,102 @@
+package clevertec.config;
+
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HexFormat;
+
+/**
+ * {@link SpringLiquibase}, который не запускает Liquibase, если changelog не изменился с прошлого запуска.
+ *
+ * <p>SHA-256 файла changelog сравнивается с записанным в таблице {@code changelog_checksums}. При совпадении
+ * старт обходится одним запросом вместо разбора changelog, блокировки и чтения {@code DATABASECHANGELOG}.
+ * Иначе Liquibase выполняется как обычно, и после успешного обновления записывается новая сумма.
+ * Предполагается, что схема меняется только через этот changelog.
+ */
+@Slf4j
+public class ChecksumGuardedLiquibase extends SpringLiquibase {
+
+    private static final String CREATE_TABLE_QUERY = """
+            CREATE TABLE IF NOT EXISTS changelog_checksums (
+                changelog  VARCHAR(255) PRIMARY KEY,
+                checksum   VARCHAR(64) NOT NULL,
+                applied_at TIMESTAMP   NOT NULL
+            )""";
+    private static final String FIND_CHECKSUM_QUERY = "SELECT checksum FROM changelog_checksums WHERE changelog = ?";
+    private static final String SAVE_CHECKSUM_QUERY = """
+            INSERT INTO changelog_checksums (changelog, checksum, applied_at) VALUES (?, ?, now())
+            ON CONFLICT (changelog) DO UPDATE SET checksum = EXCLUDED.checksum, applied_at = EXCLUDED.applied_at""";
+
+    private boolean run = true;
+    private boolean skipUnchanged = true;
+
+    @Override
+    public void setShouldRun(boolean shouldRun) {
+        super.setShouldRun(shouldRun);
+        this.run = shouldRun;
+    }
+
+    public void setSkipUnchanged(boolean skipUnchanged) {
+        this.skipUnchanged = skipUnchanged;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws LiquibaseException {
+        if (!run || !skipUnchanged) {
+            super.afterPropertiesSet();
+            return;
+        }
+        String checksum = checksum();
+        try (Connection connection = getDataSource().getConnection()) {
+            if (checksum.equals(findRecordedChecksum(connection))) {
+                log.info("Changelog {} is unchanged (sha-256 {}), skipping Liquibase", getChangeLog(), checksum);
+                return;
+            }
+        } catch (SQLException e) {
+            throw new LiquibaseException("Failed to read checksum of changelog " + getChangeLog(), e);
+        }
+
+        super.afterPropertiesSet();
+
+        try (Connection connection = getDataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement(SAVE_CHECKSUM_QUERY)) {
+            statement.setString(1, getChangeLog());
+            statement.setString(2, checksum);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new LiquibaseException("Failed to record checksum of changelog " + getChangeLog(), e);
+        }
+    }
+
+    private String findRecordedChecksum(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TABLE_QUERY);
+        }
+        try (PreparedStatement statement = connection.prepareStatement(FIND_CHECKSUM_QUERY)) {
+            statement.setString(1, getChangeLog());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    private String checksum() throws LiquibaseException {
+        try (InputStream in = new ClassPathResource(getChangeLog()).getInputStream()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(in.readAllBytes()));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new LiquibaseException("Failed to compute checksum of changelog " + getChangeLog(), e);
+        }
+    }
+}
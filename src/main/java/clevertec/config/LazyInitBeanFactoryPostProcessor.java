@@ -0,0 +1,42 @@
+package clevertec.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+
+/**
+ * Включает ленивую инициализацию бинов приложения при {@code startup.lazy-init: true}.
+ *
+ * <p>Бины создаются при первом обращении, а не при старте контекста, поэтому старт не платит за то, что
+ * понадобится только первому запросу. Бины, для которых ленивость указана явно, не меняются: фоновые
+ * компоненты (отложенная запись, статистика, партиции, снимок каталога) и Liquibase помечены
+ * {@code @Lazy(false)} и стартуют сразу. Инфраструктурные бины Spring не затрагиваются.
+ *
+ * <p>Процессор выполняется после {@code PropertySourcesPlaceholderConfigurer}, поэтому читает настройку
+ * через {@link ConfigurableListableBeanFactory#resolveEmbeddedValue}.
+ */
+@Slf4j
+public class LazyInitBeanFactoryPostProcessor implements BeanFactoryPostProcessor {
+
+    static final String PROPERTY = "${startup.lazy-init}";
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        if (!Boolean.parseBoolean(beanFactory.resolveEmbeddedValue(PROPERTY))) {
+            return;
+        }
+        int lazyBeans = 0;
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (definition.getRole() == BeanDefinition.ROLE_APPLICATION
+                    && definition instanceof AbstractBeanDefinition beanDefinition
+                    && beanDefinition.getLazyInit() == null) {
+                beanDefinition.setLazyInit(true);
+                lazyBeans++;
+            }
+        }
+        log.info("Lazy initialization enabled for {} beans", lazyBeans);
+    }
+}
@@ -0,0 +1,186 @@
+package clevertec.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * {@link ApplicationStartup}, который записывает шаги старта контекста Spring и выводит их в лог.
+ *
+ * <p>После {@code refresh()} в лог уровня INFO пишется общее время и бины с наибольшим собственным временем
+ * создания (без времени зависимостей), а на уровне DEBUG - полная хронология: смещение от начала
+ * {@code refresh()}, вложенность, полное и собственное время каждого бина. Бины, созданные после старта
+ * (например, ленивые), пишутся в DEBUG по одному и не накапливаются.
+ */
+@Slf4j
+public class LoggingApplicationStartup implements ApplicationStartup {
+
+    static final String REFRESH_STEP = "spring.context.refresh";
+    static final String INSTANTIATE_STEP = "spring.beans.instantiate";
+    private static final String BEAN_NAME_TAG = "beanName";
+    private static final int SLOWEST_BEANS = 5;
+
+    private final Deque<Step> activeSteps = new ArrayDeque<>();
+    private final List<Step> beanSteps = new ArrayList<>();
+    private long nextId;
+    private boolean refreshed;
+
+    @Override
+    public synchronized StartupStep start(String name) {
+        Step parent = refreshed ? null : activeSteps.peek();
+        Step step = new Step(++nextId, name, parent, System.nanoTime());
+        if (!refreshed) {
+            activeSteps.push(step);
+        }
+        return step;
+    }
+
+    /**
+     * @return шаги создания бинов, записанные во время {@code refresh()}, в порядке завершения
+     */
+    synchronized List<Step> getBeanSteps() {
+        return List.copyOf(beanSteps);
+    }
+
+    private synchronized void end(Step step) {
+        step.endNanos = System.nanoTime();
+        if (refreshed) {
+            if (INSTANTIATE_STEP.equals(step.name) && log.isDebugEnabled()) {
+                log.debug("Bean '{}' created after startup in {} ms", step.beanName(), millis(step.totalNanos()));
+            }
+            return;
+        }
+        activeSteps.remove(step);
+        if (step.parent != null) {
+            step.parent.childNanos += step.totalNanos();
+        }
+        if (INSTANTIATE_STEP.equals(step.name)) {
+            beanSteps.add(step);
+        } else if (REFRESH_STEP.equals(step.name)) {
+            refreshed = true;
+            activeSteps.clear();
+            report(step);
+        }
+    }
+
+    private void report(Step refresh) {
+        String slowest = beanSteps.stream()
+                .sorted(Comparator.comparingLong(Step::selfNanos).reversed())
+                .limit(SLOWEST_BEANS)
+                .map(step -> step.beanName() + " " + millis(step.selfNanos()) + " ms")
+                .collect(Collectors.joining(", "));
+        log.info("Spring context refreshed in {} ms, {} beans created; slowest: {}",
+                millis(refresh.totalNanos()), beanSteps.size(), slowest);
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        beanSteps.stream()
+                .sorted(Comparator.comparingLong(step -> step.startNanos))
+                .forEach(step -> log.debug("+{} ms {}{}: total {} ms, self {} ms",
+                        millis(step.startNanos - refresh.startNanos), "  ".repeat(step.depth), step.beanName(),
+                        millis(step.totalNanos()), millis(step.selfNanos())));
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", (double) nanos / TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    /**
+     * Шаг старта с временем начала и окончания.
+     */
+    final class Step implements StartupStep {
+
+        private final long id;
+        private final String name;
+        private final Step parent;
+        private final int depth;
+        private final long startNanos;
+        private final List<Tag> tags = new ArrayList<>(1);
+        private long endNanos;
+        private long childNanos;
+
+        private Step(long id, String name, Step parent, long startNanos) {
+            this.id = id;
+            this.name = name;
+            this.parent = parent;
+            this.depth = parent != null ? parent.depth + 1 : 0;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getParentId() {
+            return parent != null ? parent.id : null;
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            tags.add(new SimpleTag(key, value));
+            return this;
+        }
+
+        @Override
+        public StartupStep tag(String key, Supplier<String> value) {
+            return tag(key, value.get());
+        }
+
+        @Override
+        public Tags getTags() {
+            return tags::iterator;
+        }
+
+        @Override
+        public void end() {
+            LoggingApplicationStartup.this.end(this);
+        }
+
+        String beanName() {
+            for (Tag tag : tags) {
+                if (BEAN_NAME_TAG.equals(tag.getKey())) {
+                    return tag.getValue();
+                }
+            }
+            return name;
+        }
+
+        long totalNanos() {
+            return endNanos - startNanos;
+        }
+
+        long selfNanos() {
+            return totalNanos() - childNanos;
+        }
+    }
+
+    private record SimpleTag(String key, String value) implements StartupStep.Tag {
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String getValue() {
+            return value;
+        }
+    }
+}
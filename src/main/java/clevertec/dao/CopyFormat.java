@@ -0,0 +1,22 @@
+package clevertec.dao;
+
+/**
+ * Формат данных команды {@code COPY} PostgreSQL.
+ */
+public enum CopyFormat {
+    CSV("FORMAT csv, HEADER"),
+    BINARY("FORMAT binary");
+
+    private final String options;
+
+    CopyFormat(String options) {
+        this.options = options;
+    }
+
+    /**
+     * @return опции для предложения {@code WITH (...)} команды {@code COPY}
+     */
+    public String getOptions() {
+        return options;
+    }
+}
@@ -1,16 +1,34 @@
 package clevertec.dao;
 
+import clevertec.dto.ProductFilter;
 import clevertec.entity.Product;
 
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface ProductDao {
     Optional<Product> findById(UUID uuid);
 
+    List<Product> findAllById(Collection<UUID> ids);
+
     List<Product> findAll(int pageSize, int pageNumber);
 
+    List<Product> findAllAfter(UUID afterId, int limit);
+
+    List<Product> findByFilter(ProductFilter filter);
+
+    List<Product> searchByName(String query, int limit);
+
+    void streamAll(Consumer<Product> consumer);
+
+    long copyIn(List<Product> products);
+
+    long copyOut(OutputStream out, CopyFormat format);
+
     Product save(Product product);
 
     Product update(Product product);
@@ -0,0 +1,102 @@
+package clevertec.dao.impl;
+
+import clevertec.entity.Product;
+import clevertec.exception.DatabaseAccessException;
+import lombok.RequiredArgsConstructor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Читает изменения таблицы {@code products} по отметке {@code updated_at} и журнал удалений
+ * {@code product_deletions}, который заполняет триггер. Оба запроса выполняются в одной транзакции
+ * {@code REPEATABLE READ} и видят один и тот же снимок базы.
+ */
+@RequiredArgsConstructor
+class CatalogChangeFeed {
+
+    private static final String LOAD_ALL_QUERY = "SELECT id, name, price, weight, creation_date, updated_at FROM products";
+    private static final String CHANGED_SINCE_QUERY = LOAD_ALL_QUERY + " WHERE updated_at > ?";
+    private static final String TRANSACTION_TIME_QUERY = "SELECT LOCALTIMESTAMP";
+    private static final String DELETED_SINCE_QUERY = "SELECT id, deleted_at FROM product_deletions WHERE deleted_at > ?";
+    private static final int FETCH_SIZE = 1000;
+
+    private final DataSource dataSource;
+
+    record Changes(List<Product> changed, List<UUID> deleted, LocalDateTime watermark) {
+    }
+
+    /**
+     * Возвращает изменения после {@code since} или весь каталог, если {@code since} равен {@code null}.
+     * Если при полной загрузке каталог пуст, отметкой становится время начала транзакции, чтобы
+     * следующие обновления читали только изменения.
+     *
+     * @param since     нижняя граница {@code updated_at}, не включая ее
+     * @param watermark текущая отметка; возвращается без изменений, если новых строк нет
+     * @return изменения и новая отметка
+     */
+    Changes since(LocalDateTime since, LocalDateTime watermark) {
+        List<Product> changed = new ArrayList<>();
+        List<UUID> deleted = new ArrayList<>();
+        LocalDateTime newWatermark = watermark;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                try (PreparedStatement preparedStatement =
+                             connection.prepareStatement(since == null ? LOAD_ALL_QUERY : CHANGED_SINCE_QUERY)) {
+                    preparedStatement.setFetchSize(FETCH_SIZE);
+                    if (since != null) {
+                        preparedStatement.setTimestamp(1, Timestamp.valueOf(since));
+                    }
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                        while (resultSet.next()) {
+                            changed.add(ProductDaoImpl.buildProduct(resultSet));
+                            newWatermark = max(newWatermark, resultSet.getTimestamp("updated_at").toLocalDateTime());
+                        }
+                    }
+                }
+                if (since == null && newWatermark == null) {
+                    newWatermark = transactionTime(connection);
+                }
+                if (since != null) {
+                    try (PreparedStatement preparedStatement = connection.prepareStatement(DELETED_SINCE_QUERY)) {
+                        preparedStatement.setTimestamp(1, Timestamp.valueOf(since));
+                        try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                            while (resultSet.next()) {
+                                deleted.add((UUID) resultSet.getObject("id"));
+                                newWatermark = max(newWatermark, resultSet.getTimestamp("deleted_at").toLocalDateTime());
+                            }
+                        }
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to read catalog changes", e);
+        }
+        return new Changes(changed, deleted, newWatermark);
+    }
+
+    private static LocalDateTime transactionTime(Connection connection) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(TRANSACTION_TIME_QUERY);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getTimestamp(1).toLocalDateTime();
+        }
+    }
+
+    private static LocalDateTime max(LocalDateTime current, LocalDateTime candidate) {
+        return current == null || candidate.isAfter(current) ? candidate : current;
+    }
+}
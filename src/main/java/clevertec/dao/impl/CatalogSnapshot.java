@@ -0,0 +1,138 @@
+package clevertec.dao.impl;
+
+import clevertec.entity.Product;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Неизменяемый снимок каталога: массив продуктов в порядке создания и индекс по идентификатору.
+ *
+ * <p>Снимок никогда не меняется после построения, поэтому читается из любых потоков без блокировок.
+ * Изменения применяются методом {@link #apply}, который строит новый снимок. Наружу отдаются только
+ * копии продуктов: сервисный слой изменяет полученные сущности на месте.
+ */
+final class CatalogSnapshot {
+
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(new Product[0], Map.of(), null);
+
+    private static final Comparator<Product> BY_CREATED = Comparator
+            .comparing(Product::getCreated, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Product::getId);
+
+    private final Product[] byCreation;
+    private final Map<UUID, Product> byId;
+    private final LocalDateTime watermark;
+
+    private CatalogSnapshot(Product[] byCreation, Map<UUID, Product> byId, LocalDateTime watermark) {
+        this.byCreation = byCreation;
+        this.byId = byId;
+        this.watermark = watermark;
+    }
+
+    /**
+     * Строит снимок из полного набора продуктов.
+     *
+     * @param products  все продукты каталога
+     * @param watermark наибольшее {@code updated_at} среди загруженных строк
+     * @return новый снимок
+     */
+    static CatalogSnapshot of(Collection<Product> products, LocalDateTime watermark) {
+        Product[] sorted = products.toArray(new Product[0]);
+        Arrays.sort(sorted, BY_CREATED);
+        Map<UUID, Product> index = new HashMap<>(sorted.length * 4 / 3 + 1);
+        for (Product product : sorted) {
+            index.put(product.getId(), product);
+        }
+        return new CatalogSnapshot(sorted, index, watermark);
+    }
+
+    /**
+     * Возвращает новый снимок с примененными изменениями. Удаления применяются раньше изменений,
+     * поэтому продукт, удаленный и снова записанный в одном окне, остается в снимке.
+     *
+     * <p>Сортируются только изменения, после чего они сливаются с уже упорядоченным массивом за один
+     * проход: обновление стоит {@code O(n + k log k)} вместо полной пересортировки каталога.
+     *
+     * @param changed   новые и измененные продукты
+     * @param deleted   идентификаторы удаленных продуктов
+     * @param watermark новая отметка {@code updated_at}
+     * @return новый снимок или этот же, если изменений нет
+     */
+    CatalogSnapshot apply(List<Product> changed, Collection<UUID> deleted, LocalDateTime watermark) {
+        if (changed.isEmpty() && deleted.isEmpty()) {
+            return new CatalogSnapshot(byCreation, byId, watermark);
+        }
+        Map<UUID, Product> latest = new HashMap<>(changed.size() * 4 / 3 + 1);
+        changed.forEach(product -> latest.put(product.getId(), product));
+        Product[] delta = latest.values().toArray(new Product[0]);
+        Arrays.sort(delta, BY_CREATED);
+
+        Map<UUID, Product> index = new HashMap<>(byId);
+        deleted.forEach(index::remove);
+        index.putAll(latest);
+
+        Product[] merged = new Product[index.size()];
+        int size = 0;
+        int next = 0;
+        for (Product product : byCreation) {
+            if (index.get(product.getId()) != product) {
+                continue;
+            }
+            while (next < delta.length && BY_CREATED.compare(delta[next], product) < 0) {
+                merged[size++] = delta[next++];
+            }
+            merged[size++] = product;
+        }
+        while (next < delta.length) {
+            merged[size++] = delta[next++];
+        }
+        return new CatalogSnapshot(merged, index, watermark);
+    }
+
+    Optional<Product> find(UUID id) {
+        Product product = byId.get(id);
+        return product != null ? Optional.of(copy(product)) : Optional.empty();
+    }
+
+    /**
+     * Возвращает страницу продуктов в порядке создания.
+     *
+     * @param pageSize   размер страницы
+     * @param pageNumber номер страницы, начиная с 1
+     * @return копии продуктов страницы
+     */
+    List<Product> page(int pageSize, int pageNumber) {
+        long from = (long) (pageNumber - 1) * pageSize;
+        if (from < 0 || from >= byCreation.length) {
+            return List.of();
+        }
+        int to = (int) Math.min(byCreation.length, from + pageSize);
+        List<Product> page = new ArrayList<>(to - (int) from);
+        for (int i = (int) from; i < to; i++) {
+            page.add(copy(byCreation[i]));
+        }
+        return page;
+    }
+
+    int size() {
+        return byCreation.length;
+    }
+
+    LocalDateTime watermark() {
+        return watermark;
+    }
+
+    private static Product copy(Product product) {
+        return new Product(product.getId(), product.getName(), product.getPrice(), product.getWeight(),
+                product.getCreated());
+    }
+}
@@ -0,0 +1,660 @@
+package clevertec.dao.impl;
+
+import clevertec.dao.CopyFormat;
+import clevertec.dao.ProductDao;
+import clevertec.dto.ProductFilter;
+import clevertec.entity.Product;
+import clevertec.exception.DatabaseAccessException;
+import clevertec.exception.ProductNotFoundException;
+import clevertec.utils.concurrent.TaskExecutors;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Локальное хранилище продуктов без PostgreSQL: журнал сегментов фиксированного размера,
+ * отображенных в память ({@link MappedByteBuffer}).
+ *
+ * <p>Каждая запись имеет фиксированную длину {@link #RECORD_SIZE} и только дописывается в конец
+ * активного сегмента: {@code save} и {@code update} пишут новую версию продукта, {@code delete} —
+ * надгробие (tombstone). В памяти хранится индекс {@code UUID → (сегмент, смещение)}, поэтому чтение
+ * по идентификатору — это одно обращение к отображенной памяти без системных вызовов.
+ *
+ * <p>Заполненный сегмент запечатывается, и дальше запись идет в новый. Фоновое уплотнение переносит
+ * живые записи из сегментов, где доля устаревших записей не меньше {@code compaction-garbage-ratio},
+ * в активный сегмент и удаляет старый файл. При старте сегменты читаются по порядку; чтение сегмента
+ * останавливается на первой пустой записи или записи с неверной контрольной суммой (оборванная запись).
+ *
+ * <p>Долговечность записи задает {@link FsyncPolicy}: сброс сегмента на диск после каждой записи,
+ * по таймеру или только при смене сегмента и закрытии хранилища.
+ *
+ * <p>Для постраничного списка и сортировки по дате создания поддерживается упорядоченный индекс
+ * {@code (creation_date, id)}; фильтры по цене и весу и поиск обходят индекс целиком и подходят для каталогов,
+ * помещающихся в память. Экспорт поддерживает только {@link CopyFormat#CSV}.
+ */
+@Slf4j
+public class LogStructuredProductDao implements ProductDao, Closeable {
+
+    static final int MAX_NAME_BYTES = 255 * 3;
+    static final int RECORD_SIZE = 48 + MAX_NAME_BYTES + 4;
+
+    private static final byte TYPE_EMPTY = 0;
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_TOMBSTONE = 2;
+
+    private static final int NULL_NAME = 1;
+    private static final int NULL_PRICE = 1 << 1;
+    private static final int NULL_WEIGHT = 1 << 2;
+    private static final int NULL_CREATED = 1 << 3;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CSV_HEADER = "id,name,price,weight,creation_date\n";
+
+    private static final Comparator<CreatedKey> CREATED_ORDER = Comparator
+            .comparing(CreatedKey::created, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(CreatedKey::id);
+
+    /**
+     * Момент сброса записанных данных на диск.
+     */
+    public enum FsyncPolicy {
+        /**
+         * Сегмент сбрасывается после каждой операции записи до возврата из нее.
+         */
+        ALWAYS,
+        /**
+         * Активный сегмент сбрасывается по таймеру; при сбое теряются записи последнего интервала.
+         */
+        INTERVAL,
+        /**
+         * Сброс только при смене сегмента и закрытии; остальное остается на усмотрение ОС.
+         */
+        NEVER
+    }
+
+    private final Path directory;
+    private final int segmentCapacity;
+    private final double compactionGarbageRatio;
+    private final FsyncPolicy fsyncPolicy;
+
+    private final Map<UUID, Location> index = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<CreatedKey> byCreated = new ConcurrentSkipListSet<>(CREATED_ORDER);
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final byte[] writeBuffer = new byte[RECORD_SIZE];
+
+    private volatile Segment active;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Открывает хранилище в каталоге {@code directory}, восстанавливая индекс из существующих сегментов.
+     *
+     * @param directory                 каталог сегментов; создается при необходимости
+     * @param segmentSizeBytes          размер файла сегмента
+     * @param compactionGarbageRatio    доля устаревших записей, при которой сегмент уплотняется
+     * @param compactionIntervalSeconds период фонового уплотнения; {@code 0} отключает его
+     * @param fsyncPolicy               момент сброса записей на диск
+     * @param fsyncIntervalMs           период сброса для {@link FsyncPolicy#INTERVAL}
+     */
+    public LogStructuredProductDao(Path directory, long segmentSizeBytes,
+                                   double compactionGarbageRatio, long compactionIntervalSeconds,
+                                   FsyncPolicy fsyncPolicy, long fsyncIntervalMs) {
+        this.directory = directory;
+        this.segmentCapacity = (int) (Math.min(segmentSizeBytes, Integer.MAX_VALUE) / RECORD_SIZE) * RECORD_SIZE;
+        this.compactionGarbageRatio = compactionGarbageRatio;
+        this.fsyncPolicy = fsyncPolicy;
+        if (segmentCapacity == 0) {
+            throw new IllegalArgumentException("Segment size must hold at least one record");
+        }
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new DatabaseAccessException("Failed to open product log in " + directory, e);
+        }
+        boolean timedFsync = fsyncPolicy == FsyncPolicy.INTERVAL && fsyncIntervalMs > 0;
+        if (compactionIntervalSeconds > 0 || timedFsync) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(TaskExecutors.namedThreadFactory("product-log"));
+        }
+        if (compactionIntervalSeconds > 0) {
+            scheduler.scheduleWithFixedDelay(this::compactQuietly,
+                    compactionIntervalSeconds, compactionIntervalSeconds, TimeUnit.SECONDS);
+        }
+        if (timedFsync) {
+            scheduler.scheduleWithFixedDelay(this::forceQuietly, fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        log.info("Local product log opened in {}: {} products in {} segments", directory, index.size(), segments.size());
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+        Location location = index.get(uuid);
+        return location != null ? Optional.of(read(location)) : Optional.empty();
+    }
+
+    /**
+     * Возвращает страницу продуктов в порядке даты создания. Пропускаемые записи берутся из упорядоченного
+     * индекса без чтения сегментов, поэтому стоимость не зависит от сортировки всего каталога.
+     */
+    @Override
+    public List<Product> findAllById(Collection<UUID> ids) {
+        List<Product> products = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Location location = index.get(id);
+            if (location != null) {
+                products.add(read(location));
+            }
+        }
+        return products;
+    }
+
+    @Override
+    public List<Product> findAll(int pageSize, int pageNumber) {
+        return byCreated.stream()
+                .skip((long) (pageNumber - 1) * pageSize)
+                .limit(pageSize)
+                .map(key -> index.get(key.id()))
+                .filter(Objects::nonNull)
+                .map(LogStructuredProductDao::read)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Product> findAllAfter(UUID afterId, int limit) {
+        return index.keySet().stream()
+                .filter(id -> afterId == null || id.compareTo(afterId) > 0)
+                .sorted()
+                .limit(limit)
+                .map(index::get)
+                .filter(Objects::nonNull)
+                .map(LogStructuredProductDao::read)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Product> findByFilter(ProductFilter filter) {
+        Stream<Product> products;
+        if (filter.getSortBy() == ProductFilter.SortField.CREATED) {
+            products = inCreatedOrder(filter.isDescending());
+        } else {
+            Comparator<Product> order = sortOrder(filter.getSortBy());
+            products = liveProducts().sorted(filter.isDescending() ? order.reversed() : order);
+        }
+        return page(products.filter(matches(filter)), filter.getPageSize(), filter.getPageNumber());
+    }
+
+    @Override
+    public List<Product> searchByName(String query, int limit) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        return liveProducts()
+                .filter(product -> product.getName() != null
+                        && product.getName().toLowerCase(Locale.ROOT).contains(needle))
+                .sorted(Comparator.comparing(Product::getName))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamAll(Consumer<Product> consumer) {
+        index.values().forEach(location -> consumer.accept(read(location)));
+    }
+
+    @Override
+    public long copyIn(List<Product> products) {
+        writeLock.lock();
+        try {
+            for (Product product : products) {
+                put(product);
+            }
+            afterWrite();
+            return products.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public long copyOut(OutputStream out, CopyFormat format) {
+        if (format != CopyFormat.CSV) {
+            throw new IllegalArgumentException("Local storage supports only CSV export");
+        }
+        try {
+            out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+            long rows = 0;
+            StringBuilder row = new StringBuilder(128);
+            for (Location location : index.values()) {
+                Product product = read(location);
+                row.setLength(0);
+                row.append(product.getId()).append(',');
+                ProductDaoImpl.appendCsvText(row, product.getName()).append(',');
+                row.append(product.getPrice()).append(',')
+                        .append(product.getWeight()).append(',')
+                        .append(Timestamp.valueOf(product.getCreated())).append('\n');
+                out.write(row.toString().getBytes(StandardCharsets.UTF_8));
+                rows++;
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new DatabaseAccessException("Failed to write product export", e);
+        }
+    }
+
+    @Override
+    public Product save(Product product) {
+        writeLock.lock();
+        try {
+            if (index.containsKey(product.getId())) {
+                throw new IllegalArgumentException("Product already exists: " + product.getId());
+            }
+            index.put(product.getId(), append(TYPE_PUT, product.getId(), product));
+            byCreated.add(new CreatedKey(product.getCreated(), product.getId()));
+            afterWrite();
+            return product;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Product update(Product product) {
+        writeLock.lock();
+        try {
+            put(product);
+            afterWrite();
+            return product;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        writeLock.lock();
+        try {
+            Location previous = index.remove(uuid);
+            if (previous == null) {
+                throw new ProductNotFoundException(uuid);
+            }
+            byCreated.remove(new CreatedKey(read(previous).getCreated(), uuid));
+            previous.segment().live.decrementAndGet();
+            append(TYPE_TOMBSTONE, uuid, null).segment().live.decrementAndGet();
+            afterWrite();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void put(Product product) {
+        LocalDateTime previousCreated = null;
+        Location current = index.get(product.getId());
+        if (current != null) {
+            previousCreated = read(current).getCreated();
+        }
+        Location previous = index.put(product.getId(), append(TYPE_PUT, product.getId(), product));
+        byCreated.add(new CreatedKey(product.getCreated(), product.getId()));
+        if (previous != null) {
+            previous.segment().live.decrementAndGet();
+            if (!Objects.equals(previousCreated, product.getCreated())) {
+                byCreated.remove(new CreatedKey(previousCreated, product.getId()));
+            }
+        }
+    }
+
+    private void afterWrite() {
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            active.force();
+        }
+    }
+
+    /**
+     * Уплотняет запечатанные сегменты, начиная с самого старого. Живые записи переписываются в активный
+     * сегмент, после чего файл старого сегмента удаляется. Надгробия переносятся, пока существуют более
+     * старые сегменты, в которых может лежать удаленная версия продукта.
+     *
+     * @return количество удаленных сегментов
+     */
+    public int compact() {
+        int removed = 0;
+        for (Segment segment : segments.values()) {
+            writeLock.lock();
+            try {
+                if (segment == active || segment.garbageRatio() < compactionGarbageRatio) {
+                    continue;
+                }
+                rewriteLiveRecords(segment);
+                active.force();
+                segments.remove(segment.id);
+                segment.delete();
+                removed++;
+            } catch (IOException e) {
+                throw new DatabaseAccessException("Failed to compact segment " + segment.path, e);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return removed;
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Останавливает уплотнение и сбрасывает активный сегмент на диск.
+     */
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        writeLock.lock();
+        try {
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        } catch (IOException e) {
+            log.error("Failed to close product log", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            int id = Integer.parseInt(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+            Segment segment = Segment.open(file, id, segmentCapacity);
+            segments.put(id, segment);
+            replay(segment);
+        }
+        segments.values().forEach(segment -> segment.live.set(0));
+        index.values().forEach(location -> location.segment().live.incrementAndGet());
+        index.forEach((id, location) -> byCreated.add(new CreatedKey(read(location).getCreated(), id)));
+        active = segments.isEmpty() ? createSegment(1) : segments.lastEntry().getValue();
+    }
+
+    private void replay(Segment segment) {
+        byte[] record = new byte[RECORD_SIZE];
+        CRC32 crc = new CRC32();
+        int position = 0;
+        while (position < segment.capacity) {
+            segment.buffer.get(position, record);
+            ByteBuffer view = ByteBuffer.wrap(record);
+            byte type = view.get(0);
+            crc.reset();
+            crc.update(record, 0, RECORD_SIZE - 4);
+            if (type == TYPE_EMPTY || (int) crc.getValue() != view.getInt(RECORD_SIZE - 4)) {
+                break;
+            }
+            UUID id = new UUID(view.getLong(2), view.getLong(10));
+            if (type == TYPE_PUT) {
+                index.put(id, new Location(segment, position));
+            } else {
+                index.remove(id);
+            }
+            position += RECORD_SIZE;
+            segment.records++;
+        }
+        segment.writePosition = position;
+    }
+
+    private void rewriteLiveRecords(Segment segment) throws IOException {
+        boolean keepTombstones = !segment.id.equals(segments.firstKey());
+        byte[] record = new byte[RECORD_SIZE];
+        for (int position = 0; position < segment.writePosition; position += RECORD_SIZE) {
+            segment.buffer.get(position, record);
+            ByteBuffer view = ByteBuffer.wrap(record);
+            UUID id = new UUID(view.getLong(2), view.getLong(10));
+            if (view.get(0) == TYPE_PUT) {
+                Location location = index.get(id);
+                if (location != null && location.segment() == segment && location.position() == position) {
+                    index.put(id, appendRaw(record));
+                }
+            } else if (keepTombstones && !index.containsKey(id)) {
+                appendRaw(record).segment().live.decrementAndGet();
+            }
+        }
+    }
+
+    private Location append(byte type, UUID id, Product product) {
+        ByteBuffer view = ByteBuffer.wrap(writeBuffer);
+        Arrays.fill(writeBuffer, (byte) 0);
+        view.put(0, type);
+        view.putLong(2, id.getMostSignificantBits());
+        view.putLong(10, id.getLeastSignificantBits());
+        if (product != null) {
+            encode(view, product);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(writeBuffer, 0, RECORD_SIZE - 4);
+        view.putInt(RECORD_SIZE - 4, (int) crc.getValue());
+        try {
+            return appendRaw(writeBuffer);
+        } catch (IOException e) {
+            throw new DatabaseAccessException("Failed to append to product log", e);
+        }
+    }
+
+    private Location appendRaw(byte[] record) throws IOException {
+        if (active.writePosition + RECORD_SIZE > active.capacity) {
+            active.force();
+            active = createSegment(active.id + 1);
+        }
+        int position = active.writePosition;
+        active.buffer.put(position, record);
+        active.writePosition = position + RECORD_SIZE;
+        active.records++;
+        active.live.incrementAndGet();
+        return new Location(active, position);
+    }
+
+    private Segment createSegment(int id) throws IOException {
+        Path path = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        Segment segment = Segment.open(path, id, segmentCapacity);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private static void encode(ByteBuffer view, Product product) {
+        byte[] name = product.getName() != null ? product.getName().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Product name is longer than " + MAX_NAME_BYTES + " bytes");
+        }
+        int flags = (product.getName() == null ? NULL_NAME : 0)
+                | (product.getPrice() == null ? NULL_PRICE : 0)
+                | (product.getWeight() == null ? NULL_WEIGHT : 0)
+                | (product.getCreated() == null ? NULL_CREATED : 0);
+        view.put(1, (byte) flags);
+        view.putDouble(18, product.getPrice() != null ? product.getPrice() : 0);
+        view.putDouble(26, product.getWeight() != null ? product.getWeight() : 0);
+        if (product.getCreated() != null) {
+            view.putLong(34, product.getCreated().toEpochSecond(ZoneOffset.UTC));
+            view.putInt(42, product.getCreated().getNano());
+        }
+        view.putShort(46, (short) name.length);
+        view.put(48, name);
+    }
+
+    private static Product read(Location location) {
+        byte[] record = new byte[RECORD_SIZE];
+        location.segment().buffer.get(location.position(), record);
+        ByteBuffer view = ByteBuffer.wrap(record);
+        int flags = view.get(1);
+        return Product.builder()
+                .id(new UUID(view.getLong(2), view.getLong(10)))
+                .name((flags & NULL_NAME) != 0 ? null
+                        : new String(record, 48, view.getShort(46), StandardCharsets.UTF_8))
+                .price((flags & NULL_PRICE) != 0 ? null : view.getDouble(18))
+                .weight((flags & NULL_WEIGHT) != 0 ? null : view.getDouble(26))
+                .created((flags & NULL_CREATED) != 0 ? null
+                        : LocalDateTime.ofEpochSecond(view.getLong(34), view.getInt(42), ZoneOffset.UTC))
+                .build();
+    }
+
+    private Stream<Product> liveProducts() {
+        return index.values().stream().map(LogStructuredProductDao::read);
+    }
+
+    private Stream<Product> inCreatedOrder(boolean descending) {
+        NavigableSet<CreatedKey> keys = descending ? byCreated.descendingSet() : byCreated;
+        return keys.stream()
+                .map(key -> index.get(key.id()))
+                .filter(Objects::nonNull)
+                .map(LogStructuredProductDao::read);
+    }
+
+    private static List<Product> page(Stream<Product> products, int pageSize, int pageNumber) {
+        return products.skip((long) (pageNumber - 1) * pageSize)
+                .limit(pageSize)
+                .collect(Collectors.toList());
+    }
+
+    private static Predicate<Product> matches(ProductFilter filter) {
+        return product -> atLeast(product.getPrice(), filter.getMinPrice())
+                && atMost(product.getPrice(), filter.getMaxPrice())
+                && atLeast(product.getWeight(), filter.getMinWeight())
+                && atMost(product.getWeight(), filter.getMaxWeight())
+                && (filter.getCreatedFrom() == null
+                || product.getCreated() != null && !product.getCreated().isBefore(filter.getCreatedFrom()))
+                && (filter.getCreatedTo() == null
+                || product.getCreated() != null && product.getCreated().isBefore(filter.getCreatedTo()));
+    }
+
+    private static boolean atLeast(Double value, Double bound) {
+        return bound == null || value != null && value >= bound;
+    }
+
+    private static boolean atMost(Double value, Double bound) {
+        return bound == null || value != null && value <= bound;
+    }
+
+    private static Comparator<Product> sortOrder(ProductFilter.SortField sortField) {
+        return switch (sortField) {
+            case PRICE -> Comparator.comparing(Product::getPrice, Comparator.nullsLast(Comparator.<Double>naturalOrder()))
+                    .thenComparing(Product::getId);
+            case WEIGHT -> Comparator.comparing(Product::getWeight, Comparator.nullsLast(Comparator.<Double>naturalOrder()))
+                    .thenComparing(Product::getId);
+            case CREATED -> Comparator.comparing(Product::getCreated, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                    .thenComparing(Product::getId);
+        };
+    }
+
+    private void compactQuietly() {
+        try {
+            int removed = compact();
+            if (removed > 0) {
+                log.info("Compacted {} product log segments", removed);
+            }
+        } catch (DatabaseAccessException e) {
+            log.error("Product log compaction failed", e);
+        }
+    }
+
+    private void forceQuietly() {
+        try {
+            active.force();
+        } catch (RuntimeException e) {
+            log.error("Product log fsync failed", e);
+        }
+    }
+
+    private record Location(Segment segment, int position) {
+    }
+
+    private record CreatedKey(LocalDateTime created, UUID id) {
+    }
+
+    /**
+     * Файл сегмента, целиком отображенный в память. Чтение использует только абсолютные методы буфера,
+     * поэтому безопасно из нескольких потоков; запись выполняется под {@code writeLock}.
+     */
+    private static final class Segment {
+
+        private final Integer id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final AtomicInteger live = new AtomicInteger();
+
+        private volatile int writePosition;
+        private int records;
+
+        private Segment(Integer id, Path path, FileChannel channel, MappedByteBuffer buffer, int capacity) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+
+        static Segment open(Path path, Integer id, int capacity) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int size = (int) Math.max(capacity, channel.size() / RECORD_SIZE * RECORD_SIZE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new Segment(id, path, channel, buffer, size);
+        }
+
+        double garbageRatio() {
+            return records == 0 ? 0 : 1 - (double) live.get() / records;
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void close() throws IOException {
+            force();
+            channel.close();
+        }
+
+        void delete() throws IOException {
+            channel.close();
+            Files.delete(path);
+        }
+    }
+}
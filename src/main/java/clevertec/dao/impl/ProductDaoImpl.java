@@ -1,49 +1,76 @@
 package clevertec.dao.impl;
 
+import clevertec.dao.CopyFormat;
 import clevertec.dao.ProductDao;
+import clevertec.dto.ProductFilter;
 import clevertec.entity.Product;
 import clevertec.exception.DatabaseAccessException;
 import clevertec.exception.ProductNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Repository;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 
 import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Реализация интерфейса {@link ProductDao} для взаимодействия с продуктами в базе данных.
  * Предоставляет методы для поиска, сохранения, обновления и удаления продуктов.
  */
 @Slf4j
-@Repository
 @RequiredArgsConstructor
 public class ProductDaoImpl implements ProductDao {
 
-    private static final String FIND_BY_ID_QUERY = "SELECT * FROM products WHERE id = ?";
+    private static final String FIND_BY_ID_QUERY = "SELECT p.* FROM product_ids i "
+            + "JOIN products p ON p.id = i.id AND p.creation_date = i.creation_date WHERE i.id = ?";
+    private static final String FIND_ALL_BY_ID_QUERY = "SELECT p.* FROM product_ids i "
+            + "JOIN products p ON p.id = i.id AND p.creation_date = i.creation_date WHERE i.id = ANY(?)";
     private static final String FIND_ALL_QUERY = "SELECT * FROM products LIMIT ? OFFSET ?";
+    private static final String FIND_FIRST_QUERY = "SELECT * FROM products ORDER BY id LIMIT ?";
+    private static final String FIND_ALL_AFTER_QUERY = "SELECT * FROM products WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SEARCH_BY_NAME_QUERY = "SELECT * FROM products WHERE name ILIKE ? ESCAPE '\\' ORDER BY name LIMIT ?";
+    private static final String STREAM_ALL_QUERY = "SELECT * FROM products";
+    private static final String COPY_IN_QUERY = "COPY products (id, name, price, weight, creation_date) FROM STDIN WITH (FORMAT csv)";
+    private static final String COPY_OUT_QUERY = "COPY (SELECT id, name, price, weight, creation_date FROM products) TO STDOUT WITH (%s)";
     private static final String SAVE_QUERY = "INSERT INTO products (id, name, price, weight, creation_date) VALUES (?, ?, ?, ?, ?)";
-    private static final String UPDATE_QUERY = "UPDATE products SET name = ?, price = ?, weight = ?, creation_date = ? WHERE id = ?";
-    private static final String DELETE_QUERY = "DELETE FROM products WHERE id = ?";
+    static final String UPDATE_QUERY = "UPDATE products SET name = ?, price = ?, weight = ?, creation_date = ?, updated_at = now() "
+            + "WHERE id = ? AND creation_date = ?";
+    private static final String DELETE_QUERY = "DELETE FROM products "
+            + "WHERE id = ? AND creation_date = (SELECT creation_date FROM product_ids WHERE id = ?)";
+
+    private static final int STREAM_FETCH_SIZE = 1000;
 
     private final DataSource dataSource;
+    private final WriteBehindBuffer writeBehindBuffer;
 
     /**
      * Ищет продукт в базе данных по его уникальному идентификатору.
+     * Таблица {@code products} секционирована по {@code creation_date}, поэтому дата создания сначала
+     * берется из глобального индекса {@code product_ids}, и чтение затрагивает одну секцию.
      *
      * @param uuid Уникальный идентификатор продукта.
      * @return Опциональный объект продукта. Если продукт не найден, возвращает пустой Optional.
      */
     @Override
     public Optional<Product> findById(UUID uuid) {
+        Optional<Product> pendingProduct = writeBehindBuffer.find(uuid);
+        if (pendingProduct.isPresent()) {
+            return pendingProduct;
+        }
         try (Connection connection = dataSource.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(FIND_BY_ID_QUERY)) {
             preparedStatement.setObject(1, uuid);
@@ -60,6 +87,38 @@ public class ProductDaoImpl implements ProductDao {
         return Optional.empty();
     }
 
+    /**
+     * Загружает продукты по набору идентификаторов одним запросом {@code id = ANY(?)}.
+     * Несброшенные версии из {@link WriteBehindBuffer} имеют приоритет над строками базы.
+     *
+     * @param ids Идентификаторы продуктов.
+     * @return Найденные продукты в произвольном порядке; отсутствующие идентификаторы пропускаются.
+     */
+    @Override
+    public List<Product> findAllById(Collection<UUID> ids) {
+        List<Product> productList = new ArrayList<>(ids.size());
+        List<UUID> misses = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            writeBehindBuffer.find(id).ifPresentOrElse(productList::add, () -> misses.add(id));
+        }
+        if (misses.isEmpty()) {
+            return productList;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(FIND_ALL_BY_ID_QUERY)) {
+            preparedStatement.setArray(1, connection.createArrayOf("uuid", misses.toArray()));
+
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    productList.add(buildProduct(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Error retrieving products by ids", e);
+        }
+        return productList;
+    }
+
     /**
      * Получает страницу списка продуктов из базы данных.
      *
@@ -86,6 +145,167 @@ public class ProductDaoImpl implements ProductDao {
         return productList;
     }
 
+    /**
+     * Получает продукты в порядке {@code id}, следующие за {@code afterId} (keyset-пагинация). В отличие от
+     * {@code OFFSET} порядок стабилен, а стоимость запроса не растет с номером страницы.
+     *
+     * @param afterId Идентификатор последнего продукта предыдущей страницы или {@code null} для первой.
+     * @param limit   Максимальное количество продуктов.
+     * @return Продукты с {@code id} больше {@code afterId}, упорядоченные по {@code id}.
+     */
+    @Override
+    public List<Product> findAllAfter(UUID afterId, int limit) {
+        List<Product> productList = new ArrayList<>(limit);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(
+                     afterId != null ? FIND_ALL_AFTER_QUERY : FIND_FIRST_QUERY)) {
+            int index = 1;
+            if (afterId != null) {
+                preparedStatement.setObject(index++, afterId);
+            }
+            preparedStatement.setInt(index, limit);
+
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    productList.add(buildProduct(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Error retrieving products", e);
+        }
+        return productList;
+    }
+
+    /**
+     * Получает страницу продуктов, отфильтрованных по диапазонам цены и веса, в заданном порядке.
+     * Условия и сортировка строятся {@link ProductQueryBuilder} и используют индексы по
+     * {@code price}, {@code weight} и {@code creation_date}.
+     *
+     * @param filter Параметры фильтрации, сортировки и пагинации.
+     * @return Список продуктов, соответствующий фильтру и странице.
+     */
+    @Override
+    public List<Product> findByFilter(ProductFilter filter) {
+        List<Product> productList = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = ProductQueryBuilder.forFilter(filter).prepare(connection);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            while (resultSet.next()) {
+                productList.add(buildProduct(resultSet));
+            }
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Error retrieving filtered products", e);
+        }
+        return productList;
+    }
+
+    /**
+     * Ищет продукты, название которых содержит подстроку без учета регистра.
+     * Запрос обслуживается триграммным GIN-индексом {@code products_name_trgm_idx}.
+     *
+     * @param query Подстрока для поиска. Символы {@code %} и {@code _} ищутся буквально.
+     * @param limit Максимальное количество результатов.
+     * @return Список найденных продуктов, отсортированный по названию.
+     */
+    @Override
+    public List<Product> searchByName(String query, int limit) {
+        List<Product> productList = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(SEARCH_BY_NAME_QUERY)) {
+            preparedStatement.setString(1, "%" + escapeLikePattern(query) + "%");
+            preparedStatement.setInt(2, limit);
+
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    productList.add(buildProduct(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Error searching products by name", e);
+        }
+        return productList;
+    }
+
+    /**
+     * Последовательно передает все продукты таблицы обработчику, не загружая их в память целиком.
+     * Курсор читается порциями по {@value #STREAM_FETCH_SIZE} строк внутри транзакции только для чтения.
+     *
+     * @param consumer Обработчик, вызываемый для каждого продукта.
+     */
+    @Override
+    public void streamAll(Consumer<Product> consumer) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement preparedStatement = connection.prepareStatement(STREAM_ALL_QUERY)) {
+                preparedStatement.setFetchSize(STREAM_FETCH_SIZE);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        consumer.accept(buildProduct(resultSet));
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Error streaming products", e);
+        }
+    }
+
+    /**
+     * Записывает продукты одной командой {@code COPY ... FROM STDIN} протокола PostgreSQL.
+     * Строки CSV формируются и передаются на сервер по одной, без промежуточного буфера на всю порцию.
+     *
+     * @param products Продукты для вставки.
+     * @return Количество записанных строк.
+     */
+    @Override
+    public long copyIn(List<Product> products) {
+        try (Connection connection = dataSource.getConnection()) {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_IN_QUERY);
+            try {
+                StringBuilder row = new StringBuilder(128);
+                for (Product product : products) {
+                    row.setLength(0);
+                    row.append(product.getId()).append(',');
+                    appendCsvText(row, product.getName()).append(',');
+                    row.append(product.getPrice()).append(',')
+                            .append(product.getWeight()).append(',')
+                            .append(Timestamp.valueOf(product.getCreated())).append('\n');
+                    byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                }
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to copy products", e);
+        }
+    }
+
+    /**
+     * Выгружает всю таблицу продуктов командой {@code COPY ... TO STDOUT}.
+     * Байты от сервера копируются прямо в {@code out}, объекты {@link Product} не создаются.
+     *
+     * @param out    Поток, в который пишется выгрузка.
+     * @param format Формат выгрузки.
+     * @return Количество выгруженных строк.
+     */
+    @Override
+    public long copyOut(OutputStream out, CopyFormat format) {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyOut(String.format(COPY_OUT_QUERY, format.getOptions()), out);
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to export products", e);
+        } catch (IOException e) {
+            throw new DatabaseAccessException("Failed to write product export", e);
+        }
+    }
+
     /**
      * Сохраняет продукт в базе данных.
      *
@@ -110,19 +330,20 @@ public class ProductDaoImpl implements ProductDao {
 
     /**
      * Обновляет существующий продукт в базе данных.
+     * В режиме write-behind обновление только помещается в {@link WriteBehindBuffer}.
      *
      * @param product Продукт для обновления
      * @return Обновленный продукт
      */
     @Override
     public Product update(Product product) {
+        if (writeBehindBuffer.isEnabled()) {
+            writeBehindBuffer.enqueue(product);
+            return product;
+        }
         try (Connection connection = dataSource.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(UPDATE_QUERY)) {
-            preparedStatement.setString(1, product.getName());
-            preparedStatement.setDouble(2, product.getPrice());
-            preparedStatement.setDouble(3, product.getWeight());
-            preparedStatement.setTimestamp(4, Timestamp.valueOf(product.getCreated()));
-            preparedStatement.setObject(5, product.getId());
+            bindUpdate(preparedStatement, product);
             preparedStatement.executeUpdate();
         } catch (SQLException e) {
             throw new DatabaseAccessException("Failed to update product", e);
@@ -137,9 +358,11 @@ public class ProductDaoImpl implements ProductDao {
      */
     @Override
     public void delete(UUID uuid) {
+        writeBehindBuffer.discard(uuid);
         try (Connection connection = dataSource.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(DELETE_QUERY)) {
             preparedStatement.setObject(1, uuid);
+            preparedStatement.setObject(2, uuid);
             int rowsAffected = preparedStatement.executeUpdate();
             if (rowsAffected < 1) {
                 throw new ProductNotFoundException(uuid);
@@ -149,7 +372,31 @@ public class ProductDaoImpl implements ProductDao {
         }
     }
 
-    private Product buildProduct(ResultSet resultSet) throws SQLException {
+    /**
+     * Устанавливает параметры {@link #UPDATE_QUERY}. Условие по {@code creation_date} позволяет
+     * PostgreSQL отсечь все секции, кроме одной.
+     */
+    static void bindUpdate(PreparedStatement preparedStatement, Product product) throws SQLException {
+        Timestamp created = Timestamp.valueOf(product.getCreated());
+        preparedStatement.setString(1, product.getName());
+        preparedStatement.setDouble(2, product.getPrice());
+        preparedStatement.setDouble(3, product.getWeight());
+        preparedStatement.setTimestamp(4, created);
+        preparedStatement.setObject(5, product.getId());
+        preparedStatement.setTimestamp(6, created);
+    }
+
+    static StringBuilder appendCsvText(StringBuilder row, String value) {
+        return row.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private String escapeLikePattern(String query) {
+        return query.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    static Product buildProduct(ResultSet resultSet) throws SQLException {
         return Product.builder()
                 .id((UUID) resultSet.getObject("id"))
                 .name(resultSet.getString("name"))
@@ -0,0 +1,106 @@
+package clevertec.dao.impl;
+
+import clevertec.exception.DatabaseAccessException;
+import clevertec.utils.concurrent.TaskExecutors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поддерживает запас месячных секций таблицы {@code products}.
+ *
+ * <p>Таблица секционирована по {@code creation_date}. При старте и затем по таймеру вызывается
+ * функция {@code create_product_partitions}, которая создает недостающие секции на
+ * {@code months-ahead} месяцев вперед и переносит в них строки, попавшие в секцию по умолчанию.
+ * Благодаря этому новые продукты не копятся в {@code products_default}, а запросы с диапазоном
+ * дат читают только нужные секции. С локальным хранилищем ({@code database.engine: local}) не запускается.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@DependsOn("liquibase")
+public class ProductPartitionManager implements InitializingBean, DisposableBean {
+
+    private static final String CREATE_PARTITIONS_QUERY = "SELECT create_product_partitions(?, ?)";
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final long checkIntervalHours;
+
+    private ScheduledExecutorService scheduler;
+
+    public ProductPartitionManager(DataSource dataSource,
+                                   @Value("${database.engine}") String engine,
+                                   @Value("${database.partitions.months-ahead}") int monthsAhead,
+                                   @Value("${database.partitions.check-interval-hours}") long checkIntervalHours) {
+        this.dataSource = dataSource;
+        this.enabled = "postgres".equals(engine);
+        this.monthsAhead = monthsAhead;
+        this.checkIntervalHours = checkIntervalHours;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        ensurePartitions();
+        scheduler = Executors.newSingleThreadScheduledExecutor(TaskExecutors.namedThreadFactory("partitions"));
+        scheduler.scheduleWithFixedDelay(this::ensurePartitionsQuietly,
+                checkIntervalHours, checkIntervalHours, TimeUnit.HOURS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Создает секции с текущего месяца на {@code months-ahead} месяцев вперед.
+     *
+     * @return количество созданных секций
+     */
+    public int ensurePartitions() {
+        LocalDate today = LocalDate.now();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(CREATE_PARTITIONS_QUERY)) {
+            preparedStatement.setDate(1, Date.valueOf(today.withDayOfMonth(1)));
+            preparedStatement.setDate(2, Date.valueOf(today.plusMonths(monthsAhead)));
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                int created = resultSet.next() ? resultSet.getInt(1) : 0;
+                if (created > 0) {
+                    log.info("Created {} product partitions", created);
+                }
+                return created;
+            }
+        } catch (SQLException e) {
+            throw new DatabaseAccessException("Failed to create product partitions", e);
+        }
+    }
+
+    private void ensurePartitionsQuietly() {
+        try {
+            ensurePartitions();
+        } catch (DatabaseAccessException e) {
+            log.error("Partition maintenance failed", e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package clevertec.dao.impl;
+
+import clevertec.dto.ProductFilter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Построитель параметризованных запросов к таблице {@code products}.
+ *
+ * <p>Значения фильтров передаются только через параметры {@link PreparedStatement}; имена колонок
+ * берутся из констант и {@link ProductFilter.SortField}, поэтому пользовательский ввод не попадает в SQL.
+ * Сортировка всегда дополняется колонкой {@code id}, чтобы страницы были стабильными и совпадали с
+ * составными индексами {@code (column, id)}. Условия по {@code creation_date} позволяют PostgreSQL
+ * отсечь секции таблицы, не попадающие в диапазон.
+ */
+class ProductQueryBuilder {
+
+    private final StringBuilder sql = new StringBuilder("SELECT * FROM products");
+    private final List<Object> parameters = new ArrayList<>();
+    private boolean hasWhere;
+
+    /**
+     * Строит запрос страницы продуктов по фильтру.
+     *
+     * @param filter параметры выборки
+     * @return построитель с готовым запросом
+     */
+    static ProductQueryBuilder forFilter(ProductFilter filter) {
+        return new ProductQueryBuilder()
+                .where("price", ">=", filter.getMinPrice())
+                .where("price", "<=", filter.getMaxPrice())
+                .where("weight", ">=", filter.getMinWeight())
+                .where("weight", "<=", filter.getMaxWeight())
+                .where("creation_date", ">=", filter.getCreatedFrom())
+                .where("creation_date", "<", filter.getCreatedTo())
+                .orderBy(filter.getSortBy(), filter.isDescending())
+                .page(filter.getPageSize(), filter.getPageNumber());
+    }
+
+    /**
+     * Добавляет условие {@code column operator ?}, если значение задано.
+     *
+     * @param column   имя колонки (константа, не пользовательский ввод)
+     * @param operator оператор сравнения
+     * @param value    значение параметра; {@code null} пропускает условие
+     * @return этот построитель
+     */
+    ProductQueryBuilder where(String column, String operator, Object value) {
+        if (value == null) {
+            return this;
+        }
+        sql.append(hasWhere ? " AND " : " WHERE ")
+                .append(column).append(' ').append(operator).append(" ?");
+        parameters.add(value);
+        hasWhere = true;
+        return this;
+    }
+
+    ProductQueryBuilder orderBy(ProductFilter.SortField sortField, boolean descending) {
+        String direction = descending ? " DESC" : "";
+        sql.append(" ORDER BY ")
+                .append(sortField.getColumn()).append(direction)
+                .append(", id").append(direction);
+        return this;
+    }
+
+    ProductQueryBuilder page(int pageSize, int pageNumber) {
+        sql.append(" LIMIT ? OFFSET ?");
+        parameters.add(pageSize);
+        parameters.add((pageNumber - 1) * pageSize);
+        return this;
+    }
+
+    String sql() {
+        return sql.toString();
+    }
+
+    List<Object> parameters() {
+        return parameters;
+    }
+
+    /**
+     * Подготавливает запрос на соединении и устанавливает все параметры.
+     *
+     * @param connection соединение с базой данных
+     * @return подготовленный запрос
+     * @throws SQLException если запрос не удалось подготовить
+     */
+    PreparedStatement prepare(Connection connection) throws SQLException {
+        PreparedStatement preparedStatement = connection.prepareStatement(sql());
+        try {
+            for (int i = 0; i < parameters.size(); i++) {
+                Object parameter = parameters.get(i);
+                if (parameter instanceof LocalDateTime dateTime) {
+                    preparedStatement.setTimestamp(i + 1, Timestamp.valueOf(dateTime));
+                } else {
+                    preparedStatement.setObject(i + 1, parameter);
+                }
+            }
+        } catch (SQLException e) {
+            preparedStatement.close();
+            throw e;
+        }
+        return preparedStatement;
+    }
+}
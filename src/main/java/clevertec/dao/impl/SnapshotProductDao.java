@@ -0,0 +1,190 @@
+package clevertec.dao.impl;
+
+import clevertec.dao.CopyFormat;
+import clevertec.dao.ProductDao;
+import clevertec.dto.ProductFilter;
+import clevertec.entity.Product;
+import clevertec.exception.DatabaseAccessException;
+import clevertec.utils.concurrent.TaskExecutors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * DAO, обслуживающий {@code findById}, {@code findAllById} и {@code findAll} из снимка каталога в памяти.
+ *
+ * <p>При старте весь каталог загружается в {@link CatalogSnapshot}. Затем по таймеру читаются строки
+ * с {@code updated_at} больше отметки последнего обновления минус {@code overlap-ms} (перекрытие
+ * покрывает транзакции, зафиксированные позже своего {@code now()}), и новый снимок подменяет старый
+ * одной записью в {@code volatile}-поле. Источником истины остается Postgres: все записи и остальные
+ * выборки передаются в {@code delegate}.
+ *
+ * <p>Собственные записи приложения сразу попадают в небольшой оверлей, который проверяется в
+ * {@code findById} до снимка и очищается, когда их накрывает следующее обновление. Страницы
+ * {@code findAll} отражают изменения с задержкой до {@code refresh-interval-ms}.
+ */
+@Slf4j
+public class SnapshotProductDao implements ProductDao, InitializingBean, DisposableBean {
+
+    private final ProductDao delegate;
+    private final CatalogChangeFeed changeFeed;
+    private final long refreshIntervalMs;
+    private final long overlapMs;
+
+    private final Map<UUID, PendingWrite> overlay = new ConcurrentHashMap<>();
+
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+    private ScheduledExecutorService scheduler;
+
+    SnapshotProductDao(ProductDao delegate, CatalogChangeFeed changeFeed, long refreshIntervalMs, long overlapMs) {
+        this.delegate = delegate;
+        this.changeFeed = changeFeed;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.overlapMs = overlapMs;
+    }
+
+    /**
+     * Создает DAO со снимком поверх {@code delegate}, читающий изменения из {@code dataSource}.
+     */
+    public static SnapshotProductDao create(ProductDao delegate, DataSource dataSource,
+                                            long refreshIntervalMs, long overlapMs) {
+        return new SnapshotProductDao(delegate, new CatalogChangeFeed(dataSource), refreshIntervalMs, overlapMs);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        refresh();
+        log.info("Catalog snapshot loaded: {} products", snapshot.size());
+        scheduler = Executors.newSingleThreadScheduledExecutor(TaskExecutors.namedThreadFactory("catalog-snapshot"));
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+        PendingWrite pending = overlay.get(uuid);
+        if (pending != null) {
+            return pending.product() != null ? Optional.of(copy(pending.product())) : Optional.empty();
+        }
+        return snapshot.find(uuid);
+    }
+
+    @Override
+    public List<Product> findAllById(Collection<UUID> ids) {
+        List<Product> products = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            findById(id).ifPresent(products::add);
+        }
+        return products;
+    }
+
+    @Override
+    public List<Product> findAll(int pageSize, int pageNumber) {
+        return snapshot.page(pageSize, pageNumber);
+    }
+
+    @Override
+    public List<Product> findAllAfter(UUID afterId, int limit) {
+        return delegate.findAllAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Product> findByFilter(ProductFilter filter) {
+        return delegate.findByFilter(filter);
+    }
+
+    @Override
+    public List<Product> searchByName(String query, int limit) {
+        return delegate.searchByName(query, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Product> consumer) {
+        delegate.streamAll(consumer);
+    }
+
+    @Override
+    public long copyIn(List<Product> products) {
+        return delegate.copyIn(products);
+    }
+
+    @Override
+    public long copyOut(OutputStream out, CopyFormat format) {
+        return delegate.copyOut(out, format);
+    }
+
+    @Override
+    public Product save(Product product) {
+        Product saved = delegate.save(product);
+        overlay.put(saved.getId(), new PendingWrite(copy(saved), System.nanoTime()));
+        return saved;
+    }
+
+    @Override
+    public Product update(Product product) {
+        Product updated = delegate.update(product);
+        overlay.put(updated.getId(), new PendingWrite(copy(updated), System.nanoTime()));
+        return updated;
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        delegate.delete(uuid);
+        overlay.put(uuid, new PendingWrite(null, System.nanoTime()));
+    }
+
+    /**
+     * Загружает изменения после текущей отметки и атомарно подменяет снимок. Записи оверлея,
+     * сделанные до начала обновления, уже видны в базе и удаляются.
+     */
+    void refresh() {
+        long startedAt = System.nanoTime();
+        CatalogSnapshot current = snapshot;
+        LocalDateTime watermark = current.watermark();
+        if (watermark == null) {
+            CatalogChangeFeed.Changes changes = changeFeed.since(null, null);
+            snapshot = CatalogSnapshot.of(changes.changed(), changes.watermark());
+        } else {
+            CatalogChangeFeed.Changes changes = changeFeed.since(watermark.minusNanos(overlapMs * 1_000_000), watermark);
+            snapshot = current.apply(changes.changed(), changes.deleted(), changes.watermark());
+        }
+        overlay.entrySet().removeIf(entry -> entry.getValue().writtenAt() - startedAt < 0);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (DatabaseAccessException e) {
+            log.error("Catalog snapshot refresh failed, serving snapshot at {}", snapshot.watermark(), e);
+        }
+    }
+
+    private static Product copy(Product product) {
+        return new Product(product.getId(), product.getName(), product.getPrice(), product.getWeight(),
+                product.getCreated());
+    }
+
+    private record PendingWrite(Product product, long writtenAt) {
+    }
+}
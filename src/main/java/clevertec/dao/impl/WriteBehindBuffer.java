@@ -0,0 +1,312 @@
+package clevertec.dao.impl;
+
+import clevertec.entity.Product;
+import clevertec.exception.DatabaseAccessException;
+import clevertec.utils.concurrent.TaskExecutors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Буфер отложенной записи (write-behind) для обновлений продуктов.
+ *
+ * <p>В режиме {@code database.write-behind.enabled} метод {@link ProductDaoImpl#update} не выполняет
+ * {@code UPDATE} сразу, а кладет продукт в буфер. Повторные обновления одного продукта схлопываются:
+ * в буфере хранится только последняя версия. Буфер сбрасывается в базу пакетами JDBC по таймеру
+ * или при достижении порога {@code batch-size}.
+ *
+ * <p>Продукт остается в буфере (и виден через {@link #find}) до фиксации пакета в базе и удаляется
+ * из него, только если за время записи не появилась более новая версия. Если пакет отклонен, его
+ * строки записываются по одной: продукт, который база отвергает из-за данных или ограничений,
+ * выводится в лог и отбрасывается, а не блокирует остальные обновления. Так же отбрасывается
+ * обновление, не затронувшее ни одной строки (продукт удален или сменилась дата создания); оба случая
+ * учитываются в {@link #getDroppedCount()}.
+ *
+ * <p>Если база недоступна, пакет остается в буфере и повторяется на следующем тике; каждая неудача
+ * учитывается в {@link #getFailedFlushes()} и {@link #getLastFailure()}. После {@code max-retries}
+ * неудач подряд новые обновления отклоняются с {@link DatabaseAccessException}, пока сброс снова не
+ * пройдет. При остановке контекста буфер сбрасывается полностью.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+public class WriteBehindBuffer implements InitializingBean, DisposableBean {
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final long flushIntervalMs;
+    private final int batchSize;
+    private final int maxRetries;
+
+    private final Map<UUID, Product> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private volatile Exception lastFailure;
+    private ScheduledExecutorService scheduler;
+
+    public WriteBehindBuffer(DataSource dataSource,
+                             @Value("${database.write-behind.enabled}") boolean enabled,
+                             @Value("${database.write-behind.flush-interval-ms}") long flushIntervalMs,
+                             @Value("${database.write-behind.batch-size}") int batchSize,
+                             @Value("${database.write-behind.max-retries}") int maxRetries) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.flushIntervalMs = flushIntervalMs;
+        this.batchSize = batchSize;
+        this.maxRetries = maxRetries;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(TaskExecutors.namedThreadFactory("write-behind"));
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Write-behind enabled: flush every {} ms or {} updates", flushIntervalMs, batchSize);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Помещает обновление в буфер, заменяя предыдущую несброшенную версию того же продукта.
+     *
+     * @param product обновленный продукт
+     * @throws DatabaseAccessException если сброс в базу не проходит {@code max-retries} раз подряд
+     */
+    public void enqueue(Product product) {
+        if (consecutiveFailures.get() >= maxRetries) {
+            throw new DatabaseAccessException("Write-behind buffer cannot reach the database", lastFailure);
+        }
+        pending.put(product.getId(), product);
+        if (pending.size() >= batchSize && scheduler != null && flushPending.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::pendingFlush);
+            } catch (RejectedExecutionException e) {
+                flushPending.set(false);
+            }
+        }
+    }
+
+    /**
+     * Возвращает еще не сброшенную версию продукта, если она есть.
+     *
+     * @param uuid идентификатор продукта
+     * @return продукт из буфера или пустой {@link Optional}
+     */
+    public Optional<Product> find(UUID uuid) {
+        return Optional.ofNullable(pending.get(uuid));
+    }
+
+    /**
+     * Удаляет несброшенное обновление продукта, например перед его удалением из базы.
+     *
+     * @param uuid идентификатор продукта
+     */
+    public void discard(UUID uuid) {
+        pending.remove(uuid);
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    public long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public Optional<Exception> getLastFailure() {
+        return Optional.ofNullable(lastFailure);
+    }
+
+    /**
+     * Сбрасывает в базу пакетами по {@code batch-size} обновления, накопленные к началу вызова.
+     * Обновления, пришедшие во время сброса, остаются до следующего.
+     *
+     * @return количество записанных продуктов
+     * @throws DatabaseAccessException если база недоступна; продукты незаписанных пакетов остаются в буфере
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            List<UUID> ids = new ArrayList<>(pending.keySet());
+            int flushed = 0;
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                List<Product> batch = snapshot(ids.subList(from, Math.min(from + batchSize, ids.size())));
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                int[] counts;
+                try {
+                    counts = writeBatch(batch);
+                } catch (BatchUpdateException e) {
+                    log.warn("Write-behind batch of {} updates failed, retrying them one by one", batch.size(), e);
+                    counts = writeRows(batch);
+                } catch (SQLException e) {
+                    throw failure(e);
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    Product product = batch.get(i);
+                    pending.remove(product.getId(), product);
+                    if (counts[i] == 0) {
+                        log.warn("Write-behind update matched no row, dropped: {}", product);
+                        droppedCount.incrementAndGet();
+                    } else if (counts[i] != Statement.EXECUTE_FAILED) {
+                        flushed++;
+                        flushedCount.incrementAndGet();
+                    }
+                }
+            }
+            consecutiveFailures.set(0);
+            return flushed;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Останавливает таймер и сбрасывает буфер, повторяя попытки до {@code max-retries} раз.
+     * Обновления, которые так и не удалось записать, выводятся в лог целиком.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(flushIntervalMs * 2, TimeUnit.MILLISECONDS);
+        for (int attempt = 1; attempt <= Math.max(1, maxRetries) && !pending.isEmpty(); attempt++) {
+            try {
+                int flushed = flush();
+                log.info("Write-behind buffer drained on shutdown: {} updates", flushed);
+            } catch (DatabaseAccessException e) {
+                log.warn("Write-behind drain attempt {} failed", attempt, e);
+                Thread.sleep(flushIntervalMs * attempt);
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.error("Write-behind buffer lost {} updates: {}", pending.size(), pending.values());
+        }
+    }
+
+    private void pendingFlush() {
+        flushPending.set(false);
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (DatabaseAccessException e) {
+            log.error("Write-behind flush failed ({} in a row), {} updates pending",
+                    consecutiveFailures.get(), pending.size(), e);
+        }
+    }
+
+    private List<Product> snapshot(List<UUID> ids) {
+        List<Product> batch = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Product product = pending.get(id);
+            if (product != null) {
+                batch.add(product);
+            }
+        }
+        return batch;
+    }
+
+    private int[] writeBatch(List<Product> batch) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(ProductDaoImpl.UPDATE_QUERY)) {
+            for (Product product : batch) {
+                ProductDaoImpl.bindUpdate(preparedStatement, product);
+                preparedStatement.addBatch();
+            }
+            return preparedStatement.executeBatch();
+        }
+    }
+
+    /**
+     * Записывает строки отклоненного пакета по одной. Продукт, отвергнутый базой из-за данных
+     * или ограничения, помечается {@link Statement#EXECUTE_FAILED}; любая другая ошибка считается
+     * неудачей сброса.
+     */
+    private int[] writeRows(List<Product> batch) {
+        int[] counts = new int[batch.size()];
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(ProductDaoImpl.UPDATE_QUERY)) {
+            for (int i = 0; i < batch.size(); i++) {
+                Product product = batch.get(i);
+                ProductDaoImpl.bindUpdate(preparedStatement, product);
+                try {
+                    counts[i] = preparedStatement.executeUpdate();
+                } catch (SQLException e) {
+                    if (!isRejectedRow(e)) {
+                        throw e;
+                    }
+                    log.error("Write-behind update rejected by the database, dropped: {}", product, e);
+                    droppedCount.incrementAndGet();
+                    counts[i] = Statement.EXECUTE_FAILED;
+                }
+            }
+            return counts;
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+
+    private DatabaseAccessException failure(SQLException e) {
+        DatabaseAccessException failure = new DatabaseAccessException("Failed to flush write-behind batch", e);
+        lastFailure = failure;
+        failedFlushes.incrementAndGet();
+        consecutiveFailures.incrementAndGet();
+        return failure;
+    }
+
+    /**
+     * Ошибки классов SQLSTATE 22 (данные) и 23 (ограничения) относятся к самой строке и не исчезнут
+     * при повторе.
+     */
+    private static boolean isRejectedRow(SQLException e) {
+        String sqlState = e.getSQLState();
+        return sqlState != null && (sqlState.startsWith("22") || sqlState.startsWith("23"));
+    }
+}
@@ -0,0 +1,19 @@
+package clevertec.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogStatisticsDto {
+
+    private long count;
+    private Double minPrice;
+    private Double maxPrice;
+    private Double avgPrice;
+    private double totalWeight;
+}
@@ -0,0 +1,19 @@
+package clevertec.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDto {
+
+    private long imported;
+    private long rejected;
+    private List<RejectedLineDto> rejectedLines;
+}
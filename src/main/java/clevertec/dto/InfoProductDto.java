@@ -1,5 +1,6 @@
 package clevertec.dto;
 
+import clevertec.codegen.GenerateJsonCodec;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -8,6 +9,7 @@ import lombok.NoArgsConstructor;
 import java.util.UUID;
 
 @Data
+@GenerateJsonCodec
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,5 +1,7 @@
 package clevertec.dto;
 
+import clevertec.codegen.GenerateJsonCodec;
+import clevertec.validation.Finite;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,6 +13,7 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 
 @Data
+@GenerateJsonCodec
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,9 +25,11 @@ public class ProductDto {
 
     @NotNull(message = "Цена не может быть null")
     @DecimalMin(value = "0.0", inclusive = false, message = "Цена должна быть больше 0")
+    @Finite(message = "Цена должна быть конечным числом")
     private Double price;
 
-    @NotNull(message = "Цена не может быть null")
-    @DecimalMin(value = "0.0", inclusive = false, message = "Цена должна быть больше 0")
+    @NotNull(message = "Вес не может быть null")
+    @DecimalMin(value = "0.0", inclusive = false, message = "Вес должен быть больше 0")
+    @Finite(message = "Вес должен быть конечным числом")
     private Double weight;
 }
@@ -0,0 +1,56 @@
+package clevertec.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Параметры выборки списка продуктов: диапазоны цены, веса и даты создания, сортировка и страница.
+ * Пустые ({@code null}) границы диапазонов не участвуют в запросе.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilter {
+
+    private Double minPrice;
+    private Double maxPrice;
+    private Double minWeight;
+    private Double maxWeight;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+
+    @Builder.Default
+    private SortField sortBy = SortField.CREATED;
+
+    private boolean descending;
+
+    @Builder.Default
+    private int pageSize = 20;
+
+    @Builder.Default
+    private int pageNumber = 1;
+
+    /**
+     * Поля, по которым разрешена сортировка, и соответствующие им колонки таблицы {@code products}.
+     */
+    public enum SortField {
+        PRICE("price"),
+        WEIGHT("weight"),
+        CREATED("creation_date");
+
+        private final String column;
+
+        SortField(String column) {
+            this.column = column;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package clevertec.dto;
+
+import clevertec.codegen.GenerateJsonCodec;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Результат поиска одного идентификатора в пакетном запросе.
+ * Для ненайденного продукта {@code found = false}, а {@code product} равен {@code null}.
+ */
+@Data
+@GenerateJsonCodec
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductLookupDto {
+
+    private UUID id;
+    private boolean found;
+    private InfoProductDto product;
+}
@@ -0,0 +1,16 @@
+package clevertec.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RejectedLineDto {
+
+    private long line;
+    private String reason;
+}
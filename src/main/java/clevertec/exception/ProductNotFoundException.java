@@ -4,16 +4,31 @@ import java.util.UUID;
 
 /**
  * Исключение, выбрасываемое в случае отсутствия продукта с заданным идентификатором UUID.
+ *
+ * <p>Отсутствующий продукт - обычный исход запроса, а не сбой, поэтому исключение не заполняет стек
+ * и не подавляет других исключений, а сообщение строится только при обращении к {@link #getMessage()}.
  */
 public class ProductNotFoundException extends RuntimeException {
 
+    private final UUID uuid;
+
     /**
      * Конструктор исключения ProductNotFoundException.
-     * Создает исключение с сообщением, указывающим на отсутствие продукта с конкретным UUID.
+     * Создает исключение для конкретного UUID без стека вызовов.
      *
      * @param uuid Идентификатор продукта, который не удалось найти
      */
     public ProductNotFoundException(UUID uuid) {
-        super(String.format("Product with uuid: %s not found", uuid));
+        super(null, null, false, false);
+        this.uuid = uuid;
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Product with uuid: " + uuid + " not found";
     }
 }
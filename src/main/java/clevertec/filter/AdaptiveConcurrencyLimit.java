@@ -0,0 +1,103 @@
+package clevertec.filter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Адаптивный лимит одновременных запросов по схеме AIMD (additive increase, multiplicative decrease).
+ *
+ * <p>Запрос, завершившийся быстрее {@code latencyThreshold} и без ошибки, увеличивает лимит на единицу, если
+ * в момент завершения была занята хотя бы половина лимита: при малой загрузке быстрый ответ ничего не говорит
+ * о запасе мощности. Медленный или неудачный запрос уменьшает лимит в {@link #BACKOFF_RATIO} раз. После
+ * уменьшения следующие уменьшения пропускаются, пока не завершится столько запросов, сколько было разрешено,
+ * иначе одна волна медленных ответов обрушила бы лимит до минимума.
+ *
+ * <p>Проверка {@link #tryAcquire()} не блокируется: если лимит исчерпан, запрос сразу отклоняется.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    static final double BACKOFF_RATIO = 0.9;
+    static final int MIN_LIMIT = 1;
+
+    private final String name;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    private double limit;
+    private int releasesUntilBackoff;
+    private volatile int currentLimit;
+
+    public AdaptiveConcurrencyLimit(String name, int initialLimit, int maxLimit, long latencyThresholdMs) {
+        if (initialLimit < MIN_LIMIT || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limits for " + name + ": "
+                    + initialLimit + ".." + maxLimit);
+        }
+        this.name = name;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.limit = initialLimit;
+        this.currentLimit = initialLimit;
+    }
+
+    /**
+     * Занимает место под запрос, если текущий лимит не исчерпан.
+     *
+     * @return {@code true}, если запрос допущен; тогда вызывающий обязан вызвать {@link #release}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Освобождает место и корректирует лимит по результату запроса.
+     *
+     * @param latencyNanos время обработки запроса
+     * @param failed       запрос завершился ошибкой сервера или таймаутом
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (releasesUntilBackoff > 0) {
+                releasesUntilBackoff--;
+            }
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                if (releasesUntilBackoff == 0) {
+                    limit = Math.max(MIN_LIMIT, limit * BACKOFF_RATIO);
+                    releasesUntilBackoff = inFlightBefore;
+                }
+            } else if (inFlightBefore * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            currentLimit = (int) limit;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return currentLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
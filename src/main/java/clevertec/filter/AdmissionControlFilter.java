@@ -0,0 +1,189 @@
+package clevertec.filter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Контроль допуска запросов к {@code /products} и {@code /pdf}.
+ *
+ * <p>Сначала проверяется частота запросов клиента ({@link TokenBucketRateLimiter}): превышение дает {@code 429}.
+ * Ключ клиента - {@code getRemoteAddr()}. За обратным прокси или балансировщиком это адрес прокси, и все
+ * клиенты попадают в одно ведро; для такого развертывания задается {@code admission.client.key-header}
+ * (например, {@code X-Forwarded-For}), и ключом становится первый адрес из этого заголовка. Заголовок
+ * присылает клиент, поэтому включать его можно, только если прокси перезаписывает его. Затем запрос занимает место в {@link AdaptiveConcurrencyLimit} своего класса -
+ * чтение, запись, PDF или PDF-каталог; если лимит исчерпан, ответ {@code 503}. Оба ответа отдаются сразу, с заголовком
+ * {@code Retry-After}, не дожидаясь ни потока исполнителя, ни соединения с базой.
+ *
+ * <p>Место освобождается после завершения ответа: для асинхронных запросов - в {@link AsyncListener}.
+ * Ответы с кодом 5xx и таймауты считаются перегрузкой и уменьшают лимит. Потоковые выгрузка и импорт
+ * проверяются только по частоте: их длительность зависит от объема данных, а не от нагрузки. PDF-каталог
+ * занимает отдельный лимит с порогом задержки под длинные документы, чтобы каталоги не вытесняли
+ * одиночные PDF.
+ */
+public class AdmissionControlFilter implements Filter {
+
+    static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private final AdaptiveConcurrencyLimit reads;
+    private final AdaptiveConcurrencyLimit writes;
+    private final AdaptiveConcurrencyLimit pdf;
+    private final AdaptiveConcurrencyLimit catalog;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final String clientKeyHeader;
+    private final long retryAfterSeconds;
+
+    private final LongAdder rateLimited = new LongAdder();
+
+    public AdmissionControlFilter(AdaptiveConcurrencyLimit reads, AdaptiveConcurrencyLimit writes,
+                                  AdaptiveConcurrencyLimit pdf, AdaptiveConcurrencyLimit catalog,
+                                  TokenBucketRateLimiter rateLimiter, String clientKeyHeader,
+                                  long retryAfterSeconds) {
+        this.reads = reads;
+        this.writes = writes;
+        this.pdf = pdf;
+        this.catalog = catalog;
+        this.rateLimiter = rateLimiter;
+        this.clientKeyHeader = clientKeyHeader == null || clientKeyHeader.isBlank() ? null : clientKeyHeader;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        String servletPath = httpRequest.getServletPath();
+        if (!"/products".equals(servletPath) && !"/pdf".equals(servletPath)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(clientKey(httpRequest));
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            reject(httpResponse, SC_TOO_MANY_REQUESTS, ErrorBody.TOO_MANY_REQUESTS, toRetryAfterSeconds(waitNanos));
+            return;
+        }
+
+        AdaptiveConcurrencyLimit limit = limitFor(httpRequest);
+        if (limit == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!limit.tryAcquire()) {
+            reject(httpResponse, HttpServletResponse.SC_SERVICE_UNAVAILABLE, ErrorBody.OVERLOADED, retryAfterSeconds);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limit, start));
+            } else {
+                limit.release(System.nanoTime() - start, !completed || isOverloaded(httpResponse.getStatus()));
+            }
+        }
+    }
+
+    public long getRateLimited() {
+        return rateLimited.sum();
+    }
+
+    AdaptiveConcurrencyLimit limitFor(HttpServletRequest request) {
+        String pathInfo = request.getPathInfo();
+        if ("/pdf".equals(request.getServletPath())) {
+            return "/catalog".equals(pathInfo) ? catalog : pdf;
+        }
+        if ("/export".equals(pathInfo) || "/import".equals(pathInfo)) {
+            return null;
+        }
+        String method = request.getMethod();
+        boolean read = "GET".equals(method) || "HEAD".equals(method) || "/lookup".equals(pathInfo);
+        return read ? reads : writes;
+    }
+
+    String clientKey(HttpServletRequest request) {
+        if (clientKeyHeader != null) {
+            String value = request.getHeader(clientKeyHeader);
+            if (value != null) {
+                int comma = value.indexOf(',');
+                String first = (comma < 0 ? value : value.substring(0, comma)).trim();
+                if (!first.isEmpty()) {
+                    return first;
+                }
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static boolean isOverloaded(int status) {
+        return status >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static void reject(HttpServletResponse response, int statusCode, ErrorBody body, long retryAfter)
+            throws IOException {
+        response.setHeader("Retry-After", Long.toString(retryAfter));
+        body.write(response, statusCode);
+    }
+
+    /**
+     * Освобождает место в лимите ровно один раз, когда асинхронный ответ завершен.
+     */
+    private static final class ReleaseOnComplete implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimit limit;
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleaseOnComplete(AdaptiveConcurrencyLimit limit, long start) {
+            this.limit = limit;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+            release(response == null || isOverloaded(response.getStatus()));
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - start, failed);
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package clevertec.filter;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ответ, тело которого сжимается после того, как превысит порог.
+ *
+ * <p>До принятия решения {@code Content-Length} придерживается: для сжатого тела он неизвестен, а для
+ * несжатого выставляется по фактическому размеру при завершении. Вызов {@code setWriteListener} до записи
+ * тела переводит поток в режим без сжатия и передает слушатель потоку контейнера.
+ */
+class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final List<String> COMPRESSED_TYPES = List.of("image/", "video/", "audio/",
+            "application/gzip", "application/x-gzip", "application/zip");
+
+    private final String encoding;
+    private final int threshold;
+
+    private CompressingOutputStream outputStream;
+    private PrintWriter writer;
+    private long contentLength = -1;
+
+    CompressingResponseWrapper(HttpServletResponse response, String encoding, int threshold) {
+        super(response);
+        this.encoding = encoding;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            outputStream = new CompressingOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            outputStream = new CompressingOutputStream();
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, Charset.forName(getCharacterEncoding())));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (outputStream != null && outputStream.isPassthrough()) {
+            super.setContentLengthLong(len);
+        } else {
+            contentLength = len;
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (outputStream != null) {
+            outputStream.flush();
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        outputStream = null;
+        writer = null;
+        contentLength = -1;
+    }
+
+    /**
+     * Дописывает буфер или завершает сжатый поток. Повторные вызовы ничего не делают.
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (outputStream != null) {
+            outputStream.finish();
+        }
+    }
+
+    private boolean shouldCompress() {
+        if (containsHeader("Content-Encoding")) {
+            return false;
+        }
+        int status = getStatus();
+        if (status == SC_NO_CONTENT || status == SC_NOT_MODIFIED) {
+            return false;
+        }
+        String contentType = getContentType();
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            return COMPRESSED_TYPES.stream().noneMatch(type::startsWith);
+        }
+        return true;
+    }
+
+    /**
+     * Поток, который копит первые {@code threshold} байт, а затем либо сжимает, либо пропускает тело как есть.
+     */
+    private final class CompressingOutputStream extends ServletOutputStream {
+
+        private byte[] buffer = new byte[Math.max(threshold, 1)];
+        private int buffered;
+        private OutputStream target;
+        private ServletOutputStream delegate;
+        private boolean passthrough;
+        private boolean finished;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (finished) {
+                throw new IOException("Response stream is already closed");
+            }
+            if (target != null) {
+                target.write(bytes, offset, length);
+                return;
+            }
+            if (buffered + length <= threshold) {
+                System.arraycopy(bytes, offset, buffer, buffered, length);
+                buffered += length;
+                return;
+            }
+            startTarget(true);
+            target.write(buffer, 0, buffered);
+            target.write(bytes, offset, length);
+            buffer = null;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        boolean isPassthrough() {
+            return passthrough;
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (target == null) {
+                startTarget(false);
+                if (contentLength < 0) {
+                    getResponse().setContentLength(buffered);
+                }
+                target.write(buffer, 0, buffered);
+                buffer = null;
+            }
+            target.close();
+        }
+
+        private void startTarget(boolean large) throws IOException {
+            ServletOutputStream out = CompressingResponseWrapper.super.getOutputStream();
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            response.addHeader("Vary", "Accept-Encoding");
+            if (large && shouldCompress()) {
+                response.setHeader("Content-Encoding", encoding);
+                target = CompressionFilter.GZIP.equals(encoding)
+                        ? new GZIPOutputStream(out, BUFFER_SIZE, true)
+                        : new DeflaterOutputStream(out, true);
+                return;
+            }
+            passthrough = true;
+            if (contentLength >= 0) {
+                response.setContentLengthLong(contentLength);
+            }
+            target = out;
+            delegate = out;
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate == null || delegate.isReady();
+        }
+
+        /**
+         * Неблокирующая запись несовместима с буферизацией порога и потоковым сжатием, поэтому такой ответ
+         * идет без сжатия, а готовность и слушатель полностью определяет поток контейнера.
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (target == null) {
+                if (buffered > 0) {
+                    throw new IllegalStateException("setWriteListener() must be called before the body is written");
+                }
+                try {
+                    startTarget(false);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to open the response stream", e);
+                }
+            }
+            if (delegate == null) {
+                throw new IllegalStateException("Compressed response cannot switch to non-blocking writes");
+            }
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
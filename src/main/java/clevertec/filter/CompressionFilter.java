@@ -0,0 +1,132 @@
+package clevertec.filter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Сжимает ответы в gzip или deflate по заголовку {@code Accept-Encoding}.
+ *
+ * <p>Первые {@code threshold} байт ответа накапливаются в буфере: если тело меньше порога, оно уходит без
+ * сжатия с точным {@code Content-Length}. Иначе выставляется {@code Content-Encoding}, и дальше тело сжимается
+ * потоком, без буферизации всего ответа. Уже сжатые типы содержимого ({@code image/*}, {@code application/gzip}
+ * и т.п.) не сжимаются.
+ *
+ * <p>Если обработчик сам выставил {@code Content-Encoding}, фильтр пропускает тело как есть. Ответы в
+ * неблокирующем режиме ({@code setWriteListener}) не сжимаются и пишутся напрямую в поток контейнера.
+ */
+public class CompressionFilter implements Filter {
+
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+
+    private final int threshold;
+
+    public CompressionFilter(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        String encoding = negotiate(httpRequest.getHeader("Accept-Encoding"));
+        if (encoding == null || "HEAD".equals(httpRequest.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        CompressingResponseWrapper wrapper =
+                new CompressingResponseWrapper((HttpServletResponse) response, encoding, threshold);
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new FinishOnComplete(wrapper));
+            } else {
+                wrapper.finish();
+            }
+        }
+    }
+
+    /**
+     * Выбирает кодировку из {@code Accept-Encoding}: gzip предпочтительнее deflate, {@code q=0} исключает
+     * кодировку, {@code *} разрешает gzip.
+     *
+     * @param acceptEncoding значение заголовка
+     * @return {@code gzip}, {@code deflate} или {@code null}, если сжатие не принимается
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        Double gzip = null;
+        Double deflate = null;
+        Double any = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            switch (coding) {
+                case GZIP, "x-gzip" -> gzip = quality;
+                case DEFLATE -> deflate = quality;
+                case "*" -> any = quality;
+                default -> {
+                }
+            }
+        }
+        double gzipQuality = gzip != null ? gzip : any != null ? any : 0;
+        double deflateQuality = deflate != null ? deflate : any != null ? any : 0;
+        if (gzipQuality > 0 && gzipQuality >= deflateQuality) {
+            return GZIP;
+        }
+        return deflateQuality > 0 ? DEFLATE : null;
+    }
+
+    /**
+     * Завершает сжатый поток после асинхронного ответа, если обработчик не закрыл его сам.
+     */
+    private static final class FinishOnComplete implements AsyncListener {
+
+        private final CompressingResponseWrapper wrapper;
+
+        private FinishOnComplete(CompressingResponseWrapper wrapper) {
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) throws IOException {
+            wrapper.finish();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
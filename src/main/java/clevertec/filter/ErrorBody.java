@@ -0,0 +1,101 @@
+package clevertec.filter;
+
+import clevertec.utils.uuid.Uuids;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Готовое тело ответа об ошибке {@code {"error": "..."}} в байтах UTF-8.
+ *
+ * <p>Тела для постоянных сообщений кодируются один раз при загрузке класса. Для ненайденного продукта
+ * UUID дописывается между заранее закодированными префиксом и суффиксом в один массив. Произвольные
+ * сообщения экранируются по правилам JSON, поэтому кавычки и переводы строк в них не ломают ответ.
+ */
+public final class ErrorBody {
+
+    public static final ErrorBody INTERNAL_ERROR = of("Internal Server Error");
+    public static final ErrorBody OVERLOADED = of("Server is overloaded, retry later");
+    public static final ErrorBody TOO_MANY_REQUESTS = of("Too many requests, retry later");
+    public static final ErrorBody INVALID_PRODUCT_ID = of("Invalid request: invalid product id");
+
+    private static final byte[] NOT_FOUND_PREFIX =
+            "{\"error\": \"Product not found: Product with uuid: ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NOT_FOUND_SUFFIX = " not found\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final byte[] bytes;
+
+    private ErrorBody(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * @param message текст ошибки; {@code null} записывается как {@code "null"}
+     * @return тело с экранированным сообщением
+     */
+    public static ErrorBody of(String message) {
+        StringBuilder json = new StringBuilder(message == null ? 16 : message.length() + 16).append("{\"error\": \"");
+        appendEscaped(json, String.valueOf(message));
+        return new ErrorBody(json.append("\"}").toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param uuid идентификатор ненайденного продукта
+     * @return тело {@code {"error": "Product not found: Product with uuid: <uuid> not found"}}
+     */
+    public static ErrorBody productNotFound(UUID uuid) {
+        byte[] body = new byte[NOT_FOUND_PREFIX.length + Uuids.LENGTH + NOT_FOUND_SUFFIX.length];
+        System.arraycopy(NOT_FOUND_PREFIX, 0, body, 0, NOT_FOUND_PREFIX.length);
+        Uuids.writeAscii(uuid, body, NOT_FOUND_PREFIX.length);
+        System.arraycopy(NOT_FOUND_SUFFIX, 0, body, NOT_FOUND_PREFIX.length + Uuids.LENGTH, NOT_FOUND_SUFFIX.length);
+        return new ErrorBody(body);
+    }
+
+    /**
+     * Устанавливает статус, {@code Content-Type} и {@code Content-Length} и пишет тело.
+     * Если обработчик уже взял writer, тело пишется через него.
+     *
+     * @param response   ответ
+     * @param statusCode статус ответа
+     * @throws IOException если тело не удалось записать
+     */
+    public void write(HttpServletResponse response, int statusCode) throws IOException {
+        response.setStatus(statusCode);
+        response.setContentType("application/json");
+        response.setContentLength(bytes.length);
+        try {
+            response.getOutputStream().write(bytes);
+        } catch (IllegalStateException e) {
+            response.getWriter().write(toString());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void appendEscaped(StringBuilder json, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package clevertec.filter;
 
 import clevertec.exception.ProductNotFoundException;
 
+import javax.servlet.DispatcherType;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -9,27 +10,49 @@ import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 public class ErrorHandlingFilter implements Filter {
+
+    /**
+     * Атрибут запроса, в который асинхронный обработчик кладет ошибку перед {@code AsyncContext.dispatch()}.
+     */
+    public static final String ASYNC_ERROR_ATTRIBUTE = ErrorHandlingFilter.class.getName() + ".asyncError";
+
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException {
+        Object asyncError = request.getAttribute(ASYNC_ERROR_ATTRIBUTE);
+        if (request.getDispatcherType() == DispatcherType.ASYNC && asyncError instanceof Throwable) {
+            request.removeAttribute(ASYNC_ERROR_ATTRIBUTE);
+            handleThrowable((HttpServletResponse) response, (Throwable) asyncError);
+            return;
+        }
         try {
             chain.doFilter(request, response);
-        } catch (ProductNotFoundException e) {
-            handleException((HttpServletResponse) response, HttpServletResponse.SC_NOT_FOUND, "Product not found: " + e.getMessage());
-        } catch (IllegalArgumentException e) {
-            handleException((HttpServletResponse) response, HttpServletResponse.SC_BAD_REQUEST, "Invalid request: " + e.getMessage());
-        } catch (ServletException e) {
-            handleException((HttpServletResponse) response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
         } catch (Exception e) {
-            handleException((HttpServletResponse) response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Internal Server Error");
+            handleThrowable((HttpServletResponse) response, e);
         }
     }
 
-    private void handleException(HttpServletResponse response, int statusCode, String message) throws IOException {
-        response.setContentType("application/json");
-        response.setStatus(statusCode);
-        response.getWriter().write(String.format("{\"error\": \"%s\"}", message));
+    /**
+     * Пишет тело ошибки через {@link ErrorBody}; ненайденный продукт и постоянные сообщения обходятся
+     * без форматирования строк.
+     */
+    private void handleThrowable(HttpServletResponse response, Throwable e) throws IOException {
+        if (e instanceof ProductNotFoundException notFound) {
+            ErrorBody.productNotFound(notFound.getUuid()).write(response, HttpServletResponse.SC_NOT_FOUND);
+        } else if (e instanceof IllegalArgumentException) {
+            ErrorBody.of("Invalid request: " + e.getMessage()).write(response, HttpServletResponse.SC_BAD_REQUEST);
+        } else if (e instanceof ServletException) {
+            ErrorBody.of(e.getMessage()).write(response, HttpServletResponse.SC_BAD_REQUEST);
+        } else if (e instanceof TimeoutException) {
+            ErrorBody.of(e.getMessage()).write(response, HttpServletResponse.SC_GATEWAY_TIMEOUT);
+        } else if (e instanceof RejectedExecutionException) {
+            ErrorBody.OVERLOADED.write(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        } else {
+            ErrorBody.INTERNAL_ERROR.write(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
     }
 }
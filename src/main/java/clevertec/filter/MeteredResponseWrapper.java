@@ -0,0 +1,159 @@
+package clevertec.filter;
+
+import clevertec.metrics.RequestTiming;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Ответ, который считает записанные байты и выставляет {@code Server-Timing} перед первой записью тела.
+ *
+ * <p>Поток и writer не буферизуют данные сами, поэтому ничего не нужно дописывать после обработчика.
+ * Для {@link #getWriter()} считаются символы: тела, которые пишутся через writer, - короткие JSON-ошибки.
+ */
+class MeteredResponseWrapper extends HttpServletResponseWrapper {
+
+    private final RequestTiming timing;
+
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+    private long bytesWritten;
+
+    MeteredResponseWrapper(HttpServletResponse response, RequestTiming timing) {
+        super(response);
+        this.timing = timing;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            writeServerTiming();
+            outputStream = new CountingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            writeServerTiming();
+            writer = new CountingWriter(super.getWriter());
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        writeServerTiming();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        writeServerTiming();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        writeServerTiming();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        outputStream = null;
+        writer = null;
+        bytesWritten = 0;
+    }
+
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Обновляет {@code Server-Timing}, пока заголовки еще не отправлены.
+     */
+    void writeServerTiming() {
+        if (!isCommitted()) {
+            setHeader(RequestTiming.SERVER_TIMING_HEADER, timing.toServerTiming(System.nanoTime()));
+        }
+    }
+
+    private final class CountingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        private CountingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            bytesWritten++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            delegate.write(bytes, offset, length);
+            bytesWritten += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    private final class CountingWriter extends PrintWriter {
+
+        private CountingWriter(PrintWriter delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void write(int c) {
+            super.write(c);
+            bytesWritten++;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            super.write(chars, offset, length);
+            bytesWritten += length;
+        }
+
+        @Override
+        public void write(String s, int offset, int length) {
+            super.write(s, offset, length);
+            bytesWritten += length;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package clevertec.filter;
+
+import clevertec.metrics.MetricsRegistry;
+import clevertec.metrics.RequestTiming;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Измеряет каждый запрос: время по маршруту и статусу, байты запроса и ответа, разбивку времени.
+ *
+ * <p>Маршрут - метод и шаблон пути, например {@code GET /products/{id}}; идентификаторы в пути заменяются
+ * на {@code {id}}, чтобы число гистограмм не росло с числом продуктов. Для маршрута {@code route} пишутся
+ * гистограммы {@code http.route.us}, {@code http.route.STATUS.us}, {@code http.route.db.us} и
+ * {@code http.route.ser.us}, а также счетчики {@code http.route.bytes-in} и {@code http.route.bytes-out}.
+ * Все они доступны на {@code /metrics}.
+ *
+ * <p>Фильтр создает {@link RequestTiming} запроса и выставляет заголовок {@code Server-Timing} перед
+ * отправкой заголовков ответа. Асинхронные запросы учитываются в {@link AsyncListener} после завершения.
+ * Фильтр должен стоять первым в цепочке, чтобы учитывать и отклоненные запросы, и сжатые байты ответа.
+ */
+public class RequestMetricsFilter implements Filter {
+
+    private static final Set<String> ROUTED_SERVLETS = Set.of("/products", "/pdf", "/metrics");
+    private static final Set<String> NAMED_SEGMENTS = Set.of("search", "stats", "export", "import", "lookup",
+            "catalog");
+
+    private final MetricsRegistry metricsRegistry;
+
+    public RequestMetricsFilter(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        RequestTiming timing = new RequestTiming(System.nanoTime());
+        request.setAttribute(RequestTiming.ATTRIBUTE, timing);
+
+        CountingRequestWrapper meteredRequest = new CountingRequestWrapper(httpRequest);
+        MeteredResponseWrapper meteredResponse = new MeteredResponseWrapper((HttpServletResponse) response, timing);
+        String route = route(httpRequest);
+        try (RequestTiming.Scope ignored = timing.bind()) {
+            chain.doFilter(meteredRequest, meteredResponse);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext()
+                        .addListener(new RecordOnComplete(route, timing, meteredRequest, meteredResponse));
+            } else {
+                meteredResponse.writeServerTiming();
+                record(route, timing, meteredRequest, meteredResponse);
+            }
+        }
+    }
+
+    /**
+     * Строит шаблон маршрута: метод, путь сервлета и первый сегмент пути, если он не идентификатор.
+     */
+    static String route(HttpServletRequest request) {
+        String servletPath = request.getServletPath();
+        if (!ROUTED_SERVLETS.contains(servletPath)) {
+            return request.getMethod() + " other";
+        }
+        String pathInfo = request.getPathInfo();
+        if (pathInfo == null || pathInfo.equals("/")) {
+            return request.getMethod() + " " + servletPath;
+        }
+        String segment = pathInfo.substring(1);
+        int slash = segment.indexOf('/');
+        if (slash >= 0) {
+            segment = segment.substring(0, slash);
+        }
+        return request.getMethod() + " " + servletPath + "/" + (NAMED_SEGMENTS.contains(segment) ? segment : "{id}");
+    }
+
+    private void record(String route, RequestTiming timing, CountingRequestWrapper request,
+                        MeteredResponseWrapper response) {
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - timing.getStartNanos());
+        String prefix = "http." + route;
+        metricsRegistry.histogram(prefix + ".us").record(elapsedMicros);
+        metricsRegistry.histogram(prefix + "." + response.getStatus() + ".us").record(elapsedMicros);
+        metricsRegistry.histogram(prefix + ".db.us").record(TimeUnit.NANOSECONDS.toMicros(timing.getDbNanos()));
+        metricsRegistry.histogram(prefix + ".ser.us")
+                .record(TimeUnit.NANOSECONDS.toMicros(timing.getSerializationNanos()));
+        metricsRegistry.counter(prefix + ".bytes-in").add(request.getBytesRead());
+        metricsRegistry.counter(prefix + ".bytes-out").add(response.getBytesWritten());
+    }
+
+    /**
+     * Записывает метрики асинхронного запроса, когда ответ завершен.
+     */
+    private final class RecordOnComplete implements AsyncListener {
+
+        private final String route;
+        private final RequestTiming timing;
+        private final CountingRequestWrapper request;
+        private final MeteredResponseWrapper response;
+
+        private RecordOnComplete(String route, RequestTiming timing, CountingRequestWrapper request,
+                                 MeteredResponseWrapper response) {
+            this.route = route;
+            this.timing = timing;
+            this.request = request;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(route, timing, request, response);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    /**
+     * Запрос, который считает прочитанные байты тела.
+     */
+    static final class CountingRequestWrapper extends HttpServletRequestWrapper {
+
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+        private long bytesRead;
+
+        CountingRequestWrapper(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new CountingInputStream(super.getInputStream());
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String encoding = getCharacterEncoding();
+                Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+            }
+            return reader;
+        }
+
+        long getBytesRead() {
+            return bytesRead;
+        }
+
+        private final class CountingInputStream extends ServletInputStream {
+
+            private final ServletInputStream delegate;
+
+            private CountingInputStream(ServletInputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public int read() throws IOException {
+                int b = delegate.read();
+                if (b >= 0) {
+                    bytesRead++;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                int read = delegate.read(bytes, offset, length);
+                if (read > 0) {
+                    bytesRead += read;
+                }
+                return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return delegate.isFinished();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                delegate.setReadListener(readListener);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package clevertec.filter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничитель частоты запросов по алгоритму token bucket с отдельным ведром на каждого клиента.
+ *
+ * <p>Ведро вмещает {@code burst} токенов и пополняется со скоростью {@code requestsPerSecond}; каждый запрос
+ * забирает один токен.
+ *
+ * <p>Ведра хранятся в {@link LinkedHashMap} в порядке доступа, поэтому карта не больше {@code maxClients}:
+ * при добавлении нового клиента сверх лимита вытесняется ведро клиента, дольше всех не присылавшего запросы.
+ * Поиск и вытеснение выполняются за O(1) под коротким локом карты, токены списываются уже вне его. Клиент,
+ * вытесненный с неполным ведром, при следующем запросе получает полное - {@code maxClients} нужно задавать
+ * с запасом над числом одновременно активных клиентов.
+ */
+public final class TokenBucketRateLimiter {
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final int maxClients;
+    private final LongSupplier clock;
+
+    private final Map<String, Bucket> buckets;
+
+    public TokenBucketRateLimiter(double requestsPerSecond, int burst, int maxClients) {
+        this(requestsPerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(double requestsPerSecond, int burst, int maxClients, LongSupplier clock) {
+        if (requestsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit must be positive: " + requestsPerSecond + "/s, burst " + burst);
+        }
+        this.tokensPerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.maxClients = maxClients;
+        this.clock = clock;
+        this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                return size() > TokenBucketRateLimiter.this.maxClients;
+            }
+        };
+    }
+
+    /**
+     * Забирает токен из ведра клиента.
+     *
+     * @param client ключ клиента, например адрес
+     * @return {@code 0}, если запрос разрешен, иначе время в наносекундах до появления токена
+     */
+    public long tryAcquire(String client) {
+        long now = clock.getAsLong();
+        Bucket bucket;
+        synchronized (buckets) {
+            bucket = buckets.computeIfAbsent(client, key -> new Bucket(burst, now));
+        }
+        return bucket.tryTake(now);
+    }
+
+    int trackedClients() {
+        synchronized (buckets) {
+            return buckets.size();
+        }
+    }
+
+    private final class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        private synchronized long tryTake(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano));
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+                refilledAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package clevertec.metrics;
+
+/**
+ * Снимок {@link LatencyHistogram} для экспорта в метрики.
+ *
+ * @param count количество записанных значений
+ * @param mean  среднее значение
+ * @param p50   медиана
+ * @param p90   90-й перцентиль
+ * @param p99   99-й перцентиль
+ * @param p999  99.9-й перцентиль
+ * @param max   максимальное значение
+ */
+public record HistogramSnapshot(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+}
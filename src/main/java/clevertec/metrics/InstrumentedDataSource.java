@@ -0,0 +1,122 @@
+package clevertec.metrics;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Обертка над {@link DataSource}, измеряющая время получения соединения из пула.
+ *
+ * <p>Каждое ожидание записывается в гистограмму {@value #ACQUIRE_HISTOGRAM} и накапливается в счетчике
+ * текущего потока, откуда его забирает {@link clevertec.proxy.JdbcMetricsAspect}, чтобы отделить
+ * ожидание пула от выполнения SQL в конкретном методе DAO.
+ */
+public class InstrumentedDataSource implements DataSource, Closeable {
+
+    public static final String ACQUIRE_HISTOGRAM = "jdbc.pool.acquire.us";
+
+    private static final ThreadLocal<long[]> ACQUIRE_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final DataSource delegate;
+    private final LatencyHistogram acquireHistogram;
+
+    public InstrumentedDataSource(DataSource delegate, MetricsRegistry metricsRegistry) {
+        this.delegate = delegate;
+        this.acquireHistogram = metricsRegistry.histogram(ACQUIRE_HISTOGRAM);
+    }
+
+    /**
+     * Сбрасывает накопленное в текущем потоке время ожидания пула.
+     */
+    public static void resetAcquireTime() {
+        ACQUIRE_NANOS.get()[0] = 0;
+    }
+
+    /**
+     * Возвращает время ожидания пула, накопленное в текущем потоке после {@link #resetAcquireTime()}.
+     *
+     * @return время в наносекундах
+     */
+    public static long acquireTimeNanos() {
+        return ACQUIRE_NANOS.get()[0];
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getConnection();
+        } finally {
+            recordAcquire(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getConnection(username, password);
+        } finally {
+            recordAcquire(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        if (iface.isInstance(delegate)) {
+            return iface.cast(delegate);
+        }
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || iface.isInstance(delegate) || delegate.isWrapperFor(iface);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private void recordAcquire(long nanos) {
+        acquireHistogram.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        ACQUIRE_NANOS.get()[0] += nanos;
+    }
+}
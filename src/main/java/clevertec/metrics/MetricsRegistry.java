@@ -0,0 +1,95 @@
+package clevertec.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Реестр метрик приложения: именованные гистограммы, счетчики и датчики (gauges).
+ * Имена гистограмм времени оканчиваются единицей измерения, например {@code jdbc.findById.execute.us}.
+ */
+@Component
+public class MetricsRegistry {
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * Возвращает гистограмму с указанным именем, создавая ее при первом обращении.
+     *
+     * @param name имя гистограммы
+     * @return гистограмма
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Возвращает накопительный счетчик с указанным именем, создавая его при первом обращении.
+     *
+     * @param name имя счетчика
+     * @return счетчик
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Регистрирует датчик, значение которого вычисляется при каждом экспорте.
+     *
+     * @param name  имя датчика
+     * @param gauge источник значения
+     */
+    public void registerGauge(String name, Supplier<? extends Number> gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /**
+     * Возвращает текущие значения всех метрик, отсортированные по имени.
+     *
+     * @return карта с разделами {@code counters}, {@code gauges} и {@code histograms}
+     */
+    public Map<String, Object> snapshot() {
+        return snapshot("");
+    }
+
+    /**
+     * Возвращает текущие значения метрик, имена которых начинаются с {@code prefix}.
+     *
+     * @param prefix начало имени, например {@code http.GET /products}
+     * @return карта с разделами {@code counters}, {@code gauges} и {@code histograms}
+     */
+    public Map<String, Object> snapshot(String prefix) {
+        Map<String, Number> gaugeValues = new TreeMap<>();
+        gauges.forEach((name, gauge) -> {
+            if (name.startsWith(prefix)) {
+                gaugeValues.put(name, gauge.get());
+            }
+        });
+
+        Map<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, counter) -> {
+            if (name.startsWith(prefix)) {
+                counterValues.put(name, counter.sum());
+            }
+        });
+
+        Map<String, HistogramSnapshot> histogramValues = new TreeMap<>();
+        histograms.forEach((name, histogram) -> {
+            if (name.startsWith(prefix)) {
+                histogramValues.put(name, histogram.snapshot());
+            }
+        });
+
+        Map<String, Object> result = new TreeMap<>();
+        result.put("counters", counterValues);
+        result.put("gauges", gaugeValues);
+        result.put("histograms", histogramValues);
+        return result;
+    }
+}
@@ -0,0 +1,157 @@
+package clevertec.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Разбивка времени обработки одного HTTP-запроса: кэш, база данных и сериализация ответа.
+ *
+ * <p>Экземпляр создается фильтром запросов и хранится в атрибуте {@link #ATTRIBUTE}. В потоке, который
+ * обрабатывает запрос, он доступен через {@link #current()}; задачи, передаваемые исполнителям, переносят
+ * его с собой через {@link #propagate}. Части одного запроса выполняются в разных потоках, поэтому
+ * время накапливается в {@link LongAdder}.
+ */
+public final class RequestTiming {
+
+    /**
+     * Атрибут запроса с {@link RequestTiming} текущего запроса.
+     */
+    public static final String ATTRIBUTE = RequestTiming.class.getName();
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos;
+    private final LongAdder cacheNanos = new LongAdder();
+    private final LongAdder dbNanos = new LongAdder();
+    private final LongAdder serializationNanos = new LongAdder();
+
+    public RequestTiming(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Область, в которой {@link RequestTiming} привязан к текущему потоку.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * @return разбивка запроса, обрабатываемого текущим потоком, или {@code null}
+     */
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    public static void recordCache(long nanos) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.cacheNanos.add(nanos);
+        }
+    }
+
+    public static void recordDb(long nanos) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.dbNanos.add(nanos);
+        }
+    }
+
+    public void addSerialization(long nanos) {
+        serializationNanos.add(nanos);
+    }
+
+    /**
+     * Привязывает разбивку к текущему потоку до закрытия возвращенной области.
+     *
+     * @return область, восстанавливающая предыдущую привязку
+     */
+    public Scope bind() {
+        RequestTiming previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * Оборачивает задачу так, чтобы она выполнялась с разбивкой текущего потока.
+     *
+     * @param task задача для исполнителя
+     * @param <T>  тип результата
+     * @return исходная задача, если текущий поток не обрабатывает запрос
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        RequestTiming timing = CURRENT.get();
+        if (timing == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope ignored = timing.bind()) {
+                return task.get();
+            }
+        };
+    }
+
+    /**
+     * То же, что {@link #propagate(Supplier)}, для {@link Callable}. Отдельное имя нужно, чтобы лямбда
+     * с результатом не была неоднозначной между двумя перегрузками.
+     *
+     * @param task задача для исполнителя
+     * @param <T>  тип результата
+     * @return исходная задача, если текущий поток не обрабатывает запрос
+     */
+    public static <T> Callable<T> propagateCallable(Callable<T> task) {
+        RequestTiming timing = CURRENT.get();
+        if (timing == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope ignored = timing.bind()) {
+                return task.call();
+            }
+        };
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getCacheNanos() {
+        return cacheNanos.sum();
+    }
+
+    public long getDbNanos() {
+        return dbNanos.sum();
+    }
+
+    public long getSerializationNanos() {
+        return serializationNanos.sum();
+    }
+
+    /**
+     * Формирует значение заголовка {@code Server-Timing} с длительностями в миллисекундах.
+     *
+     * @param nowNanos текущее значение {@link System#nanoTime()}
+     * @return например {@code cache;dur=0.015, db;dur=3.200, ser;dur=0.410, total;dur=4.050}
+     */
+    public String toServerTiming(long nowNanos) {
+        return String.format(Locale.ROOT, "cache;dur=%.3f, db;dur=%.3f, ser;dur=%.3f, total;dur=%.3f",
+                millis(getCacheNanos()), millis(getDbNanos()), millis(getSerializationNanos()),
+                millis(nowNanos - startNanos));
+    }
+
+    private static double millis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
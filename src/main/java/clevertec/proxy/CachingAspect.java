@@ -2,27 +2,37 @@ package clevertec.proxy;
 
 import clevertec.cache.Cache;
 import clevertec.entity.Product;
+import clevertec.metrics.RequestTiming;
 import lombok.RequiredArgsConstructor;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.After;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
 
 @Aspect
+@Order(1)
 @Component
 @RequiredArgsConstructor
 public class CachingAspect {
 
     private final Cache<UUID, Product> cache;
+    private final Cache<String, List<Product>> searchCache;
 
     @Around("execution(* clevertec.dao.ProductDao.findById(..)) && args(id)")
     public Object cacheProduct(ProceedingJoinPoint joinPoint, UUID id) throws Throwable {
+        long start = System.nanoTime();
         Optional<Product> cachedProduct = cache.get(id);
+        RequestTiming.recordCache(System.nanoTime() - start);
         if (cachedProduct.isPresent()) {
             return cachedProduct;
         } else {
@@ -34,6 +44,45 @@ public class CachingAspect {
         }
     }
 
+    /**
+     * Отдает найденные в кэше продукты сразу, а в DAO передает только промахи.
+     */
+    @Around("execution(* clevertec.dao.ProductDao.findAllById(..)) && args(ids)")
+    public Object cacheProducts(ProceedingJoinPoint joinPoint, Collection<UUID> ids) throws Throwable {
+        List<Product> products = new ArrayList<>(ids.size());
+        List<UUID> misses = new ArrayList<>();
+        long start = System.nanoTime();
+        for (UUID id : ids) {
+            cache.get(id).ifPresentOrElse(products::add, () -> misses.add(id));
+        }
+        RequestTiming.recordCache(System.nanoTime() - start);
+        if (misses.isEmpty()) {
+            return products;
+        }
+        @SuppressWarnings("unchecked")
+        List<Product> loaded = (List<Product>) joinPoint.proceed(new Object[]{misses});
+        for (Product product : loaded) {
+            cache.put(product.getId(), product);
+            products.add(product);
+        }
+        return products;
+    }
+
+    @Around("execution(* clevertec.dao.ProductDao.searchByName(..)) && args(query, limit)")
+    public Object cacheSearch(ProceedingJoinPoint joinPoint, String query, int limit) throws Throwable {
+        String key = query.toLowerCase(Locale.ROOT) + '|' + limit;
+        long start = System.nanoTime();
+        Optional<List<Product>> cachedResult = searchCache.get(key);
+        RequestTiming.recordCache(System.nanoTime() - start);
+        if (cachedResult.isPresent()) {
+            return cachedResult.get();
+        }
+        @SuppressWarnings("unchecked")
+        List<Product> result = (List<Product>) joinPoint.proceed();
+        searchCache.put(key, result);
+        return result;
+    }
+
     @AfterReturning(value = "execution(* clevertec.dao.ProductDao.save(..))", returning = "product")
     public void cacheSaveProduct(Product product) {
         cache.put(product.getId(), product);
@@ -0,0 +1,77 @@
+package clevertec.proxy;
+
+import clevertec.dao.impl.LogStructuredProductDao;
+import clevertec.metrics.InstrumentedDataSource;
+import clevertec.metrics.MetricsRegistry;
+import clevertec.metrics.RequestTiming;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Аспект, измеряющий каждый вызов {@link clevertec.dao.ProductDao}.
+ *
+ * <p>Для метода {@code name} записываются гистограммы {@code jdbc.name.acquire.us} (ожидание соединения),
+ * {@code jdbc.name.execute.us} (остальное время вызова) и {@code jdbc.name.rows} (количество возвращенных
+ * строк). Вызовы, завершившиеся исключением, учитываются в {@code jdbc.name.error.acquire.us} и
+ * {@code jdbc.name.error.execute.us}. Если метод возвращает число (например, количество строк,
+ * загруженных через COPY), в {@code rows} записывается само это значение.
+ * Для локального хранилища {@link LogStructuredProductDao} вместо {@code jdbc.} используется префикс
+ * {@code local.}, чтобы его задержки не смешивались с задержками PostgreSQL.
+ * Аспект выполняется внутри {@link CachingAspect}, поэтому попадания в кэш не учитываются.
+ * Полное время вызова добавляется к {@code db} в {@link RequestTiming} текущего запроса.
+ */
+@Aspect
+@Order(2)
+@Component
+@RequiredArgsConstructor
+public class JdbcMetricsAspect {
+
+    private final MetricsRegistry metricsRegistry;
+
+    @Around("execution(* clevertec.dao.ProductDao.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String engine = joinPoint.getTarget() instanceof LogStructuredProductDao ? "local." : "jdbc.";
+        String statement = engine + joinPoint.getSignature().getName();
+        InstrumentedDataSource.resetAcquireTime();
+        long start = System.nanoTime();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            long acquire = InstrumentedDataSource.acquireTimeNanos();
+            String prefix = failed ? statement + ".error" : statement;
+            RequestTiming.recordDb(elapsed);
+
+            metricsRegistry.histogram(prefix + ".acquire.us").record(TimeUnit.NANOSECONDS.toMicros(acquire));
+            metricsRegistry.histogram(prefix + ".execute.us").record(TimeUnit.NANOSECONDS.toMicros(elapsed - acquire));
+            if (!failed) {
+                metricsRegistry.histogram(statement + ".rows").record(rowCount(result));
+            }
+        }
+    }
+
+    private long rowCount(Object result) {
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Number count) {
+            return count.longValue();
+        }
+        return result == null ? 0 : 1;
+    }
+}
@@ -0,0 +1,32 @@
+package clevertec.proxy;
+
+import clevertec.entity.Product;
+import clevertec.utils.pdfserializer.PdfStore;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.After;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Удаляет закэшированные PDF продукта после его изменения или удаления, не дожидаясь вытеснения.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class PdfCacheAspect {
+
+    private final PdfStore pdfStore;
+
+    @AfterReturning("execution(* clevertec.dao.ProductDao.update(..)) && args(product)")
+    public void invalidateUpdatedProduct(Product product) {
+        pdfStore.invalidate(product.getId());
+    }
+
+    @After("execution(* clevertec.dao.ProductDao.delete(..)) && args(id)")
+    public void invalidateDeletedProduct(UUID id) {
+        pdfStore.invalidate(id);
+    }
+}
@@ -0,0 +1,85 @@
+package clevertec.proxy;
+
+import clevertec.dao.ProductDao;
+import clevertec.entity.Product;
+import clevertec.stats.CatalogStatistics;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Аспект, передающий изменения продуктов в {@link CatalogStatistics}.
+ *
+ * <p>Перед {@code update} и {@code delete} прежняя версия продукта читается напрямую из целевого DAO,
+ * минуя {@link CachingAspect}: сервис изменяет закэшированный экземпляр до вызова {@code update}.
+ * Чтение, запись и поправка статистики для одного идентификатора выполняются под блокировкой его
+ * полосы, поэтому два одновременных изменения одного продукта не вычитают одну и ту же прежнюю
+ * версию дважды. Изменения разных продуктов блокируют друг друга, только попав в одну полосу.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class StatisticsAspect {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final CatalogStatistics catalogStatistics;
+    private final ReentrantLock[] locks = IntStream.range(0, LOCK_STRIPES)
+            .mapToObj(stripe -> new ReentrantLock())
+            .toArray(ReentrantLock[]::new);
+
+    @AfterReturning(value = "execution(* clevertec.dao.ProductDao.save(..))", returning = "product")
+    public void countSavedProduct(Product product) {
+        catalogStatistics.onSaved(product);
+    }
+
+    @Around("execution(* clevertec.dao.ProductDao.update(..)) && args(product)")
+    public Object countUpdatedProduct(ProceedingJoinPoint joinPoint, Product product) throws Throwable {
+        ReentrantLock lock = lockFor(product.getId());
+        lock.lock();
+        try {
+            Optional<Product> previous = previousVersion(joinPoint, product.getId());
+            Object result = joinPoint.proceed();
+            previous.ifPresent(old -> catalogStatistics.onUpdated(old, product));
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @AfterReturning("execution(* clevertec.dao.ProductDao.copyIn(..)) && args(products)")
+    public void countCopiedProducts(List<Product> products) {
+        products.forEach(catalogStatistics::onSaved);
+    }
+
+    @Around("execution(* clevertec.dao.ProductDao.delete(..)) && args(id)")
+    public Object countDeletedProduct(ProceedingJoinPoint joinPoint, UUID id) throws Throwable {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Optional<Product> previous = previousVersion(joinPoint, id);
+            Object result = joinPoint.proceed();
+            previous.ifPresent(catalogStatistics::onDeleted);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(UUID id) {
+        return locks[Math.floorMod(id.hashCode(), LOCK_STRIPES)];
+    }
+
+    private Optional<Product> previousVersion(ProceedingJoinPoint joinPoint, UUID id) {
+        return ((ProductDao) joinPoint.getTarget()).findById(id);
+    }
+}
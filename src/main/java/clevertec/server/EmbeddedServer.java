@@ -0,0 +1,162 @@
+package clevertec.server;
+
+import clevertec.servlet.MetricsServlet;
+import clevertec.servlet.PdfServlet;
+import clevertec.servlet.ProductServlet;
+import clevertec.servletlistener.SpringContextListener;
+import clevertec.utils.concurrent.TaskExecutors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.valves.ValveBase;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Точка входа для запуска приложения во встроенном Tomcat, без развертывания WAR.
+ *
+ * <p>Контекст собирается программно: {@link SpringContextListener} поднимает контекст Spring и регистрирует
+ * фильтры, сервлеты добавляются явно и инициализируются при старте. Сканирование аннотаций и JAR-файлов
+ * не выполняется, поэтому сервер готов принимать запросы через несколько секунд после запуска JVM.
+ * Потоки коннектора берутся из {@link TaskExecutors#newTaskExecutor}: на Java 21+ это виртуальные потоки.
+ *
+ * <p>Порт задается системным свойством {@code server.port} или переменной окружения {@code SERVER_PORT}
+ * (по умолчанию {@value #DEFAULT_PORT}), путь контекста тот же, что у WAR в {@code Dockerfile}. В лог пишется время от запуска JVM до готовности сервера и
+ * до завершения первого запроса.
+ */
+@Slf4j
+public final class EmbeddedServer {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final String CONTEXT_PATH = "/myapp";
+    private static final int FALLBACK_CONNECTOR_THREADS = 200;
+
+    private EmbeddedServer() {
+    }
+
+    public static void main(String[] args) throws IOException, LifecycleException {
+        Tomcat tomcat = new Tomcat();
+        Path baseDir = Files.createTempDirectory("tomcat");
+        tomcat.setBaseDir(baseDir.toString());
+        tomcat.setPort(port());
+        tomcat.getHost().setAutoDeploy(false);
+
+        Connector connector = tomcat.getConnector();
+        ExecutorService connectorExecutor = TaskExecutors.newTaskExecutor("http", FALLBACK_CONNECTOR_THREADS);
+        connector.getProtocolHandler().setExecutor(connectorExecutor);
+
+        Context context = tomcat.addContext(CONTEXT_PATH, baseDir.toString());
+        context.addApplicationListener(SpringContextListener.class.getName());
+        addServlet(context, "product-servlet", new ProductServlet(), "/products/*");
+        addServlet(context, "pdf-servlet", new PdfServlet(), "/pdf/*");
+        addServlet(context, "metrics-servlet", new MetricsServlet(), "/metrics");
+        context.getPipeline().addValve(new FirstRequestValve());
+
+        tomcat.start();
+        log.info("Server started on port {} in {} ms after JVM start", connector.getLocalPort(), uptimeMillis());
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                tomcat.stop();
+                tomcat.destroy();
+            } catch (LifecycleException e) {
+                log.error("Failed to stop server", e);
+            } finally {
+                connectorExecutor.shutdown();
+            }
+        }, "server-shutdown"));
+        tomcat.getServer().await();
+    }
+
+    private static void addServlet(Context context, String name, HttpServlet servlet, String mapping) {
+        Wrapper wrapper = Tomcat.addServlet(context, name, servlet);
+        wrapper.setAsyncSupported(true);
+        wrapper.setLoadOnStartup(1);
+        context.addServletMappingDecoded(mapping, name);
+    }
+
+    private static int port() {
+        String port = System.getProperty("server.port", System.getenv("SERVER_PORT"));
+        return port != null ? Integer.parseInt(port) : DEFAULT_PORT;
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    /**
+     * Пишет в лог время от запуска JVM до завершения первого запроса, в том числе асинхронного.
+     */
+    private static final class FirstRequestValve extends ValveBase {
+
+        private final AtomicBoolean reported = new AtomicBoolean();
+
+        private FirstRequestValve() {
+            super(true);
+        }
+
+        @Override
+        public void invoke(Request request, Response response) throws IOException, ServletException {
+            getNext().invoke(request, response);
+            if (reported.get()) {
+                return;
+            }
+            if (request.isAsync()) {
+                request.getAsyncContext().addListener(new ReportOnComplete(request.getMethod(), request.getRequestURI()));
+            } else {
+                report(request.getMethod(), request.getRequestURI(), response.getStatus());
+            }
+        }
+
+        private void report(String method, String uri, int status) {
+            if (reported.compareAndSet(false, true)) {
+                log.info("First request {} {} completed with {} in {} ms after JVM start",
+                        method, uri, status, uptimeMillis());
+            }
+        }
+
+        private final class ReportOnComplete implements AsyncListener {
+
+            private final String method;
+            private final String uri;
+
+            private ReportOnComplete(String method, String uri) {
+                this.method = method;
+                this.uri = uri;
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+                report(method, uri, ((HttpServletResponse) event.getSuppliedResponse()).getStatus());
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                event.getAsyncContext().addListener(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package clevertec.service;
+
+import clevertec.dto.InfoProductDto;
+import clevertec.dto.ProductDto;
+import clevertec.dto.ProductFilter;
+import clevertec.dto.ProductLookupDto;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncProductService {
+    CompletableFuture<InfoProductDto> get(UUID uuid);
+
+    CompletableFuture<List<ProductLookupDto>> getByIds(List<UUID> ids);
+
+    CompletableFuture<List<InfoProductDto>> getAllProducts(int pageSize, int pageNumber);
+
+    CompletableFuture<List<InfoProductDto>> getProducts(ProductFilter filter);
+
+    CompletableFuture<List<InfoProductDto>> search(String query, int limit);
+
+    CompletableFuture<UUID> update(UUID uuid, ProductDto productDto);
+
+    CompletableFuture<UUID> create(ProductDto productDto);
+
+    CompletableFuture<Void> delete(UUID uuid);
+}
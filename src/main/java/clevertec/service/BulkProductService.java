@@ -0,0 +1,18 @@
+package clevertec.service;
+
+import clevertec.dao.CopyFormat;
+import clevertec.dto.ImportResultDto;
+
+import java.io.BufferedReader;
+import java.io.OutputStream;
+
+public interface BulkProductService {
+    ImportResultDto importProducts(BufferedReader reader, ImportFormat format);
+
+    long exportProducts(OutputStream out, CopyFormat format);
+
+    enum ImportFormat {
+        CSV,
+        JSON_LINES
+    }
+}
@@ -1,8 +1,18 @@
 package clevertec.service;
 
-import java.nio.file.Path;
+import clevertec.dto.ProductFilter;
+import clevertec.utils.pdfserializer.CatalogLayout;
+import clevertec.utils.pdfserializer.PdfDocument;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 import java.util.UUID;
 
 public interface PdfService {
-    Path productToPdf(UUID uuid);
+    PdfDocument productToPdf(UUID uuid);
+
+    int catalogToPdf(List<UUID> ids, CatalogLayout layout, OutputStream out) throws IOException;
+
+    int catalogToPdf(ProductFilter filter, CatalogLayout layout, OutputStream out) throws IOException;
 }
@@ -1,7 +1,10 @@
 package clevertec.service;
 
+import clevertec.dto.CatalogStatisticsDto;
 import clevertec.dto.InfoProductDto;
 import clevertec.dto.ProductDto;
+import clevertec.dto.ProductFilter;
+import clevertec.dto.ProductLookupDto;
 
 import java.util.List;
 import java.util.UUID;
@@ -9,8 +12,18 @@ import java.util.UUID;
 public interface ProductService {
     InfoProductDto get(UUID uuid);
 
+    List<ProductLookupDto> getByIds(List<UUID> ids);
+
     List<InfoProductDto> getAllProducts(int pageSize, int pageNumber);
 
+    List<InfoProductDto> getProductsAfter(UUID afterId, int limit);
+
+    List<InfoProductDto> getProducts(ProductFilter filter);
+
+    List<InfoProductDto> search(String query, int limit);
+
+    CatalogStatisticsDto getStatistics();
+
     UUID update(UUID uuid, ProductDto productDto);
 
     UUID create(ProductDto productDto);
@@ -0,0 +1,143 @@
+package clevertec.service.impl;
+
+import clevertec.dto.InfoProductDto;
+import clevertec.dto.ProductDto;
+import clevertec.dto.ProductFilter;
+import clevertec.dto.ProductLookupDto;
+import clevertec.metrics.RequestTiming;
+import clevertec.service.AsyncProductService;
+import clevertec.service.ProductService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Асинхронная обертка над {@link ProductService}.
+ * Каждый вызов выполняется на исполнителе {@code requestExecutor} и возвращает {@link CompletableFuture},
+ * поэтому поток сервлет-контейнера не блокируется на время обращения к базе данных. Исполнитель общий
+ * с {@link clevertec.servlet.AsyncRequestExecutor}: настройки {@code servlet.executor} и
+ * {@code servlet.queue-capacity} ограничивают и запросы к продуктам, а переполнение очереди завершает
+ * {@link CompletableFuture} с {@link RejectedExecutionException} (ответ 503).
+ *
+ * <p>Количество одновременно выполняемых задач ограничено семафором, размер которого совпадает
+ * с размером пула соединений Hikari: лишние задачи ждут разрешения, а не соединения в пуле.
+ */
+@Service
+public class AsyncProductServiceImpl implements AsyncProductService {
+
+    private final ProductService productService;
+    private final Executor executor;
+    private final Semaphore permits;
+
+    public AsyncProductServiceImpl(ProductService productService,
+                                   @Qualifier("requestExecutor") Executor executor,
+                                   @Value("${database.pool-size}") int poolSize) {
+        this.productService = productService;
+        this.executor = executor;
+        this.permits = new Semaphore(poolSize);
+    }
+
+    @Override
+    public CompletableFuture<InfoProductDto> get(UUID uuid) {
+        return supply(() -> productService.get(uuid));
+    }
+
+    @Override
+    public CompletableFuture<List<ProductLookupDto>> getByIds(List<UUID> ids) {
+        return supply(() -> productService.getByIds(ids));
+    }
+
+    @Override
+    public CompletableFuture<List<InfoProductDto>> getAllProducts(int pageSize, int pageNumber) {
+        return supply(() -> productService.getAllProducts(pageSize, pageNumber));
+    }
+
+    @Override
+    public CompletableFuture<List<InfoProductDto>> getProducts(ProductFilter filter) {
+        return supply(() -> productService.getProducts(filter));
+    }
+
+    @Override
+    public CompletableFuture<List<InfoProductDto>> search(String query, int limit) {
+        return supply(() -> productService.search(query, limit));
+    }
+
+    @Override
+    public CompletableFuture<UUID> update(UUID uuid, ProductDto productDto) {
+        return supply(() -> productService.update(uuid, productDto));
+    }
+
+    @Override
+    public CompletableFuture<UUID> create(ProductDto productDto) {
+        return supply(() -> productService.create(productDto));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(UUID uuid) {
+        return supply(() -> {
+            productService.delete(uuid);
+            return null;
+        });
+    }
+
+    /**
+     * Исключение задачи передается в {@link CompletableFuture} как есть, без обертки в {@link CompletionException}:
+     * для частых ожидаемых ошибок вроде ненайденного продукта не создается лишнее исключение со стеком.
+     *
+     * <p>Разрешение семафора возвращается до завершения {@link CompletableFuture}: колбэки, которые
+     * пишут HTTP-ответ, выполняются синхронно в потоке задачи и не должны удерживать разрешение.
+     *
+     * <p>{@link CompletableFuture#cancel} не прерывает задачу, поэтому задача, чей результат уже отменен
+     * по таймауту, пропускает обращение к базе данных и при старте, и после ожидания разрешения.
+     */
+    private <T> CompletableFuture<T> supply(Supplier<T> task) {
+        Supplier<T> traced = RequestTiming.propagate(task);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(traced, result));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private <T> void run(Supplier<T> task, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return;
+        }
+        if (result.isDone()) {
+            permits.release();
+            return;
+        }
+        T value = null;
+        Throwable failure = null;
+        try {
+            value = task.get();
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        } finally {
+            permits.release();
+        }
+        if (failure != null) {
+            result.completeExceptionally(failure);
+        } else {
+            result.complete(value);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package clevertec.service.impl;
+
+import clevertec.dao.CopyFormat;
+import clevertec.dao.ProductDao;
+import clevertec.dto.ImportResultDto;
+import clevertec.dto.ProductDto;
+import clevertec.dto.RejectedLineDto;
+import clevertec.entity.Product;
+import clevertec.mapper.ProductMapper;
+import clevertec.service.BulkProductService;
+import clevertec.utils.io.BoundedLineReader;
+import clevertec.validation.ProductValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Потоковый импорт продуктов из CSV ({@code name,price,weight}) или JSON Lines ({@link ProductDto} на строку).
+ *
+ * <p>Вход читается построчно, каждая строка проверяется тем же {@link ProductValidator}, что и создание
+ * продукта, а корректные продукты передаются в {@link ProductDao#copyIn} порциями по {@code import.chunk-size}.
+ * Память ограничена одной порцией и одной строкой независимо от размера входа: строка длиннее
+ * {@code import.max-line-length} символов не накапливается, а отклоняется. Каждая порция записывается
+ * отдельной командой {@code COPY}, поэтому при ошибке базы уже записанные порции сохраняются.
+ *
+ * <p>Экспорт выполняется командой {@code COPY ... TO STDOUT} без создания объектов на каждую строку.
+ */
+@Slf4j
+@Service
+public class BulkProductServiceImpl implements BulkProductService {
+
+    private static final String CSV_HEADER = "name,price,weight";
+
+    private final ProductDao dao;
+    private final ProductMapper productMapper;
+    private final ProductValidator productValidator;
+    private final ObjectReader productDtoReader;
+    private final int chunkSize;
+    private final int maxReportedRejections;
+    private final int maxLineLength;
+
+    public BulkProductServiceImpl(ProductDao dao,
+                                  ProductMapper productMapper,
+                                  ProductValidator productValidator,
+                                  ObjectMapper objectMapper,
+                                  @Value("${import.chunk-size}") int chunkSize,
+                                  @Value("${import.max-reported-rejections}") int maxReportedRejections,
+                                  @Value("${import.max-line-length}") int maxLineLength) {
+        this.dao = dao;
+        this.productMapper = productMapper;
+        this.productValidator = productValidator;
+        this.productDtoReader = objectMapper.readerFor(ProductDto.class);
+        this.chunkSize = chunkSize;
+        this.maxReportedRejections = maxReportedRejections;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Импортирует продукты из потока строк.
+     *
+     * @param reader источник строк
+     * @param format формат строк
+     * @return количество импортированных и отклоненных строк и причины первых отклонений
+     * @throws clevertec.exception.DatabaseAccessException если порцию не удалось записать
+     */
+    @Override
+    public ImportResultDto importProducts(BufferedReader reader, ImportFormat format) {
+        List<RejectedLineDto> rejectedLines = new ArrayList<>();
+        List<Product> chunk = new ArrayList<>(chunkSize);
+        long imported = 0;
+        long rejected = 0;
+        long lineNumber = 0;
+
+        try {
+            BoundedLineReader lines = new BoundedLineReader(reader, maxLineLength);
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && format == ImportFormat.CSV
+                        && line.strip().equalsIgnoreCase(CSV_HEADER))) {
+                    continue;
+                }
+                try {
+                    if (lines.isTruncated()) {
+                        throw new IllegalArgumentException("Line is longer than " + maxLineLength + " characters");
+                    }
+                    ProductDto productDto = format == ImportFormat.CSV ? parseCsv(line) : parseJson(line);
+                    productValidator.validate(productDto);
+                    chunk.add(toProduct(productDto));
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                    if (rejectedLines.size() < maxReportedRejections) {
+                        rejectedLines.add(new RejectedLineDto(lineNumber, e.getMessage()));
+                    }
+                    continue;
+                }
+                if (chunk.size() >= chunkSize) {
+                    imported += dao.copyIn(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import body", e);
+        }
+        if (!chunk.isEmpty()) {
+            imported += dao.copyIn(chunk);
+        }
+        log.info("Imported {} products, rejected {} lines", imported, rejected);
+        return new ImportResultDto(imported, rejected, rejectedLines);
+    }
+
+    /**
+     * Выгружает все продукты в поток.
+     *
+     * @param out    поток назначения
+     * @param format формат выгрузки
+     * @return количество выгруженных строк
+     */
+    @Override
+    public long exportProducts(OutputStream out, CopyFormat format) {
+        long exported = dao.copyOut(out, format);
+        log.info("Exported {} products as {}", exported, format);
+        return exported;
+    }
+
+    private ProductDto parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() != 3) {
+            throw new IllegalArgumentException("Expected 3 fields but got " + fields.size());
+        }
+        return new ProductDto(fields.get(0).strip(), parseNumber(fields.get(1), "price"), parseNumber(fields.get(2), "weight"));
+    }
+
+    private ProductDto parseJson(String line) {
+        try {
+            ProductDto productDto = productDtoReader.readValue(line);
+            if (productDto == null) {
+                throw new IllegalArgumentException("Expected a JSON object");
+            }
+            return productDto;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Double parseNumber(String value, String field) {
+        try {
+            return Double.valueOf(value.strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private Product toProduct(ProductDto productDto) {
+        Product product = productMapper.toProduct(productDto);
+        product.setId(UUID.randomUUID());
+        product.setCreated(LocalDateTime.now());
+        return product;
+    }
+
+    private List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
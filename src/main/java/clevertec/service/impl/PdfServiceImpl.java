@@ -1,13 +1,26 @@
 package clevertec.service.impl;
 
 import clevertec.dto.InfoProductDto;
+import clevertec.dto.ProductFilter;
+import clevertec.dto.ProductLookupDto;
 import clevertec.service.PdfService;
 import clevertec.service.ProductService;
+import clevertec.utils.pdfserializer.CatalogLayout;
+import clevertec.utils.pdfserializer.CatalogPdfWriter;
+import clevertec.utils.pdfserializer.PdfDocument;
 import clevertec.utils.pdfserializer.PdfSerializer;
+import clevertec.utils.pdfserializer.PdfStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.nio.file.Path;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -15,25 +28,123 @@ import java.util.UUID;
  * Этот сервис используется для преобразования информации о продукте в формат PDF.
  *
  * <p>Данный класс использует {@link PdfSerializer} для сериализации объектов в PDF
- * и {@link ProductService} для получения данных о продукте.
+ * и {@link ProductService} для получения данных о продукте. Документ получается из {@link PdfStore}:
+ * дисковый кэш хранит его под хэшем данных продукта и версии оформления, поэтому повторный запрос
+ * неизмененного продукта не выполняет рендеринг, а хранилище в памяти отрисовывает его в буфер из пула.
+ * Каталоги из многих продуктов собираются {@link CatalogPdfWriter} из фрагментов, отрисованных параллельно.
  */
 @Service
 @RequiredArgsConstructor
 public class PdfServiceImpl implements PdfService {
 
+    private static final int CONTENT_HASH_BYTES = 16;
+
     private final PdfSerializer pdfSerializer;
     private final ProductService productService;
+    private final PdfStore pdfStore;
+    private final CatalogPdfWriter catalogPdfWriter;
 
     /**
      * Преобразует данные продукта, идентифицируемого по UUID, в PDF-документ.
      *
      * @param uuid Уникальный идентификатор продукта, информацию о котором необходимо сериализовать в PDF.
-     * @return Путь к созданному PDF-документу.
+     * @return PDF-документ, который нужно закрыть после отправки.
      * @throws IllegalArgumentException если продукт с указанным UUID не найден.
      */
     @Override
-    public Path productToPdf(UUID uuid) {
+    public PdfDocument productToPdf(UUID uuid) {
         InfoProductDto infoProductDto = productService.get(uuid);
-        return pdfSerializer.serializeObjectToPdf(infoProductDto);
+        try {
+            return pdfStore.open(uuid, contentHash(infoProductDto),
+                    out -> pdfSerializer.serializeObjectToPdf(infoProductDto, out));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write PDF for product " + uuid, e);
+        }
+    }
+
+    /**
+     * Пишет в поток PDF-каталог продуктов с указанными id в порядке запроса. Ненайденные id пропускаются.
+     *
+     * @param ids    id продуктов
+     * @param layout оформление каталога
+     * @param out    поток для документа
+     * @return число отрисованных фрагментов
+     * @throws IOException если документ не удалось записать
+     * @throws IllegalArgumentException если список пуст или длиннее {@code pdf.catalog.max-products}
+     */
+    @Override
+    public int catalogToPdf(List<UUID> ids, CatalogLayout layout, OutputStream out) throws IOException {
+        if (ids.isEmpty() || ids.size() > catalogPdfWriter.getMaxProducts()) {
+            throw new IllegalArgumentException("ids must contain from 1 to " + catalogPdfWriter.getMaxProducts()
+                    + " identifiers");
+        }
+        return catalogPdfWriter.write((batchIndex, batchSize) -> {
+            int from = batchIndex * batchSize;
+            if (from >= ids.size()) {
+                return null;
+            }
+            return productService.getByIds(ids.subList(from, Math.min(from + batchSize, ids.size()))).stream()
+                    .filter(ProductLookupDto::isFound)
+                    .map(ProductLookupDto::getProduct)
+                    .toList();
+        }, layout, out);
+    }
+
+    /**
+     * Пишет в поток PDF-каталог продуктов, отобранных фильтром, или всех продуктов, если фильтр не задан.
+     * Страница и размер страницы фильтра не используются: продукты читаются пакетами по порядку сортировки.
+     * Весь каталог читается по порядку {@code id} с продолжением от последнего полученного ключа, поэтому
+     * пакеты не пересекаются и не теряют строки, а поздние пакеты не дороже первых.
+     *
+     * @param filter фильтр или {@code null}
+     * @param layout оформление каталога
+     * @param out    поток для документа
+     * @return число отрисованных фрагментов
+     * @throws IOException если документ не удалось записать
+     */
+    @Override
+    public int catalogToPdf(ProductFilter filter, CatalogLayout layout, OutputStream out) throws IOException {
+        CatalogPdfWriter.BatchLoader loader = filter != null
+                ? (batchIndex, batchSize) -> nullIfEmpty(productService.getProducts(
+                        filter.toBuilder().pageSize(batchSize).pageNumber(batchIndex + 1).build()))
+                : new KeysetLoader();
+        return catalogPdfWriter.write(loader, layout, out);
+    }
+
+    private static List<InfoProductDto> nullIfEmpty(List<InfoProductDto> products) {
+        return products.isEmpty() ? null : products;
+    }
+
+    /**
+     * Читает весь каталог пакетами по порядку {@code id}, начиная каждый пакет после последнего ключа
+     * предыдущего. {@link CatalogPdfWriter} запрашивает пакеты по порядку из одного потока.
+     */
+    private final class KeysetLoader implements CatalogPdfWriter.BatchLoader {
+
+        private UUID lastId;
+
+        @Override
+        public List<InfoProductDto> load(int batchIndex, int batchSize) {
+            List<InfoProductDto> products = productService.getProductsAfter(lastId, batchSize);
+            if (products.isEmpty()) {
+                return null;
+            }
+            lastId = products.get(products.size() - 1).getId();
+            return products;
+        }
+    }
+
+    /**
+     * Хэш данных, из которых строится документ: SHA-256, усеченный до 128 бит.
+     */
+    static String contentHash(InfoProductDto product) {
+        String content = PdfSerializer.LAYOUT_VERSION + "|" + product.getId() + "|" + product.getName() + "|"
+                + product.getPrice() + "|" + product.getWeight();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, CONTENT_HASH_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
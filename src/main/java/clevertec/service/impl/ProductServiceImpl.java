@@ -1,18 +1,26 @@
 package clevertec.service.impl;
 
 import clevertec.dao.ProductDao;
+import clevertec.dto.CatalogStatisticsDto;
 import clevertec.dto.InfoProductDto;
 import clevertec.dto.ProductDto;
+import clevertec.dto.ProductFilter;
+import clevertec.dto.ProductLookupDto;
 import clevertec.entity.Product;
 import clevertec.exception.ProductNotFoundException;
 import clevertec.mapper.ProductMapper;
 import clevertec.service.ProductService;
+import clevertec.stats.CatalogStatistics;
+import clevertec.validation.ProductValidator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import javax.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -25,6 +33,8 @@ public class ProductServiceImpl implements ProductService {
 
     private final ProductDao dao;
     private final ProductMapper productMapper;
+    private final CatalogStatistics catalogStatistics;
+    private final ProductValidator productValidator;
 
     /**
      * Получить информацию о продукте по UUID.
@@ -40,6 +50,25 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new ProductNotFoundException(uuid));
     }
 
+    /**
+     * Получить продукты по списку UUID одним обращением к DAO.
+     * Повторяющиеся идентификаторы запрашиваются один раз, но в ответе присутствуют столько же раз,
+     * сколько в запросе.
+     *
+     * @param ids Уникальные идентификаторы продуктов.
+     * @return Результаты в порядке запроса; для отсутствующих продуктов {@code found = false}.
+     */
+    @Override
+    public List<ProductLookupDto> getByIds(List<UUID> ids) {
+        Map<UUID, InfoProductDto> found = new HashMap<>();
+        for (Product product : dao.findAllById(new LinkedHashSet<>(ids))) {
+            found.put(product.getId(), productMapper.toInfoProductDto(product));
+        }
+        return ids.stream()
+                .map(id -> new ProductLookupDto(id, found.containsKey(id), found.get(id)))
+                .toList();
+    }
+
     /**
      * Получить список всех продуктов с пагинацией.
      *
@@ -54,6 +83,66 @@ public class ProductServiceImpl implements ProductService {
                 .toList();
     }
 
+    /**
+     * Получить продукты в порядке идентификаторов, следующие за {@code afterId}.
+     *
+     * @param afterId Идентификатор последнего полученного продукта или {@code null} для начала каталога.
+     * @param limit   Максимальное количество продуктов.
+     * @return Список DTO информации о продуктах.
+     */
+    @Override
+    public List<InfoProductDto> getProductsAfter(UUID afterId, int limit) {
+        return dao.findAllAfter(afterId, limit).stream()
+                .map(productMapper::toInfoProductDto)
+                .toList();
+    }
+
+    /**
+     * Получить страницу продуктов по диапазонам цены и веса с сортировкой.
+     *
+     * @param filter Параметры фильтрации, сортировки и пагинации.
+     * @return Список DTO информации о продуктах.
+     * @throws IllegalArgumentException если нижняя граница диапазона больше верхней.
+     */
+    @Override
+    public List<InfoProductDto> getProducts(ProductFilter filter) {
+        checkRange("price", filter.getMinPrice(), filter.getMaxPrice());
+        checkRange("weight", filter.getMinWeight(), filter.getMaxWeight());
+        checkRange("creation date", filter.getCreatedFrom(), filter.getCreatedTo());
+        return dao.findByFilter(filter).stream()
+                .map(productMapper::toInfoProductDto)
+                .toList();
+    }
+
+    /**
+     * Найти продукты по подстроке в названии.
+     *
+     * @param query Подстрока для поиска.
+     * @param limit Максимальное количество результатов.
+     * @return Список DTO информации о найденных продуктах.
+     * @throws IllegalArgumentException если строка поиска пуста.
+     */
+    @Override
+    public List<InfoProductDto> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        return dao.searchByName(query.strip(), limit).stream()
+                .map(productMapper::toInfoProductDto)
+                .toList();
+    }
+
+    /**
+     * Получить агрегированную статистику каталога.
+     * Значения поддерживаются в памяти, поэтому вызов не обращается к базе данных.
+     *
+     * @return DTO статистики каталога.
+     */
+    @Override
+    public CatalogStatisticsDto getStatistics() {
+        return catalogStatistics.getStatistics();
+    }
+
     /**
      * Обновить информацию о продукте.
      *
@@ -61,9 +150,11 @@ public class ProductServiceImpl implements ProductService {
      * @param productDto DTO продукта для обновления.
      * @return UUID обновленного продукта.
      * @throws ProductNotFoundException если продукт не найден.
+     * @throws IllegalArgumentException если DTO нарушает ограничения.
      */
     @Override
     public UUID update(UUID uuid, @Valid ProductDto productDto) {
+        productValidator.validate(productDto);
         Product product = dao.findById(uuid)
                 .orElseThrow(() -> new ProductNotFoundException(uuid));
         Product merge = productMapper.merge(product, productDto);
@@ -75,9 +166,11 @@ public class ProductServiceImpl implements ProductService {
      *
      * @param productDto DTO продукта для создания.
      * @return UUID созданного продукта.
+     * @throws IllegalArgumentException если DTO нарушает ограничения.
      */
     @Override
     public UUID create(@Valid ProductDto productDto) {
+        productValidator.validate(productDto);
         Product product = productMapper.toProduct(productDto);
         product.setId(UUID.randomUUID());
         product.setCreated(LocalDateTime.now());
@@ -93,4 +186,10 @@ public class ProductServiceImpl implements ProductService {
     public void delete(UUID uuid) {
         dao.delete(uuid);
     }
+
+    private <T extends Comparable<T>> void checkRange(String name, T min, T max) {
+        if (min != null && max != null && min.compareTo(max) > 0) {
+            throw new IllegalArgumentException("Minimum " + name + " must not exceed maximum " + name);
+        }
+    }
 }
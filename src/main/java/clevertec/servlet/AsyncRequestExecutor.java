@@ -0,0 +1,179 @@
+package clevertec.servlet;
+
+import clevertec.filter.ErrorHandlingFilter;
+import clevertec.metrics.RequestTiming;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Общая асинхронная обработка запросов для сервлетов.
+ *
+ * <p>Поток контейнера только запускает {@link AsyncContext} и сразу освобождается; работа выполняется
+ * на исполнителе {@code requestExecutor}, а ответ пишется из потока, завершившего задачу. Каждому запросу
+ * назначается таймаут {@code servlet.request-timeout-ms}. Результат, ошибка и таймаут соревнуются за
+ * один {@link AtomicBoolean}, поэтому ответ пишется ровно один раз.
+ *
+ * <p>Ошибки, в том числе {@link TimeoutException} (504) и {@link RejectedExecutionException} (503),
+ * передаются в {@link ErrorHandlingFilter} через атрибут запроса и асинхронный dispatch.
+ *
+ * <p>Результат, пришедший после таймаута, в ответ не пишется; если он {@link AutoCloseable}
+ * (например, {@code PdfDocument} с файлом или буфером из пула), он закрывается здесь же.
+ */
+@Slf4j
+@Component
+public class AsyncRequestExecutor {
+
+    private final ExecutorService executor;
+    private final long timeoutMs;
+
+    public AsyncRequestExecutor(@Qualifier("requestExecutor") ExecutorService executor,
+                                @Value("${servlet.request-timeout-ms}") long timeoutMs) {
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Пишет результат в ответ.
+     *
+     * @param <T> тип результата
+     */
+    @FunctionalInterface
+    public interface ResultWriter<T> {
+        void write(T value) throws IOException;
+    }
+
+    /**
+     * Выполняет блокирующую работу на исполнителе запросов и пишет ее результат в ответ.
+     * По таймауту задача прерывается.
+     *
+     * @param req    запрос
+     * @param work   работа, выполняемая вне потока контейнера
+     * @param writer запись результата в ответ
+     * @param <T>    тип результата
+     */
+    public <T> void execute(HttpServletRequest req, Callable<T> work, ResultWriter<? super T> writer) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Callable<T> traced = RequestTiming.propagateCallable(work);
+        Future<?> task = null;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    result.complete(traced.call());
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        Future<?> submitted = task;
+        respond(req, result, writer, () -> {
+            if (submitted != null) {
+                submitted.cancel(true);
+            }
+        });
+    }
+
+    /**
+     * Дожидается уже запущенной асинхронной операции и пишет ее результат в ответ.
+     *
+     * @param req    запрос
+     * @param result результат операции
+     * @param writer запись результата в ответ
+     * @param <T>    тип результата
+     */
+    public <T> void respond(HttpServletRequest req, CompletableFuture<T> result, ResultWriter<? super T> writer) {
+        respond(req, result, writer, () -> result.cancel(true));
+    }
+
+    private <T> void respond(HttpServletRequest req, CompletableFuture<T> result, ResultWriter<? super T> writer,
+                             Runnable cancel) {
+        AsyncContext asyncContext = req.startAsync();
+        asyncContext.setTimeout(timeoutMs);
+        AtomicBoolean finished = new AtomicBoolean();
+        asyncContext.addListener(new TimeoutListener(() -> {
+            if (finished.compareAndSet(false, true)) {
+                cancel.run();
+                dispatchError(req, asyncContext, new TimeoutException("Request timed out after " + timeoutMs + " ms"));
+            }
+        }));
+        result.whenComplete((value, error) -> {
+            if (!finished.compareAndSet(false, true)) {
+                closeQuietly(value);
+                return;
+            }
+            if (error != null) {
+                dispatchError(req, asyncContext, error);
+                return;
+            }
+            try {
+                writer.write(value);
+                asyncContext.complete();
+            } catch (IOException | RuntimeException e) {
+                dispatchError(req, asyncContext, e);
+            }
+        });
+    }
+
+    private static void closeQuietly(Object value) {
+        if (value instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Failed to close result that completed after timeout", e);
+            }
+        }
+    }
+
+    private void dispatchError(HttpServletRequest req, AsyncContext asyncContext, Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        req.setAttribute(ErrorHandlingFilter.ASYNC_ERROR_ATTRIBUTE, cause);
+        asyncContext.dispatch();
+    }
+
+    private static final class TimeoutListener implements AsyncListener {
+
+        private final Runnable onTimeout;
+
+        private TimeoutListener(Runnable onTimeout) {
+            this.onTimeout = onTimeout;
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            onTimeout.run();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
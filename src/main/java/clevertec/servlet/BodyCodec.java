@@ -0,0 +1,305 @@
+package clevertec.servlet;
+
+import clevertec.metrics.RequestTiming;
+import clevertec.utils.json.JsonCodec;
+import clevertec.utils.json.JsonCodecs;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Чтение и запись тел запросов без промежуточных строк с выбором формата по {@code Content-Type} и {@code Accept}.
+ *
+ * <p>По умолчанию используется JSON. Внутренние клиенты могут запросить двоичные форматы Jackson Smile
+ * ({@value #SMILE}) или CBOR ({@value #CBOR}): те же DTO кодируются компактнее и разбираются быстрее.
+ * Мапперы двоичных форматов получены из бина {@link ObjectMapper} через {@code copyWith}, поэтому
+ * разделяют его модули и настройки.
+ *
+ * <p>{@link ObjectWriter} и {@link ObjectReader} создаются один раз на тип и формат и переиспользуются:
+ * сериализаторы уже разрешены, и на каждый запрос не выполняется поиск по конфигурации {@link ObjectMapper}.
+ * Генератор Jackson берет буферы из своего пула {@link com.fasterxml.jackson.core.util.BufferRecycler}. Для списков используется writer с известным типом
+ * элемента, поэтому сериализатор не ищется заново для каждого элемента.
+ *
+ * <p>При {@code json.codec: generated} JSON для DTO с {@code @GenerateJsonCodec} пишется и читается
+ * кодеками, сгенерированными при компиляции ({@link JsonCodecs}): без рефлексии и поиска сериализаторов,
+ * с заранее закодированными именами свойств. Вывод совпадает с Jackson; остальные типы и двоичные форматы
+ * по-прежнему обрабатывает {@link ObjectMapper}. По умолчанию ({@code json.codec: reflection}) весь JSON
+ * пишет {@link ObjectMapper}.
+ *
+ * <p>Тело до {@value #BUFFERED_BODY_BYTES} байт сериализуется в память: генератор и кодеки сбрасывают
+ * поток при завершении, и запись прямо в {@code getOutputStream()} фиксировала бы ответ до того, как
+ * известно время сериализации. После сериализации выставляются {@code Server-Timing} с {@code ser} и
+ * {@code Content-Length}, затем тело пишется в ответ. Более длинное тело дописывается в
+ * {@code getOutputStream()} по мере сериализации, и его заголовки уходят без времени сериализации.
+ */
+@Component
+public class BodyCodec {
+
+    public static final String JSON = "application/json";
+    public static final String SMILE = "application/x-jackson-smile";
+    public static final String CBOR = "application/cbor";
+
+    static final int BUFFERED_BODY_BYTES = 16 * 1024;
+
+    private final Format json;
+    private final Format smile;
+    private final Format cbor;
+    private final JsonCodecs generatedCodecs;
+
+    public BodyCodec(ObjectMapper objectMapper) {
+        this(objectMapper, null, "jackson");
+    }
+
+    @Autowired
+    public BodyCodec(ObjectMapper objectMapper, JsonCodecs jsonCodecs, @Value("${json.codec}") String codec) {
+        this.generatedCodecs = "generated".equals(codec) ? jsonCodecs : null;
+        this.json = new Format(JSON, objectMapper);
+        this.smile = new Format(SMILE, objectMapper.copyWith(new SmileFactory()));
+        this.cbor = new Format(CBOR, objectMapper.copyWith(new CBORFactory()));
+    }
+
+    /**
+     * Читает тело запроса из {@code getInputStream()} в формате, указанном в {@code Content-Type}.
+     *
+     * @param req  запрос
+     * @param type тип тела
+     * @param <T>  тип тела
+     * @return прочитанный объект
+     * @throws IOException если тело не удалось прочитать или разобрать
+     */
+    public <T> T read(HttpServletRequest req, Class<T> type) throws IOException {
+        Format format = forContentType(req.getContentType());
+        if (format == json && generatedCodecs != null) {
+            JsonCodec<T> codec = generatedCodecs.find(type);
+            if (codec != null) {
+                return generatedCodecs.read(codec, req.getInputStream());
+            }
+        }
+        return format.reader(type)
+                .readValue(req.getInputStream());
+    }
+
+    /**
+     * Устанавливает статус и пишет {@code value} в ответ в формате, выбранном по {@code Accept}.
+     * Для {@code 204} тело не пишется.
+     *
+     * @param req        запрос
+     * @param resp       ответ
+     * @param value      объект ответа
+     * @param statusCode статус ответа
+     * @throws IOException если ответ не удалось записать
+     */
+    public void write(HttpServletRequest req, HttpServletResponse resp, Object value, int statusCode) throws IOException {
+        resp.setStatus(statusCode);
+        resp.addHeader("Vary", "Accept");
+        if (statusCode == HttpServletResponse.SC_NO_CONTENT) {
+            return;
+        }
+        Format format = forAccept(req.getHeader("Accept"));
+        if (format != json) {
+            resp.setContentType(format.mediaType);
+        }
+        RequestTiming timing = (RequestTiming) req.getAttribute(RequestTiming.ATTRIBUTE);
+        long start = System.nanoTime();
+        BufferedBody body = new BufferedBody(resp, BUFFERED_BODY_BYTES);
+        if (format == json && generatedCodecs != null && generatedCodecs.canWrite(value)) {
+            generatedCodecs.write(value, body);
+        } else {
+            format.writer(value).writeValue(body, value);
+        }
+        if (timing != null) {
+            long now = System.nanoTime();
+            timing.addSerialization(now - start);
+            if (body.isBuffered()) {
+                resp.setHeader(RequestTiming.SERVER_TIMING_HEADER, timing.toServerTiming(now));
+            }
+        }
+        body.finish();
+    }
+
+    private Format forContentType(String contentType) {
+        if (contentType == null) {
+            return json;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        if (type.startsWith(SMILE)) {
+            return smile;
+        }
+        return type.startsWith(CBOR) ? cbor : json;
+    }
+
+    /**
+     * Выбирает поддерживаемый тип с наибольшим весом {@code q} из {@code Accept}; при равных весах побеждает
+     * указанный раньше. {@code *}{@code /*} и {@code application/*} означают JSON, типы с {@code q=0} исключаются.
+     * Если подходящего типа нет, используется JSON.
+     */
+    private Format forAccept(String accept) {
+        if (accept == null) {
+            return json;
+        }
+        Format best = json;
+        double bestQuality = 0;
+        for (String part : accept.split(",")) {
+            String[] tokens = part.split(";");
+            Format format = forMediaType(tokens[0].trim().toLowerCase(Locale.ROOT));
+            double quality = quality(tokens);
+            if (format != null && quality > bestQuality) {
+                best = format;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    private Format forMediaType(String mediaType) {
+        if (mediaType.equals(SMILE)) {
+            return smile;
+        }
+        if (mediaType.equals(CBOR)) {
+            return cbor;
+        }
+        if (mediaType.equals(JSON) || mediaType.equals("*/*") || mediaType.equals("application/*")) {
+            return json;
+        }
+        return null;
+    }
+
+    private static double quality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String parameter = tokens[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Копит тело в памяти до {@code limit} байт; при переполнении переносит накопленное в
+     * {@code getOutputStream()} и дальше пишет туда напрямую. {@code flush()} до переноса ничего не делает.
+     */
+    private static final class BufferedBody extends OutputStream {
+
+        private static final int INITIAL_CAPACITY = 512;
+
+        private final HttpServletResponse resp;
+        private final int limit;
+        private byte[] buffer = new byte[INITIAL_CAPACITY];
+        private int size;
+        private OutputStream out;
+
+        private BufferedBody(HttpServletResponse resp, int limit) {
+            this.resp = resp;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (out == null && size < limit) {
+                ensureCapacity(size + 1);
+                buffer[size++] = (byte) b;
+                return;
+            }
+            spill().write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (out == null && size + length <= limit) {
+                ensureCapacity(size + length);
+                System.arraycopy(bytes, offset, buffer, size, length);
+                size += length;
+                return;
+            }
+            spill().write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (out != null) {
+                out.flush();
+            }
+        }
+
+        boolean isBuffered() {
+            return out == null;
+        }
+
+        /**
+         * Выставляет {@code Content-Length} для тела из памяти, пишет его в ответ и закрывает поток ответа.
+         */
+        void finish() throws IOException {
+            if (out == null) {
+                resp.setContentLength(size);
+            }
+            spill().close();
+        }
+
+        private OutputStream spill() throws IOException {
+            if (out == null) {
+                out = resp.getOutputStream();
+                out.write(buffer, 0, size);
+                buffer = null;
+            }
+            return out;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.min(limit, Math.max(capacity, buffer.length * 2)));
+            }
+        }
+    }
+
+    private static final class Format {
+
+        private final String mediaType;
+        private final ObjectMapper mapper;
+        private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+        private final Map<Class<?>, ObjectWriter> listWriters = new ConcurrentHashMap<>();
+        private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+        private Format(String mediaType, ObjectMapper mapper) {
+            this.mediaType = mediaType;
+            this.mapper = mapper;
+        }
+
+        ObjectReader reader(Class<?> type) {
+            return readers.computeIfAbsent(type, mapper::readerFor);
+        }
+
+        ObjectWriter writer(Object value) {
+            if (value instanceof List<?> list && !list.isEmpty() && list.get(0) != null) {
+                return listWriters.computeIfAbsent(list.get(0).getClass(), elementType -> {
+                    JavaType listType = mapper.getTypeFactory().constructCollectionType(List.class, elementType);
+                    return mapper.writerFor(listType).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                });
+            }
+            return value == null
+                    ? mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    : writers.computeIfAbsent(value.getClass(),
+                            type -> mapper.writerFor(type).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET));
+        }
+    }
+}
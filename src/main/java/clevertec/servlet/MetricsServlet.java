@@ -0,0 +1,37 @@
+package clevertec.servlet;
+
+import clevertec.metrics.MetricsRegistry;
+import org.springframework.context.ApplicationContext;
+
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Отдает текущие значения {@link MetricsRegistry} в формате JSON.
+ * Параметр {@code prefix} оставляет только метрики с этим началом имени, например
+ * {@code /metrics?prefix=http.GET /pdf} для SLO по PDF.
+ */
+@WebServlet(name = "metrics-servlet", value = "/metrics")
+public class MetricsServlet extends HttpServlet {
+
+    private MetricsRegistry metricsRegistry;
+
+    private BodyCodec bodyCodec;
+
+    @Override
+    public void init() {
+        ApplicationContext context = (ApplicationContext) getServletContext().getAttribute("springContext");
+        this.metricsRegistry = context.getBean(MetricsRegistry.class);
+        this.bodyCodec = context.getBean(BodyCodec.class);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String prefix = req.getParameter("prefix");
+        bodyCodec.write(req, resp, prefix != null ? metricsRegistry.snapshot(prefix) : metricsRegistry.snapshot(),
+                HttpServletResponse.SC_OK);
+    }
+}
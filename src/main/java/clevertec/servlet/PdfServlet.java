@@ -1,6 +1,10 @@
 package clevertec.servlet;
 
+import clevertec.dto.ProductFilter;
+import clevertec.filter.ErrorBody;
 import clevertec.service.PdfService;
+import clevertec.utils.pdfserializer.CatalogLayout;
+import clevertec.utils.uuid.Uuids;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationContext;
 
@@ -10,34 +14,95 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @Slf4j
-@WebServlet(name = "pdf-servlet", value = "/pdf/*")
+@WebServlet(name = "pdf-servlet", value = "/pdf/*", asyncSupported = true)
 public class PdfServlet extends HttpServlet {
 
     private PdfService pdfService;
 
+    private AsyncRequestExecutor asyncRequestExecutor;
+
     @Override
     public void init() {
         ApplicationContext context = (ApplicationContext) getServletContext().getAttribute("springContext");
         this.pdfService = context.getBean(PdfService.class);
+        this.asyncRequestExecutor = context.getBean(AsyncRequestExecutor.class);
     }
 
+    /**
+     * Рендеринг PDF выполняется на исполнителе запросов, поток контейнера не ждет его завершения.
+     * Длина документа известна заранее, поэтому ответ отдается с {@code Content-Length}; при
+     * {@code pdf.mode: memory} документ пишется из буфера в памяти одним вызовом, при {@code file}
+     * неизмененный продукт отдается готовым файлом из кэша.
+     */
     @Override
-    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         String pathInfo = req.getPathInfo();
         if (pathInfo == null || pathInfo.equals("/")) {
             throw new ServletException("Product ID is required.");
         }
+        if (pathInfo.equals("/catalog")) {
+            handleCatalogRequest(req, resp);
+            return;
+        }
+
+        UUID productId = Uuids.parse(pathInfo, 1);
+        if (productId == null) {
+            ErrorBody.INVALID_PRODUCT_ID.write(resp, HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        asyncRequestExecutor.execute(req, () -> pdfService.productToPdf(productId), document -> {
+            try (document) {
+                resp.setContentType("application/pdf");
+                resp.setContentLengthLong(document.getContentLength());
+                resp.setHeader("Content-Disposition", "attachment; filename=\"" + document.getFileName() + "\"");
+                document.writeTo(resp.getOutputStream());
+            }
+        });
+    }
 
-        UUID productId = UUID.fromString(pathInfo.substring(1));
-        Path pdfPath = pdfService.productToPdf(productId);
+    /**
+     * Каталог по списку {@code ids} или по параметрам фильтра, как у {@code /products}; без них - весь
+     * каталог. {@code layout=page} дает страницу на продукт, {@code layout=table} - таблицу.
+     *
+     * <p>Запрос выполняется синхронно, как выгрузка продуктов: фрагменты отрисовываются параллельно на
+     * пуле {@code pdfExecutor}, а поток контейнера склеивает их и пишет документ прямо в ответ. Длина
+     * заранее не известна, поэтому ответ отдается без {@code Content-Length}.
+     */
+    private void handleCatalogRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String layoutParam = req.getParameter("layout");
+        CatalogLayout layout = layoutParam != null
+                ? CatalogLayout.valueOf(layoutParam.toUpperCase(Locale.ROOT))
+                : CatalogLayout.PAGE;
+        String idsParam = req.getParameter("ids");
+        List<UUID> ids = idsParam != null ? parseIds(idsParam) : null;
+        ProductFilter filter = ProductFilterParams.isPresent(req) ? ProductFilterParams.parse(req, 1, 1) : null;
 
         resp.setContentType("application/pdf");
-        resp.setHeader("Content-Disposition", "attachment; filename=\"" + pdfPath.getFileName() + "\"");
-        Files.copy(pdfPath, resp.getOutputStream());
+        resp.setHeader("Content-Disposition", "attachment; filename=\"catalog.pdf\"");
+        if (ids != null) {
+            pdfService.catalogToPdf(ids, layout, resp.getOutputStream());
+        } else {
+            pdfService.catalogToPdf(filter, layout, resp.getOutputStream());
+        }
+    }
+
+    private List<UUID> parseIds(String idsParam) {
+        return Arrays.stream(idsParam.split(","))
+                .map(String::strip)
+                .filter(id -> !id.isEmpty())
+                .map(id -> {
+                    UUID productId = Uuids.parse(id);
+                    if (productId == null) {
+                        throw new IllegalArgumentException("Invalid product id: " + id);
+                    }
+                    return productId;
+                })
+                .toList();
     }
 }
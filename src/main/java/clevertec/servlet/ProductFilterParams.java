@@ -0,0 +1,69 @@
+package clevertec.servlet;
+
+import clevertec.dto.ProductFilter;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Разбор параметров фильтра продуктов из строки запроса; общий для списка продуктов и PDF-каталога.
+ */
+final class ProductFilterParams {
+
+    private static final List<String> FILTER_PARAMS = List.of("minPrice", "maxPrice", "minWeight", "maxWeight",
+            "createdFrom", "createdTo", "sort", "order");
+
+    private ProductFilterParams() {
+    }
+
+    /**
+     * @return {@code true}, если в запросе есть хотя бы один параметр фильтра
+     */
+    static boolean isPresent(HttpServletRequest req) {
+        return FILTER_PARAMS.stream().anyMatch(param -> req.getParameter(param) != null);
+    }
+
+    static ProductFilter parse(HttpServletRequest req, int pageSize, int pageNumber) {
+        String sortParam = req.getParameter("sort");
+        String orderParam = req.getParameter("order");
+
+        return ProductFilter.builder()
+                .minPrice(parseDouble(req, "minPrice"))
+                .maxPrice(parseDouble(req, "maxPrice"))
+                .minWeight(parseDouble(req, "minWeight"))
+                .maxWeight(parseDouble(req, "maxWeight"))
+                .createdFrom(parseDateTime(req, "createdFrom"))
+                .createdTo(parseDateTime(req, "createdTo"))
+                .sortBy(sortParam != null
+                        ? ProductFilter.SortField.valueOf(sortParam.toUpperCase(Locale.ROOT))
+                        : ProductFilter.SortField.CREATED)
+                .descending("desc".equalsIgnoreCase(orderParam))
+                .pageSize(pageSize)
+                .pageNumber(pageNumber)
+                .build();
+    }
+
+    private static Double parseDouble(HttpServletRequest req, String name) {
+        String value = req.getParameter(name);
+        return value != null ? Double.valueOf(value) : null;
+    }
+
+    /**
+     * Принимает дату ({@code 2023-11-01}) или дату со временем ({@code 2023-11-01T12:00:00}).
+     */
+    private static LocalDateTime parseDateTime(HttpServletRequest req, String name) {
+        String value = req.getParameter(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+}
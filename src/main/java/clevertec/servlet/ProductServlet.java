@@ -1,35 +1,55 @@
 package clevertec.servlet;
 
-import clevertec.dto.InfoProductDto;
+import clevertec.dao.CopyFormat;
 import clevertec.dto.ProductDto;
+import clevertec.dto.ProductFilter;
+import clevertec.filter.ErrorBody;
+import clevertec.service.AsyncProductService;
+import clevertec.service.BulkProductService;
 import clevertec.service.ProductService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import clevertec.utils.uuid.Uuids;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationContext;
 
-import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
 
 @Slf4j
-@WebServlet(name = "product-servlet", value = "/products/*")
+@WebServlet(name = "product-servlet", value = "/products/*", asyncSupported = true)
 public class ProductServlet extends HttpServlet {
 
-    private ProductService productService;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int MAX_LOOKUP_IDS = 100;
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
 
-    private ObjectMapper objectMapper;
+    private AsyncProductService productService;
+
+    private ProductService syncProductService;
+
+    private BulkProductService bulkProductService;
+
+    private BodyCodec bodyCodec;
+
+    private AsyncRequestExecutor asyncRequestExecutor;
 
     @Override
     public void init() {
         ApplicationContext context = (ApplicationContext) getServletContext().getAttribute("springContext");
-        this.productService = context.getBean(ProductService.class);
-        this.objectMapper = context.getBean(ObjectMapper.class);
+        this.productService = context.getBean(AsyncProductService.class);
+        this.syncProductService = context.getBean(ProductService.class);
+        this.bulkProductService = context.getBean(BulkProductService.class);
+        this.bodyCodec = context.getBean(BodyCodec.class);
+        this.asyncRequestExecutor = context.getBean(AsyncRequestExecutor.class);
     }
 
     @Override
@@ -38,35 +58,144 @@ public class ProductServlet extends HttpServlet {
         if (pathInfo == null || pathInfo.equals("/")) {
             handleListProductsRequest(req, resp);
         }
+        else if (pathInfo.equals("/search")) {
+            handleSearchRequest(req, resp);
+        }
+        else if (pathInfo.equals("/stats")) {
+            writeResponse(req, resp, syncProductService.getStatistics(), HttpServletResponse.SC_OK);
+        }
+        else if (pathInfo.equals("/export")) {
+            handleExportRequest(req, resp);
+        }
         else {
-            handleSingleProductRequest(resp, pathInfo);
+            handleSingleProductRequest(req, resp, pathInfo);
         }
     }
 
-    private void handleSingleProductRequest(HttpServletResponse resp,
-                                            String pathInfo) throws IOException {
-        UUID productId = UUID.fromString(pathInfo.substring(1));
-        InfoProductDto product = productService.get(productId);
-
-        writeResponse(resp, product, HttpServletResponse.SC_OK);
+    private void handleSingleProductRequest(HttpServletRequest req, HttpServletResponse resp, String pathInfo)
+            throws IOException {
+        UUID productId = parseProductId(pathInfo, resp);
+        if (productId == null) {
+            return;
+        }
+        respondAsync(req, resp, productService.get(productId), HttpServletResponse.SC_OK);
     }
 
-    private void handleListProductsRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+    private void handleListProductsRequest(HttpServletRequest req, HttpServletResponse resp) {
+        String idsParam = req.getParameter("ids");
+        if (idsParam != null) {
+            handleLookupRequest(req, resp, Arrays.stream(idsParam.split(","))
+                    .map(String::strip)
+                    .filter(id -> !id.isEmpty())
+                    .map(this::parseLookupId)
+                    .toList());
+            return;
+        }
+
         String pageSizeParam = req.getParameter("pageSize");
         String pageNumberParam = req.getParameter("pageNumber");
 
         int pageSize = pageSizeParam != null ? Integer.parseInt(pageSizeParam) : 20;
         int pageNumber = pageNumberParam != null ? Integer.parseInt(pageNumberParam) : 1;
 
-        List<InfoProductDto> products = productService.getAllProducts(pageSize, pageNumber);
-        writeResponse(resp, products, HttpServletResponse.SC_OK);
+        if (ProductFilterParams.isPresent(req)) {
+            ProductFilter filter = ProductFilterParams.parse(req, pageSize, pageNumber);
+            respondAsync(req, resp, productService.getProducts(filter), HttpServletResponse.SC_OK);
+        }
+        else {
+            respondAsync(req, resp, productService.getAllProducts(pageSize, pageNumber), HttpServletResponse.SC_OK);
+        }
+    }
+
+    /**
+     * Пакетное чтение: ответ содержит по элементу на каждый запрошенный id в исходном порядке.
+     */
+    private void handleLookupRequest(HttpServletRequest req, HttpServletResponse resp, List<UUID> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_LOOKUP_IDS) {
+            throw new IllegalArgumentException("ids must contain from 1 to " + MAX_LOOKUP_IDS + " identifiers");
+        }
+        respondAsync(req, resp, productService.getByIds(ids), HttpServletResponse.SC_OK);
+    }
+
+    private UUID parseLookupId(String id) {
+        UUID productId = Uuids.parse(id);
+        if (productId == null) {
+            throw new IllegalArgumentException("Invalid product id: " + id);
+        }
+        return productId;
+    }
+
+    /**
+     * Разбирает id из пути без исключений: на некорректный id сразу пишется готовый ответ {@code 400}.
+     *
+     * @return id продукта или {@code null}, если ответ уже записан
+     */
+    private UUID parseProductId(String pathInfo, HttpServletResponse resp) throws IOException {
+        UUID productId = Uuids.parse(pathInfo, 1);
+        if (productId == null) {
+            ErrorBody.INVALID_PRODUCT_ID.write(resp, HttpServletResponse.SC_BAD_REQUEST);
+        }
+        return productId;
+    }
+
+    private void handleSearchRequest(HttpServletRequest req, HttpServletResponse resp) {
+        String query = req.getParameter("q");
+        String limitParam = req.getParameter("limit");
+
+        int limit = limitParam != null ? Math.min(Integer.parseInt(limitParam), MAX_SEARCH_LIMIT) : 20;
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+
+        respondAsync(req, resp, productService.search(query, limit), HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * Выгрузка выполняется синхронно: байты {@code COPY TO STDOUT} копируются прямо в ответ.
+     */
+    private void handleExportRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String formatParam = req.getParameter("format");
+        CopyFormat format = formatParam != null ? CopyFormat.valueOf(formatParam.toUpperCase(Locale.ROOT)) : CopyFormat.CSV;
+        boolean gzip = Boolean.parseBoolean(req.getParameter("gzip"));
+
+        String fileName = "products" + (format == CopyFormat.CSV ? ".csv" : ".bin") + (gzip ? ".gz" : "");
+        resp.setStatus(HttpServletResponse.SC_OK);
+        resp.setContentType(gzip ? "application/gzip" : format == CopyFormat.CSV ? "text/csv" : "application/octet-stream");
+        resp.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+
+        try (OutputStream out = gzip
+                ? new GZIPOutputStream(resp.getOutputStream(), EXPORT_BUFFER_SIZE)
+                : resp.getOutputStream()) {
+            bulkProductService.exportProducts(out, format);
+        }
     }
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
-        ProductDto productDto = objectMapper.readValue(req.getReader(), ProductDto.class);
-        UUID productId = productService.create(productDto);
-        writeResponse(resp, productId, HttpServletResponse.SC_CREATED);
+        if ("/import".equals(req.getPathInfo())) {
+            handleImportRequest(req, resp);
+            return;
+        }
+        if ("/lookup".equals(req.getPathInfo())) {
+            UUID[] ids = bodyCodec.read(req, UUID[].class);
+            handleLookupRequest(req, resp, ids != null ? Arrays.asList(ids) : List.of());
+            return;
+        }
+        ProductDto productDto = bodyCodec.read(req, ProductDto.class);
+        respondAsync(req, resp, productService.create(productDto), HttpServletResponse.SC_CREATED);
+    }
+
+    /**
+     * Импорт выполняется синхронно: тело запроса читается потоково, и поток контейнера
+     * все равно был бы занят чтением входа.
+     */
+    private void handleImportRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String contentType = req.getContentType();
+        BulkProductService.ImportFormat format = contentType != null && contentType.contains("json")
+                ? BulkProductService.ImportFormat.JSON_LINES
+                : BulkProductService.ImportFormat.CSV;
+
+        writeResponse(req, resp, bulkProductService.importProducts(req.getReader(), format), HttpServletResponse.SC_OK);
     }
 
     @Override
@@ -78,11 +207,14 @@ public class ProductServlet extends HttpServlet {
             return;
         }
 
-        UUID productId = UUID.fromString(pathInfo.substring(1));
-        ProductDto productDto = objectMapper.readValue(req.getReader(), ProductDto.class);
-        UUID update = productService.update(productId, productDto);
+        UUID productId = parseProductId(pathInfo, resp);
+        if (productId == null) {
+            return;
+        }
+        ProductDto productDto = bodyCodec.read(req, ProductDto.class);
 
-        writeResponse(resp, update.toString(), HttpServletResponse.SC_OK);
+        respondAsync(req, resp, productService.update(productId, productDto).thenApply(UUID::toString),
+                HttpServletResponse.SC_OK);
     }
 
     @Override
@@ -94,16 +226,23 @@ public class ProductServlet extends HttpServlet {
             return;
         }
 
-        UUID productId = UUID.fromString(pathInfo.substring(1));
-        productService.delete(productId);
+        UUID productId = parseProductId(pathInfo, resp);
+        if (productId == null) {
+            return;
+        }
+        respondAsync(req, resp, productService.delete(productId), HttpServletResponse.SC_NO_CONTENT);
+    }
 
-        resp.setStatus(HttpServletResponse.SC_NO_CONTENT);
+    /**
+     * Освобождает поток контейнера до завершения {@code result}, см. {@link AsyncRequestExecutor}.
+     */
+    private void respondAsync(HttpServletRequest req, HttpServletResponse resp,
+                              CompletableFuture<?> result, int statusCode) {
+        asyncRequestExecutor.respond(req, result, value -> writeResponse(req, resp, value, statusCode));
     }
 
-    private void writeResponse(HttpServletResponse resp, Object object, int statusCode) throws IOException {
-        try (PrintWriter writer = resp.getWriter()) {
-            writer.write(objectMapper.writeValueAsString(object));
-            resp.setStatus(statusCode);
-        }
+    private void writeResponse(HttpServletRequest req, HttpServletResponse resp, Object object, int statusCode)
+            throws IOException {
+        bodyCodec.write(req, resp, object, statusCode);
     }
 }
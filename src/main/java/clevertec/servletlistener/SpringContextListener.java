@@ -1,22 +1,30 @@
 package clevertec.servletlistener;
 
 import clevertec.config.AppConfig;
+import clevertec.config.LoggingApplicationStartup;
+import clevertec.filter.AdmissionControlFilter;
+import clevertec.filter.CompressionFilter;
 import clevertec.filter.EncodingFilter;
 import clevertec.filter.ErrorHandlingFilter;
+import clevertec.filter.RequestMetricsFilter;
+import clevertec.metrics.MetricsRegistry;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
+import javax.servlet.DispatcherType;
 import javax.servlet.FilterRegistration;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
 import javax.servlet.annotation.WebListener;
+import java.util.EnumSet;
 
 /**
  * Слушатель контекста сервлета, который инициализирует контекст Spring и регистрирует фильтры при старте приложения.
  *
  * <p>Этот слушатель отвечает за создание и конфигурацию {@link ApplicationContext} с использованием класса {@link AppConfig}.
- * Помимо этого, он регистрирует фильтры {@link EncodingFilter} и {@link ErrorHandlingFilter} в контексте сервлета.
+ * Помимо этого, он регистрирует фильтры {@link RequestMetricsFilter}, {@link EncodingFilter},
+ * {@link AdmissionControlFilter}, {@link CompressionFilter} и {@link ErrorHandlingFilter} в контексте сервлета.
  */
 @WebListener
 public class SpringContextListener implements ServletContextListener {
@@ -24,8 +32,12 @@ public class SpringContextListener implements ServletContextListener {
     /**
      * Вызывается контейнером сервлетов при инициализации контекста приложения.
      *
-     * <p>В этом методе создается контекст Spring с использованием {@link AnnotationConfigApplicationContext} и
-     * регистрируются фильтры {@link EncodingFilter} и {@link ErrorHandlingFilter}.
+     * <p>В этом методе создается контекст Spring с использованием {@link AnnotationConfigApplicationContext}
+     * (время создания бинов пишется в лог через {@link LoggingApplicationStartup}) и
+     * регистрируются фильтры {@link RequestMetricsFilter}, {@link EncodingFilter},
+     * {@link AdmissionControlFilter} (если {@code admission.enabled}),
+     * {@link CompressionFilter} (если {@code compression.enabled}) и {@link ErrorHandlingFilter}. Фильтры поддерживают асинхронную обработку, а {@link ErrorHandlingFilter} дополнительно получает асинхронные dispatch-вызовы,
+     * через которые сервлеты передают ошибки, возникшие вне потока контейнера.
      * Контекст Spring сохраняется в атрибутах {@link ServletContext} для дальнейшего использования в приложении.
      *
      * @param sce событие инициализации контекста сервлета, предоставляющее доступ к {@link ServletContext}.
@@ -33,14 +45,38 @@ public class SpringContextListener implements ServletContextListener {
     @Override
     public void contextInitialized(ServletContextEvent sce) {
         ServletContext ctx = sce.getServletContext();
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.setApplicationStartup(new LoggingApplicationStartup());
+        context.register(AppConfig.class);
+        context.refresh();
+
+        FilterRegistration.Dynamic metricsFilter =
+                ctx.addFilter("RequestMetricsFilter", new RequestMetricsFilter(context.getBean(MetricsRegistry.class)));
+        metricsFilter.setAsyncSupported(true);
+        metricsFilter.addMappingForUrlPatterns(null, false, "/*");
 
         FilterRegistration.Dynamic encodingFilter = ctx.addFilter("EncodingFilter", new EncodingFilter());
+        encodingFilter.setAsyncSupported(true);
         encodingFilter.addMappingForUrlPatterns(null, false, "/*");
 
+        if (Boolean.parseBoolean(property(context, "admission.enabled"))) {
+            FilterRegistration.Dynamic admissionFilter =
+                    ctx.addFilter("AdmissionControlFilter", context.getBean(AdmissionControlFilter.class));
+            admissionFilter.setAsyncSupported(true);
+            admissionFilter.addMappingForUrlPatterns(null, false, "/*");
+        }
+
+        if (Boolean.parseBoolean(property(context, "compression.enabled"))) {
+            int threshold = Integer.parseInt(property(context, "compression.threshold-bytes"));
+            FilterRegistration.Dynamic compressionFilter = ctx.addFilter("CompressionFilter", new CompressionFilter(threshold));
+            compressionFilter.setAsyncSupported(true);
+            compressionFilter.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST, DispatcherType.ASYNC), false, "/*");
+        }
+
         FilterRegistration.Dynamic errorHandlingFilter = ctx.addFilter("ErrorHandlingFilter", new ErrorHandlingFilter());
-        errorHandlingFilter.addMappingForUrlPatterns(null, false, "/*");
+        errorHandlingFilter.setAsyncSupported(true);
+        errorHandlingFilter.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST, DispatcherType.ASYNC), false, "/*");
 
-        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(AppConfig.class);
         sce.getServletContext().setAttribute("springContext", context);
     }
 
@@ -56,4 +92,8 @@ public class SpringContextListener implements ServletContextListener {
         ApplicationContext context = (ApplicationContext) sce.getServletContext().getAttribute("springContext");
         ((AnnotationConfigApplicationContext) context).close();
     }
+
+    private static String property(AnnotationConfigApplicationContext context, String key) {
+        return context.getBeanFactory().resolveEmbeddedValue("${" + key + "}");
+    }
 }
@@ -0,0 +1,216 @@
+package clevertec.stats;
+
+import clevertec.dao.ProductDao;
+import clevertec.dto.CatalogStatisticsDto;
+import clevertec.entity.Product;
+import clevertec.utils.concurrent.TaskExecutors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Агрегированная статистика каталога, поддерживаемая в памяти.
+ *
+ * <p>Статистика один раз загружается из базы при старте, а затем обновляется инкрементально
+ * {@link clevertec.proxy.StatisticsAspect} после каждого {@code save}/{@code update}/{@code delete} DAO.
+ * Аспект передает и прежнюю версию продукта, поэтому агрегат хранит только суммы, счетчики
+ * и отсортированное мультимножество цен для минимума и максимума, без данных по каждому продукту.
+ *
+ * <p>Готовый {@link CatalogStatisticsDto} пересобирается при каждом изменении, поэтому чтение
+ * не требует блокировок. Периодическая сверка с базой устраняет расхождения, например от изменений,
+ * сделанных в обход приложения. Изменения, пришедшие во время чтения базы, записываются в журнал
+ * и применяются к результату сверки перед заменой, поэтому сверка завершается при любом потоке записей.
+ * Изменение, зафиксированное между началом журнала и началом чтения, может быть учтено дважды;
+ * такое расхождение исправляет следующая сверка.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@DependsOn("liquibase")
+public class CatalogStatistics implements InitializingBean, DisposableBean {
+
+    private final ProductDao dao;
+    private final long reconcileIntervalSeconds;
+
+    private Aggregate aggregate = new Aggregate();
+    private List<Delta> journal;
+    private volatile CatalogStatisticsDto current = aggregate.toDto();
+    private ScheduledExecutorService scheduler;
+
+    public CatalogStatistics(ProductDao dao,
+                             @Value("${stats.reconcile-interval-seconds}") long reconcileIntervalSeconds) {
+        this.dao = dao;
+        this.reconcileIntervalSeconds = reconcileIntervalSeconds;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        reconcile();
+        scheduler = Executors.newSingleThreadScheduledExecutor(TaskExecutors.namedThreadFactory("stats-reconcile"));
+        scheduler.scheduleWithFixedDelay(this::reconcileQuietly,
+                reconcileIntervalSeconds, reconcileIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Возвращает текущую статистику за O(1).
+     *
+     * @return статистика каталога
+     */
+    public CatalogStatisticsDto getStatistics() {
+        return current;
+    }
+
+    /**
+     * Учитывает созданный продукт.
+     *
+     * @param product сохраненный продукт
+     */
+    public synchronized void onSaved(Product product) {
+        apply(Delta.added(product));
+    }
+
+    /**
+     * Учитывает обновленный продукт.
+     *
+     * @param previous версия продукта до обновления
+     * @param product  обновленный продукт
+     */
+    public synchronized void onUpdated(Product previous, Product product) {
+        apply(Delta.removed(previous), Delta.added(product));
+    }
+
+    /**
+     * Учитывает удаленный продукт.
+     *
+     * @param previous удаленный продукт
+     */
+    public synchronized void onDeleted(Product previous) {
+        apply(Delta.removed(previous));
+    }
+
+    /**
+     * Полностью пересчитывает статистику по данным базы и атомарно заменяет текущую.
+     * Изменения, пришедшие во время чтения базы, применяются к пересчитанному агрегату.
+     */
+    public void reconcile() {
+        synchronized (this) {
+            journal = new ArrayList<>();
+        }
+        Aggregate fresh = new Aggregate();
+        try {
+            dao.streamAll(product -> fresh.add(product.getPrice(), product.getWeight()));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                journal = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            journal.forEach(delta -> delta.applyTo(fresh));
+            log.info("Catalog statistics reconciled: {} products, {} changes replayed", fresh.count, journal.size());
+            journal = null;
+            aggregate = fresh;
+            current = fresh.toDto();
+        }
+    }
+
+    private void apply(Delta... deltas) {
+        for (Delta delta : deltas) {
+            delta.applyTo(aggregate);
+            if (journal != null) {
+                journal.add(delta);
+            }
+        }
+        current = aggregate.toDto();
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Catalog statistics reconciliation failed", e);
+        }
+    }
+
+    /**
+     * Добавление или вычитание одного продукта. Значения копируются: сервис изменяет сущности на месте.
+     */
+    private record Delta(boolean add, Double price, Double weight) {
+
+        static Delta added(Product product) {
+            return new Delta(true, product.getPrice(), product.getWeight());
+        }
+
+        static Delta removed(Product product) {
+            return new Delta(false, product.getPrice(), product.getWeight());
+        }
+
+        void applyTo(Aggregate aggregate) {
+            if (add) {
+                aggregate.add(price, weight);
+            } else {
+                aggregate.remove(price, weight);
+            }
+        }
+    }
+
+    /**
+     * Изменяемое состояние агрегата. Не потокобезопасно, доступ синхронизирует {@link CatalogStatistics}.
+     */
+    static class Aggregate {
+
+        private final TreeMap<Double, Integer> prices = new TreeMap<>();
+        private int count;
+        private int pricedCount;
+        private double priceSum;
+        private double weightSum;
+
+        void add(Double price, Double weight) {
+            count++;
+            if (price != null) {
+                prices.merge(price, 1, Integer::sum);
+                pricedCount++;
+                priceSum += price;
+            }
+            weightSum += weight != null ? weight : 0.0;
+        }
+
+        void remove(Double price, Double weight) {
+            count--;
+            if (price != null) {
+                prices.computeIfPresent(price, (key, value) -> value > 1 ? value - 1 : null);
+                pricedCount--;
+                priceSum -= price;
+            }
+            weightSum -= weight != null ? weight : 0.0;
+        }
+
+        CatalogStatisticsDto toDto() {
+            return CatalogStatisticsDto.builder()
+                    .count(count)
+                    .minPrice(prices.isEmpty() ? null : prices.firstKey())
+                    .maxPrice(prices.isEmpty() ? null : prices.lastKey())
+                    .avgPrice(pricedCount == 0 ? null : priceSum / pricedCount)
+                    .totalWeight(weightSum)
+                    .build();
+        }
+    }
+}
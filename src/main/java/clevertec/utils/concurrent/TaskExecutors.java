@@ -0,0 +1,98 @@
+package clevertec.utils.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фабрика исполнителей для блокирующих задач (JDBC, рендеринг ответов).
+ *
+ * <p>Если среда выполнения поддерживает виртуальные потоки (Java 21+), создается исполнитель
+ * "поток на задачу". Проект компилируется под Java 17, поэтому фабричный метод вызывается через
+ * рефлексию, а на старых JVM используется пул платформенных потоков фиксированного размера.
+ */
+@Slf4j
+public final class TaskExecutors {
+
+    private TaskExecutors() {
+    }
+
+    /**
+     * Создает исполнитель на виртуальных потоках либо, если они недоступны, фиксированный пул.
+     *
+     * @param name            префикс имен потоков резервного пула
+     * @param fallbackThreads размер резервного пула платформенных потоков
+     * @return новый исполнитель
+     */
+    public static ExecutorService newTaskExecutor(String name, int fallbackThreads) {
+        return newVirtualThreadExecutor(name).orElseGet(() -> {
+            log.info("Virtual threads are not available, executor '{}' uses {} platform threads", name, fallbackThreads);
+            return newFixedThreadPool(name, fallbackThreads);
+        });
+    }
+
+    /**
+     * Создает исполнитель "виртуальный поток на задачу", если среда выполнения его поддерживает.
+     *
+     * @param name имя исполнителя для лога
+     * @return исполнитель или пустой {@link Optional} на Java 17-20
+     */
+    public static Optional<ExecutorService> newVirtualThreadExecutor(String name) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService executor = (ExecutorService) factory.invoke(null);
+            log.info("Executor '{}' uses virtual threads", name);
+            return Optional.of(executor);
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Создает фиксированный пул платформенных потоков-демонов с именованными потоками.
+     *
+     * @param name    префикс имен потоков
+     * @param threads количество потоков
+     * @return новый исполнитель
+     */
+    public static ExecutorService newFixedThreadPool(String name, int threads) {
+        return Executors.newFixedThreadPool(threads, namedThreadFactory(name));
+    }
+
+    /**
+     * Создает пул платформенных потоков с очередью ограниченной длины. Когда очередь заполнена,
+     * новые задачи отклоняются с {@link java.util.concurrent.RejectedExecutionException}.
+     *
+     * @param name          префикс имен потоков
+     * @param threads       количество потоков
+     * @param queueCapacity длина очереди ожидающих задач
+     * @return новый исполнитель
+     */
+    public static ExecutorService newBoundedThreadPool(String name, int threads, int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreadFactory(name));
+    }
+
+    /**
+     * Возвращает фабрику потоков-демонов с именами вида {@code name-N}.
+     *
+     * @param name префикс имен потоков
+     * @return фабрика потоков
+     */
+    public static ThreadFactory namedThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
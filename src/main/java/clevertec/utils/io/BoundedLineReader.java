@@ -0,0 +1,92 @@
+package clevertec.utils.io;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Построчное чтение с ограничением длины строки.
+ *
+ * <p>{@link java.io.BufferedReader#readLine()} накапливает строку целиком, поэтому вход без переводов строк
+ * занимает память без ограничения. Здесь в строку попадают не более {@code maxLength} символов, остаток до
+ * конца строки пропускается, а {@link #isTruncated()} сообщает, что последняя строка была обрезана.
+ * Концом строки считаются {@code \n}, {@code \r} и {@code \r\n}. Класс не потокобезопасен.
+ */
+public final class BoundedLineReader {
+
+    private final Reader in;
+    private final int maxLength;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder line;
+
+    private int position;
+    private int limit;
+    private boolean skipLineFeed;
+    private boolean truncated;
+
+    /**
+     * @param in        источник символов; не закрывается
+     * @param maxLength наибольшая длина возвращаемой строки
+     */
+    public BoundedLineReader(Reader in, int maxLength) {
+        if (maxLength <= 0) {
+            throw new IllegalArgumentException("maxLength must be positive: " + maxLength);
+        }
+        this.in = in;
+        this.maxLength = maxLength;
+        this.line = new StringBuilder(Math.min(maxLength, 256));
+    }
+
+    /**
+     * Читает следующую строку без символов конца строки.
+     *
+     * @return строка, обрезанная до {@code maxLength} символов, или {@code null} в конце входа
+     * @throws IOException если чтение не удалось
+     */
+    public String readLine() throws IOException {
+        line.setLength(0);
+        truncated = false;
+        boolean started = false;
+        while (true) {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit < 0) {
+                    limit = 0;
+                    return started ? line.toString() : null;
+                }
+                continue;
+            }
+            char c = buffer[position++];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+            started = true;
+            if (c == '\n') {
+                return line.toString();
+            }
+            if (c == '\r') {
+                skipLineFeed = true;
+                return line.toString();
+            }
+            if (line.length() < maxLength) {
+                line.append(c);
+            } else {
+                truncated = true;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true}, если последняя прочитанная строка длиннее {@code maxLength} и была обрезана
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+}
@@ -0,0 +1,36 @@
+package clevertec.utils.json;
+
+import java.io.IOException;
+
+/**
+ * JSON-кодек одного типа, сгенерированный процессором аннотаций {@code clevertec.codegen.JsonCodecProcessor}.
+ *
+ * <p>Реализации не хранят состояния и безопасны для использования из нескольких потоков.
+ *
+ * @param <T> тип объекта
+ */
+public interface JsonCodec<T> {
+
+    /**
+     * @return класс объектов, которые пишет и читает кодек
+     */
+    Class<T> type();
+
+    /**
+     * Пишет объект или {@code null}.
+     *
+     * @param value объект
+     * @param out   приемник JSON
+     * @throws IOException если запись в поток не удалась
+     */
+    void write(T value, JsonWriter out) throws IOException;
+
+    /**
+     * Читает объект или {@code null}.
+     *
+     * @param in источник JSON
+     * @return прочитанный объект
+     * @throws IOException если JSON некорректен или не соответствует типу
+     */
+    T read(JsonReader in) throws IOException;
+}
@@ -0,0 +1,13 @@
+package clevertec.utils.json;
+
+import java.io.IOException;
+
+/**
+ * Ошибка разбора JSON сгенерированным кодеком.
+ */
+public class JsonCodecException extends IOException {
+
+    public JsonCodecException(String message) {
+        super(message);
+    }
+}
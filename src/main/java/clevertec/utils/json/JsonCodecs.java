@@ -0,0 +1,115 @@
+package clevertec.utils.json;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Реестр сгенерированных JSON-кодеков.
+ *
+ * <p>Кодеки загружаются один раз через {@link ServiceLoader} из {@code META-INF/services}, который пишет
+ * процессор аннотаций. Кроме отдельных объектов, реестр пишет списки, все элементы которых одного класса
+ * с кодеком, - так отдаются страницы продуктов.
+ */
+@Component
+public class JsonCodecs {
+
+    private final Map<Class<?>, JsonCodec<?>> codecs;
+
+    public JsonCodecs() {
+        this(ServiceLoader.load(JsonCodec.class, JsonCodecs.class.getClassLoader()).stream()
+                .<JsonCodec<?>>map(ServiceLoader.Provider::get)
+                .toList());
+    }
+
+    public JsonCodecs(List<JsonCodec<?>> codecs) {
+        this.codecs = codecs.stream()
+                .collect(Collectors.toUnmodifiableMap(JsonCodec::type, Function.identity()));
+    }
+
+    /**
+     * @param type класс объекта
+     * @param <T>  тип объекта
+     * @return кодек для класса или {@code null}, если он не сгенерирован
+     */
+    @SuppressWarnings("unchecked")
+    public <T> JsonCodec<T> find(Class<T> type) {
+        return (JsonCodec<T>) codecs.get(type);
+    }
+
+    /**
+     * @param value объект ответа
+     * @return {@code true}, если объект или все элементы списка можно записать сгенерированным кодеком
+     */
+    public boolean canWrite(Object value) {
+        if (value instanceof List<?> list) {
+            if (list.isEmpty()) {
+                return true;
+            }
+            Object first = list.get(0);
+            if (first == null || !codecs.containsKey(first.getClass())) {
+                return false;
+            }
+            for (Object element : list) {
+                if (element == null || element.getClass() != first.getClass()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return value != null && codecs.containsKey(value.getClass());
+    }
+
+    /**
+     * Пишет объект или список в поток; поток не закрывается. Перед вызовом нужно проверить
+     * {@link #canWrite(Object)}.
+     *
+     * @param value объект или список
+     * @param out   поток
+     * @throws IOException если запись в поток не удалась
+     */
+    public void write(Object value, OutputStream out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        if (value instanceof List<?> list) {
+            writer.writeByte('[');
+            if (!list.isEmpty()) {
+                JsonCodec<Object> codec = codecFor(list.get(0));
+                for (int i = 0; i < list.size(); i++) {
+                    if (i > 0) {
+                        writer.writeByte(',');
+                    }
+                    codec.write(list.get(i), writer);
+                }
+            }
+            writer.writeByte(']');
+        } else {
+            codecFor(value).write(value, writer);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Читает объект из потока кодеком, найденным через {@link #find(Class)}.
+     *
+     * @param codec кодек
+     * @param in    поток
+     * @param <T>   тип объекта
+     * @return прочитанный объект
+     * @throws IOException если JSON некорректен
+     */
+    public <T> T read(JsonCodec<T> codec, InputStream in) throws IOException {
+        return codec.read(new JsonReader(in));
+    }
+
+    @SuppressWarnings("unchecked")
+    private JsonCodec<Object> codecFor(Object value) {
+        return (JsonCodec<Object>) codecs.get(value.getClass());
+    }
+}
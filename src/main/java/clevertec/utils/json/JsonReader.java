@@ -0,0 +1,314 @@
+package clevertec.utils.json;
+
+import clevertec.utils.uuid.Uuids;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Разбор JSON в UTF-8 для сгенерированных кодеков.
+ *
+ * <p>Тело запроса читается в массив целиком: тела, которые разбирают кодеки, - небольшие DTO. Строки без
+ * escape-последовательностей декодируются прямо из массива, без промежуточного буфера. Как и
+ * {@code ObjectMapper} по умолчанию, reader принимает числа в кавычках, а неизвестные свойства считает
+ * ошибкой ({@link #unknownField}).
+ */
+public final class JsonReader {
+
+    private static final int MAX_DEPTH = 64;
+
+    private final byte[] bytes;
+    private final boolean[] firstField = new boolean[MAX_DEPTH];
+    private int position;
+    private int depth;
+
+    public JsonReader(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    public JsonReader(InputStream in) throws IOException {
+        this(in.readAllBytes());
+    }
+
+    /**
+     * Пропускает литерал {@code null}, если он следующий.
+     *
+     * @return {@code true}, если значение - {@code null}
+     * @throws IOException если JSON закончился
+     */
+    public boolean readNull() throws IOException {
+        skipWhitespace();
+        if (peek() == 'n') {
+            expectLiteral("null");
+            return true;
+        }
+        return false;
+    }
+
+    public void beginObject() throws IOException {
+        skipWhitespace();
+        expect('{');
+        if (depth == MAX_DEPTH) {
+            throw error("Maximum nesting depth " + MAX_DEPTH + " exceeded");
+        }
+        firstField[depth++] = true;
+    }
+
+    /**
+     * Читает имя следующего свойства текущего объекта вместе с двоеточием.
+     *
+     * @return имя свойства или {@code null}, если объект закончился
+     * @throws IOException если JSON некорректен
+     */
+    public String nextField() throws IOException {
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            depth--;
+            return null;
+        }
+        if (firstField[depth - 1]) {
+            firstField[depth - 1] = false;
+        } else {
+            expect(',');
+            skipWhitespace();
+        }
+        String name = readRequiredString();
+        skipWhitespace();
+        expect(':');
+        return name;
+    }
+
+    public String readString() throws IOException {
+        return readNull() ? null : readRequiredString();
+    }
+
+    public UUID readUuid() throws IOException {
+        if (readNull()) {
+            return null;
+        }
+        int start = position;
+        String text = readRequiredString();
+        UUID uuid = Uuids.parse(text);
+        if (uuid == null) {
+            position = start;
+            throw error("Invalid UUID '" + text + "'");
+        }
+        return uuid;
+    }
+
+    public Integer readInt() throws IOException {
+        String number = readNumber();
+        return number == null ? null : parse(number, Integer::valueOf);
+    }
+
+    public int readInt(int defaultValue) throws IOException {
+        Integer value = readInt();
+        return value != null ? value : defaultValue;
+    }
+
+    public Long readLong() throws IOException {
+        String number = readNumber();
+        return number == null ? null : parse(number, Long::valueOf);
+    }
+
+    public long readLong(long defaultValue) throws IOException {
+        Long value = readLong();
+        return value != null ? value : defaultValue;
+    }
+
+    public Double readDouble() throws IOException {
+        String number = readNumber();
+        return number == null ? null : parse(number, Double::valueOf);
+    }
+
+    public double readDouble(double defaultValue) throws IOException {
+        Double value = readDouble();
+        return value != null ? value : defaultValue;
+    }
+
+    public Boolean readBoolean() throws IOException {
+        if (readNull()) {
+            return null;
+        }
+        if (peek() == 't') {
+            expectLiteral("true");
+            return Boolean.TRUE;
+        }
+        expectLiteral("false");
+        return Boolean.FALSE;
+    }
+
+    public boolean readBoolean(boolean defaultValue) throws IOException {
+        Boolean value = readBoolean();
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * @return ошибка о свойстве, которого нет в типе
+     */
+    public JsonCodecException unknownField(String field, Class<?> type) {
+        return new JsonCodecException("Unrecognized field \"" + field + "\" for " + type.getSimpleName()
+                + " at offset " + position);
+    }
+
+    /**
+     * @return текст числа, в том числе числа в кавычках, или {@code null} для литерала {@code null}
+     */
+    private String readNumber() throws IOException {
+        if (readNull()) {
+            return null;
+        }
+        if (peek() == '"') {
+            return readRequiredString().trim();
+        }
+        int start = position;
+        while (position < bytes.length && isNumberChar(bytes[position])) {
+            position++;
+        }
+        if (position == start) {
+            throw error("Expected a number");
+        }
+        return new String(bytes, start, position - start, StandardCharsets.ISO_8859_1);
+    }
+
+    private <N> N parse(String number, Function<String, N> parser) throws JsonCodecException {
+        try {
+            return parser.apply(number);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + number + "'");
+        }
+    }
+
+    private String readRequiredString() throws IOException {
+        expect('"');
+        int start = position;
+        while (position < bytes.length) {
+            byte b = bytes[position];
+            if (b == '"') {
+                String value = new String(bytes, start, position - start, StandardCharsets.UTF_8);
+                position++;
+                return value;
+            }
+            if (b == '\\') {
+                return readEscapedString(start);
+            }
+            if (b >= 0 && b < 0x20) {
+                throw error("Unescaped control character in string");
+            }
+            position++;
+        }
+        throw error("Unterminated string");
+    }
+
+    private String readEscapedString(int start) throws IOException {
+        StringBuilder value = new StringBuilder(position - start + 16);
+        int run = start;
+        while (position < bytes.length) {
+            byte b = bytes[position];
+            if (b == '"') {
+                value.append(new String(bytes, run, position - run, StandardCharsets.UTF_8));
+                position++;
+                return value.toString();
+            }
+            if (b == '\\') {
+                value.append(new String(bytes, run, position - run, StandardCharsets.UTF_8));
+                position++;
+                value.append(readEscape());
+                run = position;
+            } else if (b >= 0 && b < 0x20) {
+                throw error("Unescaped control character in string");
+            } else {
+                position++;
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private char readEscape() throws IOException {
+        if (position >= bytes.length) {
+            throw error("Unterminated string");
+        }
+        byte escape = bytes[position++];
+        switch (escape) {
+            case '"':
+                return '"';
+            case '\\':
+                return '\\';
+            case '/':
+                return '/';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                if (position + 4 > bytes.length) {
+                    throw error("Unterminated string");
+                }
+                int c = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(bytes[position++], 16);
+                    if (digit < 0) {
+                        throw error("Invalid \\u escape");
+                    }
+                    c = (c << 4) | digit;
+                }
+                return (char) c;
+            default:
+                throw error("Invalid escape '\\" + (char) escape + "'");
+        }
+    }
+
+    private void expectLiteral(String literal) throws JsonCodecException {
+        if (position + literal.length() > bytes.length) {
+            throw error("Expected '" + literal + "'");
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (bytes[position + i] != literal.charAt(i)) {
+                throw error("Expected '" + literal + "'");
+            }
+        }
+        position += literal.length();
+    }
+
+    private void expect(char c) throws JsonCodecException {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        position++;
+    }
+
+    private int peek() throws JsonCodecException {
+        if (position >= bytes.length) {
+            throw error("Unexpected end of input");
+        }
+        return bytes[position];
+    }
+
+    private void skipWhitespace() {
+        while (position < bytes.length) {
+            byte b = bytes[position];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private static boolean isNumberChar(byte b) {
+        return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E';
+    }
+
+    private JsonCodecException error(String message) {
+        return new JsonCodecException(message + " at offset " + position);
+    }
+}
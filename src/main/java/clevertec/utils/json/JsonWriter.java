@@ -0,0 +1,211 @@
+package clevertec.utils.json;
+
+import clevertec.utils.uuid.Uuids;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+
+/**
+ * Буферизованная запись JSON в UTF-8 для сгенерированных кодеков.
+ *
+ * <p>Вывод совпадает с тем, что пишет {@code ObjectMapper} с настройками по умолчанию: те же правила
+ * экранирования строк, {@link Double#toString(double)} для чисел и строки {@code "NaN"} и
+ * {@code "Infinity"} для нечисловых значений. Байты попадают в поток при заполнении буфера и в
+ * {@link #flush()}; сам поток writer не закрывает.
+ */
+public final class JsonWriter {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    public JsonWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    public void writeRaw(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    public void writeByte(char c) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = (byte) c;
+    }
+
+    public void writeNull() throws IOException {
+        writeRaw(NULL);
+    }
+
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        writeByte('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                writeAsciiChar(c);
+            } else if (c < 0x800) {
+                ensureCapacity(2);
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                ensureCapacity(4);
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                ensureCapacity(3);
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        writeByte('"');
+    }
+
+    public void writeUuid(UUID value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        ensureCapacity(Uuids.LENGTH + 2);
+        buffer[position++] = '"';
+        Uuids.writeAscii(value, buffer, position);
+        position += Uuids.LENGTH;
+        buffer[position++] = '"';
+    }
+
+    public void writeInt(int value) throws IOException {
+        writeAscii(Integer.toString(value));
+    }
+
+    public void writeInt(Integer value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeInt(value.intValue());
+        }
+    }
+
+    public void writeLong(long value) throws IOException {
+        writeAscii(Long.toString(value));
+    }
+
+    public void writeLong(Long value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeLong(value.longValue());
+        }
+    }
+
+    public void writeDouble(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            writeString(Double.toString(value));
+        } else {
+            writeAscii(Double.toString(value));
+        }
+    }
+
+    public void writeDouble(Double value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeDouble(value.doubleValue());
+        }
+    }
+
+    public void writeBoolean(boolean value) throws IOException {
+        writeRaw(value ? TRUE : FALSE);
+    }
+
+    public void writeBoolean(Boolean value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeBoolean(value.booleanValue());
+        }
+    }
+
+    /**
+     * Передает накопленные байты в поток и сбрасывает его.
+     *
+     * @throws IOException если запись в поток не удалась
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    private void writeAsciiChar(char c) throws IOException {
+        if (c >= 0x20 && c != '"' && c != '\\') {
+            ensureCapacity(1);
+            buffer[position++] = (byte) c;
+            return;
+        }
+        char shortEscape = switch (c) {
+            case '"' -> '"';
+            case '\\' -> '\\';
+            case '\b' -> 'b';
+            case '\f' -> 'f';
+            case '\n' -> 'n';
+            case '\r' -> 'r';
+            case '\t' -> 't';
+            default -> 0;
+        };
+        if (shortEscape != 0) {
+            ensureCapacity(2);
+            buffer[position++] = '\\';
+            buffer[position++] = (byte) shortEscape;
+        } else {
+            ensureCapacity(6);
+            buffer[position++] = '\\';
+            buffer[position++] = 'u';
+            buffer[position++] = '0';
+            buffer[position++] = '0';
+            buffer[position++] = HEX[c >> 4];
+            buffer[position++] = HEX[c & 0xF];
+        }
+    }
+
+    private void writeAscii(String value) throws IOException {
+        int length = value.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (buffer.length - position < length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package clevertec.utils.pdfserializer;
+
+/**
+ * Оформление PDF-каталога продуктов.
+ */
+public enum CatalogLayout {
+
+    /**
+     * Отдельная страница на продукт, как у PDF одного продукта.
+     */
+    PAGE,
+
+    /**
+     * Таблица: строка на продукт.
+     */
+    TABLE
+}
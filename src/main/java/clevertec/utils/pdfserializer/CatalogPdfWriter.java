@@ -0,0 +1,220 @@
+package clevertec.utils.pdfserializer;
+
+import clevertec.dto.InfoProductDto;
+import clevertec.metrics.RequestTiming;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.pdf.PdfCopy;
+import com.itextpdf.text.pdf.PdfReader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Сборка PDF-каталога из множества продуктов.
+ *
+ * <p>Каталог делится на пакеты по {@code batchSize} продуктов. Пакеты загружаются по порядку в потоке
+ * запроса, поэтому загрузчик может продолжать с последнего полученного ключа, а каждый пакет
+ * отрисовывается в отдельный PDF-фрагмент на ограниченном пуле {@code pdfExecutor}; одновременно в работе
+ * не больше {@code window} фрагментов. Фрагменты добавляются в итоговый документ через {@link PdfCopy}
+ * строго по порядку пакетов и сразу пишутся в поток, после чего на их место запускается следующий пакет.
+ * Поэтому в памяти одновременно находится не больше {@code window} фрагментов, каким бы большим ни был
+ * каталог, а все ядра заняты рендерингом.
+ *
+ * <p>Места в пуле учитываются семафором на {@code capacity} задач - не больше емкости очереди пула, так
+ * что сам пул задачу каталога никогда не отклоняет. Каталог резервирует места под все окно до открытия
+ * документа; если их нет, {@link RejectedExecutionException} отдается обычным ответом {@code 503}, а не
+ * обрывает уже начатый PDF. Место возвращается, когда пул снимает задачу с очереди, в том числе
+ * отмененную. Ошибка загрузки или рендеринга первого пакета тоже еще может быть отдана обычным ответом
+ * об ошибке. Каталог ограничен {@code maxProducts} продуктами, пакеты сверх этого не загружаются.
+ */
+@Slf4j
+public class CatalogPdfWriter {
+
+    private final PdfSerializer pdfSerializer;
+    private final ExecutorService executor;
+    private final Semaphore slots;
+    private final int batchSize;
+    private final int window;
+    private final int maxProducts;
+
+    /**
+     * Загружает один пакет продуктов каталога. Пакеты запрашиваются по порядку из одного потока.
+     */
+    @FunctionalInterface
+    public interface BatchLoader {
+
+        /**
+         * @param batchIndex номер пакета, начиная с нуля
+         * @param batchSize  размер пакета
+         * @return продукты пакета или {@code null}, если пакетов больше нет
+         */
+        List<InfoProductDto> load(int batchIndex, int batchSize);
+    }
+
+    public CatalogPdfWriter(PdfSerializer pdfSerializer, ExecutorService executor, int capacity,
+                            int batchSize, int window, int maxProducts) {
+        if (window > capacity) {
+            throw new IllegalArgumentException("Catalog window " + window + " exceeds executor capacity " + capacity);
+        }
+        this.pdfSerializer = pdfSerializer;
+        this.executor = executor;
+        this.slots = new Semaphore(capacity);
+        this.batchSize = batchSize;
+        this.window = window;
+        this.maxProducts = maxProducts;
+    }
+
+    public int getMaxProducts() {
+        return maxProducts;
+    }
+
+    /**
+     * Пишет каталог в поток; поток не закрывается.
+     *
+     * @param loader загрузка пакетов
+     * @param layout оформление
+     * @param out    поток для документа
+     * @return число фрагментов в документе
+     * @throws IOException если фрагмент не удалось отрисовать или записать
+     * @throws RejectedExecutionException если в пуле нет мест под окно каталога; документ еще не начат
+     */
+    public int write(BatchLoader loader, CatalogLayout layout, OutputStream out) throws IOException {
+        int maxBatches = (maxProducts + batchSize - 1) / batchSize;
+        int reserved = Math.min(window, maxBatches);
+        if (slots.hasQueuedThreads() || !slots.tryAcquire(reserved)) {
+            throw new RejectedExecutionException("No capacity left to render catalog PDF");
+        }
+        int permits = reserved;
+        Deque<Future<byte[]>> pending = new ArrayDeque<>(reserved);
+        int nextBatch = 0;
+        boolean exhausted = false;
+        int fragments = 0;
+        Document document = new Document();
+        try {
+            PdfCopy copy = new PdfCopy(document, out);
+            copy.setCloseStream(false);
+            while (true) {
+                while (!exhausted && pending.size() < reserved && nextBatch < maxBatches) {
+                    List<InfoProductDto> products = loader.load(nextBatch++, batchSize);
+                    if (products == null) {
+                        exhausted = true;
+                    } else if (!products.isEmpty()) {
+                        if (permits == 0) {
+                            acquireSlot();
+                            permits++;
+                        }
+                        pending.add(submit(layout, products, fragments == 0 && pending.isEmpty()));
+                        permits--;
+                    }
+                }
+                Future<byte[]> next = pending.poll();
+                if (next == null) {
+                    break;
+                }
+                append(document, copy, await(next));
+                fragments++;
+            }
+            if (fragments == 0) {
+                append(document, copy, render(layout, List.of(), true));
+            }
+            document.close();
+        } catch (DocumentException e) {
+            throw new IOException("Failed to merge catalog PDF", e);
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+            slots.release(permits);
+        }
+        log.debug("Catalog PDF written from {} fragments in {} layout", fragments, layout);
+        return fragments;
+    }
+
+    private Future<byte[]> submit(CatalogLayout layout, List<InfoProductDto> products, boolean first) {
+        Callable<byte[]> task = () -> render(layout, products, first);
+        SlotTask slotTask = new SlotTask(RequestTiming.propagateCallable(task));
+        executor.execute(slotTask);
+        return slotTask;
+    }
+
+    private void acquireSlot() throws InterruptedIOException {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for catalog PDF capacity");
+        }
+    }
+
+    private byte[] render(CatalogLayout layout, List<InfoProductDto> products, boolean first) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        switch (layout) {
+            case PAGE -> pdfSerializer.serializeObjectsToPdf(InfoProductDto.class, products, out);
+            case TABLE -> pdfSerializer.serializeTableToPdf(InfoProductDto.class, products, first, out);
+        }
+        return out.toByteArray();
+    }
+
+    private static void append(Document document, PdfCopy copy, byte[] fragment) throws IOException, DocumentException {
+        if (!document.isOpen()) {
+            document.open();
+        }
+        PdfReader reader = new PdfReader(fragment);
+        try {
+            copy.addDocument(reader);
+            copy.freeReader(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static byte[] await(Future<byte[]> fragment) throws IOException {
+        try {
+            return fragment.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering catalog PDF");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to render catalog PDF fragment", cause);
+        }
+    }
+
+    /**
+     * Задача рендеринга, которая возвращает место в пуле, когда пул ее выполнил или снял с очереди
+     * отмененной: {@link FutureTask#run()} вызывается в обоих случаях.
+     */
+    private final class SlotTask extends FutureTask<byte[]> {
+
+        private SlotTask(Callable<byte[]> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                slots.release();
+            }
+        }
+    }
+}
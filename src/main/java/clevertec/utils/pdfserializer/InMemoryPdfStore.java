@@ -0,0 +1,77 @@
+package clevertec.utils.pdfserializer;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Рендеринг PDF в память без обращения к файловой системе.
+ *
+ * <p>Каждый документ отрисовывается в {@link PdfBuffer}, массив которого берется из ограниченного пула
+ * и возвращается туда после отправки ответа, так что в установившемся режиме рендеринг не выделяет
+ * новых массивов. В пул возвращаются только массивы не больше {@code maxRetainedBytes}: буфер, выросший
+ * под необычно большой документ, отдается сборщику мусора. Длина документа известна до отправки,
+ * поэтому ответ получает {@code Content-Length}.
+ */
+public class InMemoryPdfStore implements PdfStore {
+
+    private static final String PDF_SUFFIX = ".pdf";
+
+    private final BlockingQueue<byte[]> pool;
+    private final int bufferBytes;
+    private final int maxRetainedBytes;
+    private final LongAdder allocations = new LongAdder();
+
+    public InMemoryPdfStore(int poolSize, int bufferBytes, int maxRetainedBytes) {
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+        this.bufferBytes = bufferBytes;
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    @Override
+    public PdfDocument open(UUID productId, String contentHash, PdfRenderer renderer) throws IOException {
+        PdfBuffer buffer = acquire();
+        try {
+            renderer.render(buffer);
+        } catch (IOException | RuntimeException e) {
+            buffer.close();
+            throw e;
+        }
+        return PdfDocument.ofBuffer(productId + PDF_SUFFIX, buffer);
+    }
+
+    /**
+     * Документы не сохраняются, забывать нечего.
+     */
+    @Override
+    public void invalidate(UUID productId) {
+    }
+
+    /**
+     * @return буфер из пула или новый, если пул пуст
+     */
+    public PdfBuffer acquire() {
+        byte[] bytes = pool.poll();
+        if (bytes == null) {
+            allocations.increment();
+            bytes = new byte[bufferBytes];
+        }
+        return new PdfBuffer(this, bytes);
+    }
+
+    public int getPooledCount() {
+        return pool.size();
+    }
+
+    public long getAllocations() {
+        return allocations.sum();
+    }
+
+    void release(byte[] bytes) {
+        if (bytes.length <= maxRetainedBytes) {
+            pool.offer(bytes);
+        }
+    }
+}
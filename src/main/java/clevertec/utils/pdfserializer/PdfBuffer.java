@@ -0,0 +1,77 @@
+package clevertec.utils.pdfserializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Растущий буфер для одного PDF-документа, массив которого берется из пула {@link InMemoryPdfStore}.
+ *
+ * <p>В отличие от {@link java.io.ByteArrayOutputStream}, методы не синхронизированы, а {@link #close()}
+ * возвращает массив в пул; после закрытия буфер использовать нельзя. Буфер принадлежит одному запросу
+ * и не используется из нескольких потоков одновременно.
+ */
+public final class PdfBuffer extends OutputStream {
+
+    private final InMemoryPdfStore owner;
+    private byte[] bytes;
+    private int size;
+
+    PdfBuffer(InMemoryPdfStore owner, byte[] bytes) {
+        this.owner = owner;
+        this.bytes = bytes;
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(size + 1);
+        bytes[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(size + len);
+        System.arraycopy(b, off, bytes, size, len);
+        size += len;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Пишет содержимое буфера в поток одним вызовом.
+     *
+     * @param out поток
+     * @throws IOException если запись не удалась
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(openBytes(), 0, size);
+    }
+
+    /**
+     * Возвращает массив в пул. Повторный вызов ничего не делает.
+     */
+    @Override
+    public void close() {
+        byte[] released = bytes;
+        if (released != null) {
+            bytes = null;
+            owner.release(released);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        byte[] current = openBytes();
+        if (capacity > current.length) {
+            bytes = Arrays.copyOf(current, Math.max(capacity, current.length * 2));
+        }
+    }
+
+    private byte[] openBytes() {
+        if (bytes == null) {
+            throw new IllegalStateException("PDF buffer is already released");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,76 @@
+package clevertec.utils.pdfserializer;
+
+import clevertec.cache.CachedPdf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Готовый PDF-документ с известной длиной: файл на диске или буфер в памяти.
+ *
+ * <p>Документ нужно закрыть после отправки: буфер при этом возвращается в пул, а канал файла
+ * закрывается. Незакрытый буфер просто собирается сборщиком мусора.
+ */
+public final class PdfDocument implements AutoCloseable {
+
+    private final String fileName;
+    private final long contentLength;
+    private final CachedPdf file;
+    private final PdfBuffer buffer;
+
+    private PdfDocument(String fileName, long contentLength, CachedPdf file, PdfBuffer buffer) {
+        this.fileName = fileName;
+        this.contentLength = contentLength;
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+    /**
+     * @param file открытый файл документа из кэша
+     * @return документ, читаемый из файла
+     * @throws IOException если не удалось определить размер файла
+     */
+    public static PdfDocument ofFile(CachedPdf file) throws IOException {
+        return new PdfDocument(file.getFileName(), file.size(), file, null);
+    }
+
+    /**
+     * @param fileName имя документа для {@code Content-Disposition}
+     * @param buffer   буфер с отрисованным документом
+     * @return документ в памяти
+     */
+    public static PdfDocument ofBuffer(String fileName, PdfBuffer buffer) {
+        return new PdfDocument(fileName, buffer.size(), null, buffer);
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Пишет документ в поток; поток не закрывается.
+     *
+     * @param out поток
+     * @throws IOException если запись не удалась
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (buffer != null) {
+            buffer.writeTo(out);
+        } else {
+            file.writeTo(out);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer != null) {
+            buffer.close();
+        } else {
+            file.close();
+        }
+    }
+}
@@ -4,35 +4,90 @@ import com.itextpdf.text.Document;
 import com.itextpdf.text.DocumentException;
 import com.itextpdf.text.Element;
 import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
 import com.itextpdf.text.pdf.ColumnText;
+import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
-import java.nio.file.Path;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 @Slf4j
 @Service
 public class PdfSerializer {
 
-    public Path serializeObjectToPdf(Object classObject) {
-        String simpleName = classObject.getClass().getSimpleName();
+    /**
+     * Версия оформления документа. Увеличивается при изменении разметки, чтобы кэшированные PDF
+     * перестали совпадать по хэшу содержимого.
+     */
+    public static final int LAYOUT_VERSION = 1;
+
+    /**
+     * Пишет PDF с полями объекта в поток. Поток не закрывается.
+     *
+     * @param classObject объект
+     * @param out         поток для документа
+     */
+    public void serializeObjectToPdf(Object classObject, OutputStream out) {
+        writePdf(out, (document, writer) -> {
+            addTitle(document, classObject.getClass().getSimpleName());
+            addClassFieldsToPdf(writer, classObject);
+        });
+    }
+
+    /**
+     * Пишет PDF, в котором каждому объекту отведена отдельная страница в том же оформлении, что и у
+     * {@link #serializeObjectToPdf(Object, OutputStream)}. Для пустого списка пишется страница с заголовком.
+     * Поток не закрывается.
+     *
+     * @param type    класс объектов
+     * @param objects объекты
+     * @param out     поток для документа
+     */
+    public void serializeObjectsToPdf(Class<?> type, List<?> objects, OutputStream out) {
+        writePdf(out, (document, writer) -> {
+            if (objects.isEmpty()) {
+                addTitle(document, type.getSimpleName());
+            }
+            for (Object classObject : objects) {
+                document.newPage();
+                addTitle(document, type.getSimpleName());
+                addClassFieldsToPdf(writer, classObject);
+            }
+        });
+    }
+
+    /**
+     * Пишет PDF с таблицей: строка на объект, столбец на поле класса, строка заголовка повторяется на
+     * каждой странице. Поток не закрывается.
+     *
+     * @param type      класс объектов
+     * @param objects   объекты
+     * @param withTitle добавить заголовок перед таблицей
+     * @param out       поток для документа
+     */
+    public void serializeTableToPdf(Class<?> type, List<?> objects, boolean withTitle, OutputStream out) {
+        writePdf(out, (document, writer) -> {
+            if (withTitle) {
+                addTitle(document, type.getSimpleName());
+            }
+            addFieldsTableToPdf(document, type, objects);
+        });
+    }
+
+    private void writePdf(OutputStream out, DocumentContent content) {
         Document document = new Document();
-        String pdfFilePath = createPdfFilePath(simpleName);
 
         try {
-            PdfWriter writer = PdfWriter.getInstance(document, new FileOutputStream(pdfFilePath));
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
             document.open();
 
-            addTitle(document, simpleName);
-            addClassFieldsToPdf(writer, classObject);
-        } catch (DocumentException | FileNotFoundException e) {
+            content.write(document, writer);
+        } catch (DocumentException e) {
             log.error("Error while creating PDF: " + e.getMessage(), e);
             throw new RuntimeException("Error while creating PDF", e);
         } catch (IllegalAccessException e) {
@@ -43,7 +98,26 @@ public class PdfSerializer {
                 document.close();
             }
         }
-        return Path.of(pdfFilePath);
+    }
+
+    private void addFieldsTableToPdf(Document document, Class<?> type,
+                                     List<?> objects) throws IllegalAccessException, DocumentException {
+        Field[] fields = type.getDeclaredFields();
+        PdfPTable table = new PdfPTable(fields.length);
+        table.setWidthPercentage(100);
+        table.setSpacingBefore(12);
+        table.setHeaderRows(1);
+        for (Field field : fields) {
+            field.setAccessible(true);
+            table.addCell(new Phrase(field.getName()));
+        }
+        for (Object classObject : objects) {
+            for (Field field : fields) {
+                Object value = field.get(classObject);
+                table.addCell(new Phrase(value != null ? value.toString() : "null"));
+            }
+        }
+        document.add(table);
     }
 
     private void addTitle(Document document, String titleText) throws DocumentException {
@@ -73,18 +147,11 @@ public class PdfSerializer {
         columnTextValues.go();
     }
 
-    private String createPdfFilePath(String simpleName) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
-        String formattedDateTime = LocalDateTime.now().format(formatter);
-        String fileName = simpleName + "_" + formattedDateTime + ".pdf";
-        String directoryPath = "pdf";
-
-        File directory = new File(directoryPath);
-        if (!directory.exists()) {
-            directory.mkdirs();
-        }
-
-        return directoryPath + File.separator + fileName;
+    /**
+     * Наполнение открытого документа.
+     */
+    @FunctionalInterface
+    private interface DocumentContent {
+        void write(Document document, PdfWriter writer) throws DocumentException, IllegalAccessException;
     }
 }
-
@@ -0,0 +1,37 @@
+package clevertec.utils.pdfserializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+
+/**
+ * Источник PDF-документов продуктов: дисковый кэш или рендеринг в память, выбирается {@code pdf.mode}.
+ */
+public interface PdfStore {
+
+    /**
+     * Отрисовывает документ в поток.
+     */
+    @FunctionalInterface
+    interface PdfRenderer {
+        void render(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Возвращает готовый документ продукта, при необходимости отрисовывая его.
+     *
+     * @param productId   id продукта
+     * @param contentHash хэш данных документа в шестнадцатеричном виде
+     * @param renderer    рендеринг документа
+     * @return документ, который нужно закрыть после отправки
+     * @throws IOException если документ не удалось отрисовать или сохранить
+     */
+    PdfDocument open(UUID productId, String contentHash, PdfRenderer renderer) throws IOException;
+
+    /**
+     * Забывает сохраненные документы продукта после его изменения или удаления.
+     *
+     * @param productId id продукта
+     */
+    void invalidate(UUID productId);
+}
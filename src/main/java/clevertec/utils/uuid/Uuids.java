@@ -0,0 +1,107 @@
+package clevertec.utils.uuid;
+
+import java.util.UUID;
+
+/**
+ * Разбор и запись UUID без исключений и промежуточных строк.
+ *
+ * <p>{@link UUID#fromString(String)} на некорректном вводе создает {@link IllegalArgumentException} со стеком,
+ * а принимает и неканонические формы вроде {@code 1-2-3-4-5}. Здесь принимается только каноническая запись
+ * из 36 символов (8-4-4-4-12 шестнадцатеричных цифр), а ошибка обозначается {@code null}.
+ */
+public final class Uuids {
+
+    public static final int LENGTH = 36;
+
+    private static final byte[] HEX_DIGITS = {
+            '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
+
+    private Uuids() {
+    }
+
+    /**
+     * Разбирает UUID, занимающий всю строку.
+     *
+     * @param text строка
+     * @return UUID или {@code null}, если строка не является UUID в канонической записи
+     */
+    public static UUID parse(CharSequence text) {
+        return parse(text, 0);
+    }
+
+    /**
+     * Разбирает UUID, занимающий остаток строки начиная с {@code offset}, например {@code pathInfo} после {@code /}.
+     *
+     * @param text   строка
+     * @param offset начало UUID
+     * @return UUID или {@code null}, если остаток строки не является UUID в канонической записи
+     */
+    public static UUID parse(CharSequence text, int offset) {
+        if (text == null || text.length() - offset != LENGTH) {
+            return null;
+        }
+        long mostSigBits = 0;
+        long leastSigBits = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            char c = text.charAt(offset + i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return null;
+                }
+                continue;
+            }
+            int digit = hexValue(c);
+            if (digit < 0) {
+                return null;
+            }
+            if (i < 18) {
+                mostSigBits = mostSigBits << 4 | digit;
+            } else {
+                leastSigBits = leastSigBits << 4 | digit;
+            }
+        }
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * Записывает UUID в канонической записи строчными ASCII-символами.
+     *
+     * @param uuid   идентификатор
+     * @param target массив, в котором с {@code offset} свободно не меньше {@value #LENGTH} байт
+     * @param offset начало записи
+     */
+    public static void writeAscii(UUID uuid, byte[] target, int offset) {
+        long mostSigBits = uuid.getMostSignificantBits();
+        long leastSigBits = uuid.getLeastSignificantBits();
+        writeHex(mostSigBits >>> 32, 8, target, offset);
+        target[offset + 8] = '-';
+        writeHex(mostSigBits >>> 16, 4, target, offset + 9);
+        target[offset + 13] = '-';
+        writeHex(mostSigBits, 4, target, offset + 14);
+        target[offset + 18] = '-';
+        writeHex(leastSigBits >>> 48, 4, target, offset + 19);
+        target[offset + 23] = '-';
+        writeHex(leastSigBits, 12, target, offset + 24);
+    }
+
+    private static void writeHex(long value, int digits, byte[] target, int offset) {
+        for (int i = digits - 1; i >= 0; i--) {
+            target[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,28 @@
+package clevertec.validation;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Число должно быть конечным: {@code NaN} и бесконечности отклоняются. {@code null} считается корректным.
+ *
+ * <p>{@link javax.validation.constraints.DecimalMin} пропускает {@code Infinity}, а такие значения
+ * попадают в {@code DOUBLE PRECISION} колонки без ошибки.
+ */
+@Documented
+@Constraint(validatedBy = FiniteValidator.class)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Finite {
+
+    String message() default "Число должно быть конечным";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
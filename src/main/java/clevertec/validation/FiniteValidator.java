@@ -0,0 +1,15 @@
+package clevertec.validation;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+/**
+ * Проверка ограничения {@link Finite} для {@link Double}.
+ */
+public class FiniteValidator implements ConstraintValidator<Finite, Double> {
+
+    @Override
+    public boolean isValid(Double value, ConstraintValidatorContext context) {
+        return value == null || Double.isFinite(value);
+    }
+}
@@ -0,0 +1,45 @@
+package clevertec.validation;
+
+import clevertec.dto.ProductDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Проверка {@link ProductDto} по аннотациям ограничений DTO.
+ *
+ * <p>Единственное место, где применяются правила продукта: его используют и создание/обновление
+ * продукта, и массовый импорт.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductValidator {
+
+    private final Validator validator;
+
+    /**
+     * Проверяет DTO продукта.
+     *
+     * @param productDto DTO продукта
+     * @throws IllegalArgumentException если DTO нарушает ограничения; сообщение перечисляет поля и причины
+     */
+    public void validate(ProductDto productDto) {
+        if (productDto == null) {
+            throw new IllegalArgumentException("Product body is required");
+        }
+        Set<ConstraintViolation<ProductDto>> violations = validator.validate(productDto);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .sorted(Comparator.comparing((ConstraintViolation<ProductDto> violation) ->
+                                    violation.getPropertyPath().toString())
+                            .thenComparing(ConstraintViolation::getMessage))
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+}
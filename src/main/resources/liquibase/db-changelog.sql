@@ -22,3 +22,130 @@ VALUES ('dcce95ba-46ea-4739-887b-1de051755ac7', 'ProductA', 428.26, 3.79, '2023-
        ('96d42a47-f9b9-4b45-b1fb-267db5e6a342', 'ProductH', 379.51, 16.95, '2023-11-13 03:09:02'),
        ('0868cce8-ba84-4d61-a8d4-b96f5e64d1b5', 'ProductI', 412.29, 2.35, '2023-11-13 03:09:02'),
        ('8a5e82ac-731b-4dc4-b861-4c38cca887e3', 'ProductL', 162.03, 11.44, '2023-11-13 03:09:02');
+
+--changeset sergey:3
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX products_name_trgm_idx ON products USING gin (name gin_trgm_ops);
+
+--changeset sergey:4
+CREATE INDEX products_price_idx ON products (price, id);
+CREATE INDEX products_weight_idx ON products (weight, id);
+CREATE INDEX products_creation_date_idx ON products (creation_date, id);
+
+--changeset sergey:5
+CREATE TABLE products_partitioned
+(
+    id            UUID             NOT NULL,
+    name          VARCHAR(255),
+    price         DOUBLE PRECISION,
+    weight        DOUBLE PRECISION,
+    creation_date TIMESTAMP        NOT NULL,
+    PRIMARY KEY (id, creation_date)
+) PARTITION BY RANGE (creation_date);
+CREATE TABLE products_default PARTITION OF products_partitioned DEFAULT;
+CREATE TABLE product_ids
+(
+    id            UUID PRIMARY KEY,
+    creation_date TIMESTAMP NOT NULL
+);
+
+--changeset sergey:6 splitStatements:false
+CREATE FUNCTION sync_product_ids() RETURNS TRIGGER AS
+$$
+BEGIN
+    IF current_setting('products.partition_move', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        DELETE FROM product_ids WHERE id = OLD.id AND creation_date = OLD.creation_date;
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE product_ids
+        SET id            = NEW.id,
+            creation_date = NEW.creation_date
+        WHERE id = OLD.id;
+    ELSE
+        INSERT INTO product_ids (id, creation_date)
+        VALUES (NEW.id, NEW.creation_date);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION create_product_partitions(from_date DATE, to_date DATE) RETURNS INTEGER AS
+$$
+DECLARE
+    month_start DATE := date_trunc('month', from_date);
+    month_end   DATE;
+    partition   TEXT;
+    created     INTEGER := 0;
+BEGIN
+    PERFORM set_config('products.partition_move', 'on', true);
+    WHILE month_start <= to_date LOOP
+        month_end := month_start + INTERVAL '1 month';
+        partition := 'products_' || to_char(month_start, 'YYYY_MM');
+        IF to_regclass(partition) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I (LIKE products INCLUDING DEFAULTS)', partition);
+            EXECUTE format('WITH moved AS (DELETE FROM products_default '
+                               || 'WHERE creation_date >= %L AND creation_date < %L RETURNING *) '
+                               || 'INSERT INTO %I SELECT * FROM moved', month_start, month_end, partition);
+            EXECUTE format('ALTER TABLE products ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                           partition, month_start, month_end);
+            created := created + 1;
+        END IF;
+        month_start := month_end;
+    END LOOP;
+    PERFORM set_config('products.partition_move', 'off', true);
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+--changeset sergey:7
+--preconditions onFail:HALT onError:HALT
+--precondition-sql-check expectedResult:0 SELECT COUNT(*) FROM products WHERE creation_date IS NULL
+CREATE TRIGGER products_sync_ids
+    AFTER INSERT OR UPDATE OR DELETE ON products_partitioned
+    FOR EACH ROW EXECUTE PROCEDURE sync_product_ids();
+INSERT INTO products_partitioned (id, name, price, weight, creation_date)
+SELECT id, name, price, weight, creation_date
+FROM products;
+DROP TABLE products;
+ALTER TABLE products_partitioned RENAME TO products;
+CREATE INDEX products_name_trgm_idx ON products USING gin (name gin_trgm_ops);
+CREATE INDEX products_price_idx ON products (price, id);
+CREATE INDEX products_weight_idx ON products (weight, id);
+CREATE INDEX products_creation_date_idx ON products (creation_date, id);
+SELECT create_product_partitions(COALESCE(MIN(creation_date), now())::DATE, (now() + INTERVAL '3 months')::DATE)
+FROM products;
+
+--changeset sergey:8
+ALTER TABLE products ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT now();
+CREATE INDEX products_updated_at_idx ON products (updated_at);
+CREATE TABLE product_deletions
+(
+    id         UUID PRIMARY KEY,
+    deleted_at TIMESTAMP NOT NULL DEFAULT now()
+);
+CREATE INDEX product_deletions_deleted_at_idx ON product_deletions (deleted_at);
+
+--changeset sergey:9 splitStatements:false
+CREATE FUNCTION record_product_deletion() RETURNS TRIGGER AS
+$$
+BEGIN
+    IF current_setting('products.partition_move', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    -- UPDATE, переносящий строку в другую партицию, выполняется как DELETE + INSERT:
+    -- к моменту срабатывания AFTER-триггера строка уже есть в новой партиции, это не удаление.
+    IF EXISTS (SELECT 1 FROM products WHERE id = OLD.id) THEN
+        RETURN NULL;
+    END IF;
+    INSERT INTO product_deletions (id, deleted_at)
+    VALUES (OLD.id, now())
+    ON CONFLICT (id) DO UPDATE SET deleted_at = EXCLUDED.deleted_at;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER products_record_deletion
+    AFTER DELETE ON products
+    FOR EACH ROW EXECUTE PROCEDURE record_product_deletion();
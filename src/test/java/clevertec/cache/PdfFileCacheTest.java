@@ -0,0 +1,167 @@
+package clevertec.cache;
+
+import clevertec.utils.pdfserializer.PdfStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PdfFileCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldRenderOnceForSameContent() throws IOException {
+        // Given
+        PdfFileCache cache = new PdfFileCache(directory, 1024);
+        UUID id = UUID.randomUUID();
+        AtomicInteger renders = new AtomicInteger();
+        PdfStore.PdfRenderer renderer = out -> {
+            renders.incrementAndGet();
+            out.write(new byte[100]);
+        };
+
+        // When
+        try (CachedPdf first = cache.getOrRender(id, "aa", renderer);
+             CachedPdf second = cache.getOrRender(id, "aa", renderer)) {
+
+            // Then
+            assertThat(second.getFileName()).isEqualTo(first.getFileName());
+            assertThat(second.size()).isEqualTo(100);
+        }
+        assertThat(renders).hasValue(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedFilesOverSizeLimit() throws IOException {
+        // Given
+        PdfFileCache cache = new PdfFileCache(directory, 250);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        Path firstPath = render(cache, first, "01", 100);
+        Path secondPath = render(cache, second, "02", 100);
+        render(cache, first, "01", 100);
+
+        // When
+        render(cache, third, "03", 100);
+
+        // Then
+        assertThat(firstPath).exists();
+        assertThat(secondPath).doesNotExist();
+        assertThat(cache.getTotalBytes()).isEqualTo(200);
+        assertThat(cache.getFileCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldDeleteAllFilesOfInvalidatedProduct() throws IOException {
+        // Given
+        PdfFileCache cache = new PdfFileCache(directory, 1024);
+        UUID id = UUID.randomUUID();
+        Path oldVersion = render(cache, id, "01", 10);
+        Path newVersion = render(cache, id, "02", 10);
+        Path other = render(cache, UUID.randomUUID(), "01", 10);
+
+        // When
+        cache.invalidate(id);
+
+        // Then
+        assertThat(oldVersion).doesNotExist();
+        assertThat(newVersion).doesNotExist();
+        assertThat(other).exists();
+        assertThat(cache.getTotalBytes()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldReuseFilesFromPreviousRunAndDropTempFiles() throws IOException {
+        // Given
+        UUID id = UUID.randomUUID();
+        render(new PdfFileCache(directory, 1024), id, "01", 10);
+        Path leftover = Files.createFile(directory.resolve(id + "123.tmp"));
+
+        // When
+        PdfFileCache restarted = new PdfFileCache(directory, 1024);
+        restarted.getOrRender(id, "01", out -> {
+            throw new AssertionError("Cached file must be reused");
+        }).close();
+
+        // Then
+        assertThat(leftover).doesNotExist();
+        assertThat(restarted.getTotalBytes()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldNotCacheFailedRender() throws IOException {
+        // Given
+        PdfFileCache cache = new PdfFileCache(directory, 1024);
+
+        // When, Then
+        assertThatThrownBy(() -> cache.getOrRender(UUID.randomUUID(), "01", out -> {
+            throw new IOException("render failed");
+        })).isInstanceOf(IOException.class);
+        assertThat(cache.getFileCount()).isZero();
+        try (var files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldServeOpenedDocumentAfterItIsEvicted() throws IOException {
+        // Given
+        PdfFileCache cache = new PdfFileCache(directory, 150);
+        UUID id = UUID.randomUUID();
+        byte[] content = new byte[100];
+        content[0] = 42;
+        CachedPdf pdf = cache.getOrRender(id, "01", out -> out.write(content));
+
+        // When
+        render(cache, UUID.randomUUID(), "02", 100);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (pdf) {
+            pdf.writeTo(out);
+        }
+
+        // Then
+        assertThat(directory.resolve(pdf.getFileName())).doesNotExist();
+        assertThat(out.toByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    void shouldRenderAgainWhenCachedFileIsMissing() throws IOException {
+        // Given
+        PdfFileCache cache = new PdfFileCache(directory, 1024);
+        UUID id = UUID.randomUUID();
+        Files.delete(render(cache, id, "01", 10));
+        AtomicInteger renders = new AtomicInteger();
+
+        // When
+        try (CachedPdf pdf = cache.getOrRender(id, "01", out -> {
+            renders.incrementAndGet();
+            out.write(new byte[20]);
+        })) {
+
+            // Then
+            assertThat(pdf.size()).isEqualTo(20);
+        }
+        assertThat(renders).hasValue(1);
+        assertThat(cache.getTotalBytes()).isEqualTo(20);
+        assertThat(cache.getFileCount()).isEqualTo(1);
+    }
+
+    private Path render(PdfFileCache cache, UUID id, String contentHash, int size) throws IOException {
+        try (CachedPdf pdf = cache.getOrRender(id, contentHash, out -> out.write(new byte[size]))) {
+            return directory.resolve(pdf.getFileName());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package clevertec.cache;
+
+import clevertec.cache.impl.TtlCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TtlCacheTest {
+
+    private AtomicLong clock;
+    private TtlCache<Integer, String> cache;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new AtomicLong();
+        cache = new TtlCache<>(2, 100, clock::get);
+    }
+
+    @Test
+    public void testPutAndGetBeforeExpiry() {
+        cache.put(1, "One");
+        clock.set(99);
+        assertEquals(Optional.of("One"), cache.get(1), "Entry should be available before ttl passes");
+    }
+
+    @Test
+    public void testExpiry() {
+        cache.put(1, "One");
+        clock.set(100);
+        assertEquals(Optional.empty(), cache.get(1), "Entry should expire after ttl");
+    }
+
+    @Test
+    public void testEvictsEntryThatExpiresFirst() {
+        cache.put(1, "One");
+        clock.set(10);
+        cache.put(2, "Two");
+        cache.put(3, "Three");
+        assertEquals(Optional.empty(), cache.get(1), "Oldest entry should be evicted when cache is full");
+        assertEquals(Optional.of("Three"), cache.get(3), "Cache should return 'Three' for key 3");
+    }
+
+    @Test
+    public void testDelete() {
+        cache.put(1, "One");
+        cache.delete(1);
+        assertEquals(Optional.empty(), cache.get(1), "Key 1 should be deleted from cache");
+    }
+}
@@ -0,0 +1,54 @@
+package clevertec.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LazyInitBeanFactoryPostProcessorTest {
+
+    private final LazyInitBeanFactoryPostProcessor postProcessor = new LazyInitBeanFactoryPostProcessor();
+
+    @Test
+    void shouldMakeOnlyUnmarkedApplicationBeansLazy() {
+        // Given
+        DefaultListableBeanFactory beanFactory = beanFactory("true");
+        RootBeanDefinition eager = new RootBeanDefinition(Object.class);
+        eager.setLazyInit(false);
+        RootBeanDefinition infrastructure = new RootBeanDefinition(Object.class);
+        infrastructure.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+        beanFactory.registerBeanDefinition("service", new RootBeanDefinition(Object.class));
+        beanFactory.registerBeanDefinition("background", eager);
+        beanFactory.registerBeanDefinition("infrastructure", infrastructure);
+
+        // When
+        postProcessor.postProcessBeanFactory(beanFactory);
+
+        // Then
+        assertThat(beanFactory.getBeanDefinition("service").isLazyInit()).isTrue();
+        assertThat(beanFactory.getBeanDefinition("background").isLazyInit()).isFalse();
+        assertThat(beanFactory.getBeanDefinition("infrastructure").isLazyInit()).isFalse();
+    }
+
+    @Test
+    void shouldKeepBeansEagerWhenDisabled() {
+        // Given
+        DefaultListableBeanFactory beanFactory = beanFactory("false");
+        beanFactory.registerBeanDefinition("service", new RootBeanDefinition(Object.class));
+
+        // When
+        postProcessor.postProcessBeanFactory(beanFactory);
+
+        // Then
+        assertThat(beanFactory.getBeanDefinition("service").isLazyInit()).isFalse();
+    }
+
+    private static DefaultListableBeanFactory beanFactory(String lazyInit) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.addEmbeddedValueResolver(value ->
+                LazyInitBeanFactoryPostProcessor.PROPERTY.equals(value) ? lazyInit : value);
+        return beanFactory;
+    }
+}
@@ -0,0 +1,47 @@
+package clevertec.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.metrics.StartupStep;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoggingApplicationStartupTest {
+
+    private final LoggingApplicationStartup startup = new LoggingApplicationStartup();
+
+    @Test
+    void shouldRecordNestedBeanSteps() {
+        // Given
+        StartupStep refresh = startup.start(LoggingApplicationStartup.REFRESH_STEP);
+        StartupStep service = startup.start(LoggingApplicationStartup.INSTANTIATE_STEP).tag("beanName", "service");
+        StartupStep dao = startup.start(LoggingApplicationStartup.INSTANTIATE_STEP).tag("beanName", "dao");
+
+        // When
+        dao.end();
+        service.end();
+        refresh.end();
+
+        // Then
+        List<LoggingApplicationStartup.Step> steps = startup.getBeanSteps();
+        assertThat(steps).extracting(LoggingApplicationStartup.Step::beanName)
+                .containsExactly("dao", "service");
+        assertThat(dao.getParentId()).isEqualTo(service.getId());
+        assertThat(steps.get(1).selfNanos()).isEqualTo(steps.get(1).totalNanos() - steps.get(0).totalNanos());
+    }
+
+    @Test
+    void shouldNotAccumulateStepsAfterRefresh() {
+        // Given
+        startup.start(LoggingApplicationStartup.REFRESH_STEP).end();
+
+        // When
+        StartupStep lazyBean = startup.start(LoggingApplicationStartup.INSTANTIATE_STEP).tag("beanName", "lazy");
+        lazyBean.end();
+
+        // Then
+        assertThat(startup.getBeanSteps()).isEmpty();
+        assertThat(lazyBean.getParentId()).isNull();
+    }
+}
@@ -0,0 +1,107 @@
+package clevertec.dao.impl;
+
+import clevertec.data.ProductTestData;
+import clevertec.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class CatalogSnapshotTest {
+
+    private static final LocalDateTime WATERMARK = LocalDateTime.of(2023, 11, 13, 3, 9, 2);
+
+    private final Product older = ProductTestData.builder()
+            .withId(UUID.fromString("3ecb77f7-0114-47a7-ada7-3ec685d202a7"))
+            .withCreated(LocalDateTime.of(2023, 10, 1, 0, 0))
+            .build()
+            .buildProduct();
+
+    private final Product newer = ProductTestData.builder()
+            .build()
+            .buildProduct();
+
+    @Test
+    void shouldPageProductsInCreationOrder() {
+        // Given
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(newer, older), WATERMARK);
+
+        // When
+        List<Product> firstPage = snapshot.page(1, 1);
+        List<Product> secondPage = snapshot.page(1, 2);
+
+        // Then
+        assertEquals(List.of(older), firstPage);
+        assertEquals(List.of(newer), secondPage);
+        assertEquals(List.of(), snapshot.page(1, 3));
+    }
+
+    @Test
+    void shouldReturnCopyOfProduct() {
+        // Given
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(newer), WATERMARK);
+
+        // When
+        Product actual = snapshot.find(newer.getId()).orElseThrow();
+        actual.setPrice(1.0);
+
+        // Then
+        assertNotSame(newer, actual);
+        assertEquals(Optional.of(newer), snapshot.find(newer.getId()));
+    }
+
+    @Test
+    void shouldApplyDeletionsBeforeChanges() {
+        // Given
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(newer, older), WATERMARK);
+        Product changed = ProductTestData.builder()
+                .withPrice(1.0)
+                .build()
+                .buildProduct();
+        LocalDateTime next = WATERMARK.plusSeconds(1);
+
+        // When
+        CatalogSnapshot actual = snapshot.apply(List.of(changed), List.of(older.getId(), changed.getId()), next);
+
+        // Then
+        assertEquals(1, actual.size());
+        assertEquals(Optional.of(changed), actual.find(changed.getId()));
+        assertEquals(Optional.empty(), actual.find(older.getId()));
+        assertEquals(next, actual.watermark());
+        assertEquals(2, snapshot.size());
+    }
+
+    @Test
+    void shouldMergeChangesIntoCreationOrder() {
+        // Given
+        Product oldest = ProductTestData.builder()
+                .withId(UUID.fromString("0b6f1c52-3f4e-4d7a-9a39-0f0a4c1e2d11"))
+                .withCreated(LocalDateTime.of(2023, 9, 1, 0, 0))
+                .build()
+                .buildProduct();
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(newer, older, oldest), WATERMARK);
+        Product between = ProductTestData.builder()
+                .withId(UUID.fromString("7d1e4b0a-58c2-4f0e-8c7a-5b2f6e9a1c33"))
+                .withCreated(LocalDateTime.of(2023, 10, 10, 0, 0))
+                .build()
+                .buildProduct();
+        Product movedOldest = ProductTestData.builder()
+                .withId(oldest.getId())
+                .withCreated(LocalDateTime.of(2023, 12, 1, 0, 0))
+                .build()
+                .buildProduct();
+
+        // When
+        CatalogSnapshot actual = snapshot.apply(List.of(movedOldest, between), List.of(), WATERMARK.plusSeconds(1));
+
+        // Then
+        assertEquals(List.of(older, between, newer, movedOldest), actual.page(10, 1));
+        assertEquals(Optional.of(movedOldest), actual.find(oldest.getId()));
+        assertEquals(List.of(oldest, older, newer), snapshot.page(10, 1));
+    }
+}
@@ -0,0 +1,183 @@
+package clevertec.dao.impl;
+
+import clevertec.data.ProductTestData;
+import clevertec.dto.ProductFilter;
+import clevertec.entity.Product;
+import clevertec.exception.ProductNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogStructuredProductDaoTest {
+
+    private static final long SMALL_SEGMENT = LogStructuredProductDao.RECORD_SIZE * 4L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReadSavedProduct() {
+        // Given
+        Product product = ProductTestData.builder()
+                .withName("Молоко")
+                .build()
+                .buildProduct();
+
+        // When
+        Optional<Product> actual;
+        try (LogStructuredProductDao dao = open(1024 * 1024)) {
+            dao.save(product);
+            actual = dao.findById(product.getId());
+        }
+
+        // Then
+        assertEquals(Optional.of(product), actual);
+    }
+
+    @Test
+    void shouldRestoreStateAfterReopen() {
+        // Given
+        Product kept = ProductTestData.builder()
+                .build()
+                .buildProduct();
+        Product deleted = ProductTestData.builder()
+                .withId(UUID.fromString("3ecb77f7-0114-47a7-ada7-3ec685d202a7"))
+                .build()
+                .buildProduct();
+        try (LogStructuredProductDao dao = open(SMALL_SEGMENT)) {
+            dao.save(kept);
+            dao.save(deleted);
+            kept.setPrice(42.0);
+            dao.update(kept);
+            dao.delete(deleted.getId());
+        }
+
+        // When
+        try (LogStructuredProductDao dao = open(SMALL_SEGMENT)) {
+
+            // Then
+            assertEquals(Optional.of(kept), dao.findById(kept.getId()));
+            assertEquals(Optional.empty(), dao.findById(deleted.getId()));
+        }
+    }
+
+    @Test
+    void shouldRemoveSegmentsWithoutLiveRecordsOnCompaction() {
+        // Given
+        Product product = ProductTestData.builder()
+                .build()
+                .buildProduct();
+        try (LogStructuredProductDao dao = open(SMALL_SEGMENT)) {
+            dao.save(product);
+            for (int i = 0; i < 10; i++) {
+                product.setPrice((double) i);
+                dao.update(product);
+            }
+            int segmentsBefore = dao.segmentCount();
+
+            // When
+            int removed = dao.compact();
+
+            // Then
+            assertTrue(removed > 0);
+            assertEquals(segmentsBefore - removed, dao.segmentCount());
+            assertEquals(Optional.of(product), dao.findById(product.getId()));
+        }
+        try (LogStructuredProductDao dao = open(SMALL_SEGMENT)) {
+            assertEquals(Optional.of(product), dao.findById(product.getId()));
+        }
+    }
+
+    @Test
+    void shouldFilterAndSortInMemory() {
+        // Given
+        Product cheap = ProductTestData.builder()
+                .withId(UUID.fromString("3ecb77f7-0114-47a7-ada7-3ec685d202a7"))
+                .withPrice(10.0)
+                .build()
+                .buildProduct();
+        Product expensive = ProductTestData.builder()
+                .withPrice(500.0)
+                .build()
+                .buildProduct();
+        ProductFilter filter = ProductFilter.builder()
+                .maxPrice(100.0)
+                .sortBy(ProductFilter.SortField.PRICE)
+                .build();
+
+        // When
+        List<Product> actual;
+        try (LogStructuredProductDao dao = open(1024 * 1024)) {
+            dao.save(expensive);
+            dao.save(cheap);
+            actual = dao.findByFilter(filter);
+        }
+
+        // Then
+        assertEquals(List.of(cheap), actual);
+    }
+
+    @Test
+    void shouldThrowWhenDeletingMissingProduct() {
+        // Given
+        UUID id = UUID.fromString("3ecb77f7-0114-47a7-ada7-3ec685d202a7");
+
+        // When, Then
+        try (LogStructuredProductDao dao = open(1024 * 1024)) {
+            assertThrows(ProductNotFoundException.class, () -> dao.delete(id));
+        }
+    }
+
+    @Test
+    void shouldPageByCreationDateAfterUpdatesAndRestart() {
+        // Given
+        Product first = ProductTestData.builder()
+                .withId(UUID.fromString("3ecb77f7-0114-47a7-ada7-3ec685d202a7"))
+                .withCreated(LocalDateTime.of(2023, 1, 1, 0, 0))
+                .build()
+                .buildProduct();
+        Product second = ProductTestData.builder()
+                .withId(UUID.fromString("ea211d6b-5648-4c6d-8d37-8b16303afdf5"))
+                .withCreated(LocalDateTime.of(2023, 2, 1, 0, 0))
+                .build()
+                .buildProduct();
+        Product third = ProductTestData.builder()
+                .withCreated(LocalDateTime.of(2023, 3, 1, 0, 0))
+                .build()
+                .buildProduct();
+        try (LogStructuredProductDao dao = open(SMALL_SEGMENT)) {
+            dao.save(third);
+            dao.save(second);
+            dao.save(first);
+            first.setCreated(LocalDateTime.of(2023, 4, 1, 0, 0));
+            dao.update(first);
+            dao.delete(second.getId());
+        }
+
+        // When
+        List<Product> actual;
+        try (LogStructuredProductDao dao = open(SMALL_SEGMENT, LogStructuredProductDao.FsyncPolicy.ALWAYS)) {
+            actual = dao.findAll(1, 2);
+        }
+
+        // Then
+        assertEquals(List.of(first), actual);
+    }
+
+    private LogStructuredProductDao open(long segmentSize) {
+        return open(segmentSize, LogStructuredProductDao.FsyncPolicy.NEVER);
+    }
+
+    private LogStructuredProductDao open(long segmentSize, LogStructuredProductDao.FsyncPolicy fsyncPolicy) {
+        return new LogStructuredProductDao(directory, segmentSize, 0.5, 0, fsyncPolicy, 0);
+    }
+}
@@ -0,0 +1,67 @@
+package clevertec.dao.impl;
+
+import clevertec.dto.ProductFilter;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductQueryBuilderTest {
+
+    @Test
+    void shouldBuildQueryWithoutPredicatesWhenFilterIsEmpty() {
+        // Given
+        ProductFilter filter = ProductFilter.builder()
+                .build();
+
+        // When
+        ProductQueryBuilder builder = ProductQueryBuilder.forFilter(filter);
+
+        // Then
+        assertEquals("SELECT * FROM products ORDER BY creation_date, id LIMIT ? OFFSET ?", builder.sql());
+        assertEquals(List.of(20, 0), builder.parameters());
+    }
+
+    @Test
+    void shouldBuildParameterizedRangePredicates() {
+        // Given
+        ProductFilter filter = ProductFilter.builder()
+                .minPrice(10.0)
+                .maxPrice(100.0)
+                .maxWeight(5.0)
+                .sortBy(ProductFilter.SortField.PRICE)
+                .descending(true)
+                .pageSize(10)
+                .pageNumber(3)
+                .build();
+
+        // When
+        ProductQueryBuilder builder = ProductQueryBuilder.forFilter(filter);
+
+        // Then
+        assertEquals("SELECT * FROM products WHERE price >= ? AND price <= ? AND weight <= ?"
+                + " ORDER BY price DESC, id DESC LIMIT ? OFFSET ?", builder.sql());
+        assertEquals(List.of(10.0, 100.0, 5.0, 10, 20), builder.parameters());
+    }
+
+    @Test
+    void shouldBuildHalfOpenCreationDateRange() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2023, 11, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 12, 1, 0, 0);
+        ProductFilter filter = ProductFilter.builder()
+                .createdFrom(from)
+                .createdTo(to)
+                .build();
+
+        // When
+        ProductQueryBuilder builder = ProductQueryBuilder.forFilter(filter);
+
+        // Then
+        assertEquals("SELECT * FROM products WHERE creation_date >= ? AND creation_date < ?"
+                + " ORDER BY creation_date, id LIMIT ? OFFSET ?", builder.sql());
+        assertEquals(List.of(from, to, 20, 0), builder.parameters());
+    }
+}
@@ -0,0 +1,254 @@
+package clevertec.dao.impl;
+
+import clevertec.data.ProductTestData;
+import clevertec.entity.Product;
+import clevertec.exception.DatabaseAccessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindBufferTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    private WriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new WriteBehindBuffer(dataSource, true, 1000, 100, 2);
+    }
+
+    @Test
+    void shouldCoalesceUpdatesOfSameProduct() throws SQLException {
+        // Given
+        Product first = ProductTestData.builder()
+                .withPrice(1.0)
+                .build()
+                .buildProduct();
+        Product second = ProductTestData.builder()
+                .withPrice(2.0)
+                .build()
+                .buildProduct();
+        when(dataSource.getConnection())
+                .thenReturn(connection);
+        when(connection.prepareStatement(anyString()))
+                .thenReturn(preparedStatement);
+        when(preparedStatement.executeBatch())
+                .thenReturn(new int[]{1});
+
+        // When
+        buffer.enqueue(first);
+        buffer.enqueue(second);
+        int flushed = buffer.flush();
+
+        // Then
+        assertEquals(1, flushed);
+        verify(preparedStatement).setDouble(2, 2.0);
+        verify(preparedStatement, times(1)).addBatch();
+        verify(preparedStatement).executeBatch();
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void shouldServePendingProductBeforeFlush() {
+        // Given
+        Product product = ProductTestData.builder()
+                .build()
+                .buildProduct();
+
+        // When
+        buffer.enqueue(product);
+
+        // Then
+        assertEquals(Optional.of(product), buffer.find(product.getId()));
+    }
+
+    @Test
+    void shouldKeepUpdatesWhenFlushFails() throws SQLException {
+        // Given
+        Product product = ProductTestData.builder()
+                .build()
+                .buildProduct();
+        when(dataSource.getConnection())
+                .thenThrow(new SQLException("connection refused"));
+
+        // When
+        buffer.enqueue(product);
+
+        // Then
+        assertThrows(DatabaseAccessException.class, () -> buffer.flush());
+        assertEquals(Optional.of(product), buffer.find(product.getId()));
+    }
+
+    @Test
+    void shouldDropDiscardedUpdate() {
+        // Given
+        Product product = ProductTestData.builder()
+                .build()
+                .buildProduct();
+        buffer.enqueue(product);
+
+        // When
+        buffer.discard(product.getId());
+
+        // Then
+        assertEquals(0, buffer.flush());
+    }
+
+    @Test
+    void shouldKeepProductVisibleUntilBatchCommits() throws SQLException {
+        // Given
+        Product product = ProductTestData.builder()
+                .build()
+                .buildProduct();
+        when(dataSource.getConnection())
+                .thenReturn(connection);
+        when(connection.prepareStatement(anyString()))
+                .thenReturn(preparedStatement);
+        when(preparedStatement.executeBatch())
+                .thenAnswer(invocation -> {
+                    assertEquals(Optional.of(product), buffer.find(product.getId()));
+                    return new int[]{1};
+                });
+        buffer.enqueue(product);
+
+        // When
+        int flushed = buffer.flush();
+
+        // Then
+        assertEquals(1, flushed);
+        assertEquals(Optional.empty(), buffer.find(product.getId()));
+    }
+
+    @Test
+    void shouldKeepNewerVersionEnqueuedDuringFlush() throws SQLException {
+        // Given
+        Product first = ProductTestData.builder()
+                .withPrice(1.0)
+                .build()
+                .buildProduct();
+        Product second = ProductTestData.builder()
+                .withPrice(2.0)
+                .build()
+                .buildProduct();
+        when(dataSource.getConnection())
+                .thenReturn(connection);
+        when(connection.prepareStatement(anyString()))
+                .thenReturn(preparedStatement);
+        when(preparedStatement.executeBatch())
+                .thenAnswer(invocation -> {
+                    buffer.enqueue(second);
+                    return new int[]{1};
+                });
+        buffer.enqueue(first);
+
+        // When
+        buffer.flush();
+
+        // Then
+        assertEquals(Optional.of(second), buffer.find(second.getId()));
+    }
+
+    @Test
+    void shouldRejectUpdatesAfterMaxFailedFlushes() throws SQLException {
+        // Given
+        Product product = ProductTestData.builder()
+                .build()
+                .buildProduct();
+        when(dataSource.getConnection())
+                .thenThrow(new SQLException("connection refused"));
+        buffer.enqueue(product);
+
+        // When
+        assertThrows(DatabaseAccessException.class, () -> buffer.flush());
+        assertThrows(DatabaseAccessException.class, () -> buffer.flush());
+
+        // Then
+        assertEquals(2, buffer.getFailedFlushes());
+        assertTrue(buffer.getLastFailure().isPresent());
+        assertThrows(DatabaseAccessException.class, () -> buffer.enqueue(product));
+        assertEquals(1, buffer.size());
+    }
+
+    @Test
+    void shouldDropRejectedRowAndWriteTheRest() throws SQLException {
+        // Given
+        Product rejected = ProductTestData.builder()
+                .withId(UUID.randomUUID())
+                .build()
+                .buildProduct();
+        Product valid = ProductTestData.builder()
+                .build()
+                .buildProduct();
+        when(dataSource.getConnection())
+                .thenReturn(connection);
+        when(connection.prepareStatement(anyString()))
+                .thenReturn(preparedStatement);
+        when(preparedStatement.executeBatch())
+                .thenThrow(new BatchUpdateException("batch failed", "23514", new int[0]));
+        when(preparedStatement.executeUpdate())
+                .thenThrow(new SQLException("check constraint violated", "23514"))
+                .thenReturn(1);
+        buffer.enqueue(rejected);
+        buffer.enqueue(valid);
+
+        // When
+        int flushed = buffer.flush();
+
+        // Then
+        assertEquals(1, flushed);
+        assertEquals(1, buffer.getDroppedCount());
+        assertEquals(0, buffer.getFailedFlushes());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void shouldDropUpdateThatMatchedNoRow() throws SQLException {
+        // Given
+        Product product = ProductTestData.builder()
+                .build()
+                .buildProduct();
+        when(dataSource.getConnection())
+                .thenReturn(connection);
+        when(connection.prepareStatement(anyString()))
+                .thenReturn(preparedStatement);
+        when(preparedStatement.executeBatch())
+                .thenReturn(new int[]{0});
+        buffer.enqueue(product);
+
+        // When
+        int flushed = buffer.flush();
+
+        // Then
+        assertEquals(0, flushed);
+        assertEquals(1, buffer.getDroppedCount());
+        assertEquals(0, buffer.getFlushedCount());
+        assertEquals(Optional.empty(), buffer.find(product.getId()));
+    }
+}
@@ -0,0 +1,73 @@
+package clevertec.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void shouldRejectWhenLimitIsExhausted() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("reads", 2, 10, 100);
+
+        // When & Then
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(1, limit.getRejected());
+    }
+
+    @Test
+    void shouldGrowOnFastResponsesUnderLoad() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("reads", 2, 3, 100);
+        limit.tryAcquire();
+        limit.tryAcquire();
+
+        // When
+        limit.release(FAST, false);
+        limit.release(FAST, false);
+
+        // Then
+        assertEquals(3, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void shouldBackOffOncePerWindowOfSlowResponses() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("reads", 20, 20, 100);
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+        }
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            limit.release(SLOW, false);
+        }
+
+        // Then
+        assertEquals(18, limit.getLimit());
+    }
+
+    @Test
+    void shouldNotGrowWhenMostlyIdle() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("pdf", 10, 20, 100);
+        limit.tryAcquire();
+
+        // When
+        limit.release(FAST, false);
+
+        // Then
+        assertEquals(10, limit.getLimit());
+    }
+}
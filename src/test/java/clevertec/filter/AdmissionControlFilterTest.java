@@ -0,0 +1,152 @@
+package clevertec.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlFilterTest {
+
+    private final AdaptiveConcurrencyLimit reads = new AdaptiveConcurrencyLimit("reads", 1, 4, 1000);
+    private final AdaptiveConcurrencyLimit writes = new AdaptiveConcurrencyLimit("writes", 1, 4, 1000);
+    private final AdaptiveConcurrencyLimit pdf = new AdaptiveConcurrencyLimit("pdf", 1, 4, 1000);
+    private final AdaptiveConcurrencyLimit catalog = new AdaptiveConcurrencyLimit("catalog", 1, 4, 1000);
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private FilterChain chain;
+
+    @Mock
+    private ServletOutputStream outputStream;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        lenient().when(request.getServletPath())
+                .thenReturn("/products");
+        lenient().when(request.getMethod())
+                .thenReturn("GET");
+        lenient().when(request.getRemoteAddr())
+                .thenReturn("10.0.0.1");
+        lenient().when(response.getOutputStream())
+                .thenReturn(outputStream);
+    }
+
+    @Test
+    void shouldPassRequestAndReleaseLimit() throws Exception {
+        // Given
+        AdmissionControlFilter filter = filter(100);
+        when(response.getStatus())
+                .thenReturn(HttpServletResponse.SC_OK);
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        verify(chain).doFilter(request, response);
+        assertEquals(0, reads.getInFlight());
+    }
+
+    @Test
+    void shouldShedRequestWhenConcurrencyLimitIsExhausted() throws Exception {
+        // Given
+        AdmissionControlFilter filter = filter(100);
+        reads.tryAcquire();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        verify(chain, never()).doFilter(any(), any());
+        verify(response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(response).setHeader("Retry-After", "3");
+        verify(outputStream).write(ErrorBody.OVERLOADED.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldRejectClientAboveRateLimit() throws Exception {
+        // Given
+        AdmissionControlFilter filter = filter(1);
+        when(response.getStatus())
+                .thenReturn(HttpServletResponse.SC_OK);
+        filter.doFilter(request, response, chain);
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        verify(chain).doFilter(request, response);
+        verify(response).setStatus(AdmissionControlFilter.SC_TOO_MANY_REQUESTS);
+        verify(response).setHeader("Retry-After", "1");
+        assertEquals(1, filter.getRateLimited());
+    }
+
+    @Test
+    void shouldClassifyEndpoints() {
+        // Given
+        AdmissionControlFilter filter = filter(100);
+        HttpServletRequest post = request("/products", "POST", null);
+        HttpServletRequest lookup = request("/products", "POST", "/lookup");
+        HttpServletRequest export = request("/products", "GET", "/export");
+        HttpServletRequest pdfRequest = request("/pdf", "GET", "/id");
+        HttpServletRequest catalogRequest = request("/pdf", "GET", "/catalog");
+
+        // When & Then
+        assertEquals(writes, filter.limitFor(post));
+        assertEquals(reads, filter.limitFor(lookup));
+        assertNull(filter.limitFor(export));
+        assertEquals(pdf, filter.limitFor(pdfRequest));
+        assertEquals(catalog, filter.limitFor(catalogRequest));
+    }
+
+    @Test
+    void shouldKeyClientByFirstForwardedAddress() {
+        // Given
+        AdmissionControlFilter filter = filter(100);
+        HttpServletRequest proxied = request("/products", "GET", null);
+        when(proxied.getHeader("X-Forwarded-For"))
+                .thenReturn(" 203.0.113.7 , 10.0.0.1");
+        HttpServletRequest direct = request("/products", "GET", null);
+        when(direct.getRemoteAddr())
+                .thenReturn("10.0.0.2");
+
+        // When & Then
+        assertEquals("203.0.113.7", filter.clientKey(proxied));
+        assertEquals("10.0.0.2", filter.clientKey(direct));
+    }
+
+    private AdmissionControlFilter filter(int requestsPerSecond) {
+        return new AdmissionControlFilter(reads, writes, pdf, catalog,
+                new TokenBucketRateLimiter(requestsPerSecond, 1, 100), "X-Forwarded-For", 3);
+    }
+
+    private static HttpServletRequest request(String servletPath, String method, String pathInfo) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        lenient().when(request.getServletPath()).thenReturn(servletPath);
+        lenient().when(request.getMethod()).thenReturn(method);
+        lenient().when(request.getPathInfo()).thenReturn(pathInfo);
+        return request;
+    }
+}
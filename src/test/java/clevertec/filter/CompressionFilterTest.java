@@ -0,0 +1,159 @@
+package clevertec.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CompressionFilterTest {
+
+    private static final int THRESHOLD = 64;
+
+    private final CompressionFilter filter = new CompressionFilter(THRESHOLD);
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        lenient().when(request.getHeader("Accept-Encoding"))
+                .thenReturn("gzip, deflate");
+        lenient().when(request.getMethod())
+                .thenReturn("GET");
+        lenient().when(response.getOutputStream())
+                .thenReturn(new ByteArrayServletOutputStream(body));
+    }
+
+    @Test
+    void shouldPreferGzipAndHonourZeroQuality() {
+        assertEquals("gzip", CompressionFilter.negotiate("deflate, gzip"));
+        assertEquals("deflate", CompressionFilter.negotiate("gzip;q=0, deflate"));
+        assertEquals("gzip", CompressionFilter.negotiate("*"));
+        assertNull(CompressionFilter.negotiate("identity"));
+        assertNull(CompressionFilter.negotiate(null));
+    }
+
+    @Test
+    void shouldCompressBodyAboveThreshold() throws Exception {
+        // Given
+        byte[] payload = "product,".repeat(100).getBytes();
+        FilterChain chain = (req, resp) -> resp.getOutputStream().write(payload);
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        verify(response).setHeader("Content-Encoding", "gzip");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()))) {
+            assertArrayEquals(payload, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void shouldSendSmallBodyUncompressedWithLength() throws Exception {
+        // Given
+        byte[] payload = "{}".getBytes();
+        FilterChain chain = (req, resp) -> resp.getOutputStream().write(payload);
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        verify(response, never()).setHeader("Content-Encoding", "gzip");
+        verify(response).setContentLength(payload.length);
+        assertArrayEquals(payload, body.toByteArray());
+    }
+
+    @Test
+    void shouldPassThroughPrecompressedBody() throws Exception {
+        // Given
+        byte[] payload = new byte[THRESHOLD * 2];
+        when(response.containsHeader("Content-Encoding"))
+                .thenReturn(true);
+        FilterChain chain = (req, resp) -> {
+            resp.setContentLength(payload.length);
+            resp.getOutputStream().write(payload);
+        };
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        verify(response, never()).setHeader(anyString(), anyString());
+        verify(response).setContentLengthLong(payload.length);
+        assertArrayEquals(payload, body.toByteArray());
+    }
+
+    @Test
+    void shouldDelegateNonBlockingWritesUncompressed() throws Exception {
+        // Given
+        byte[] payload = new byte[THRESHOLD * 2];
+        WriteListener listener = mock(WriteListener.class);
+        FilterChain chain = (req, resp) -> {
+            ServletOutputStream out = resp.getOutputStream();
+            out.setWriteListener(listener);
+            out.write(payload);
+        };
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        verify(response, never()).setHeader("Content-Encoding", "gzip");
+        assertArrayEquals(payload, body.toByteArray());
+        assertSame(listener, ((ByteArrayServletOutputStream) response.getOutputStream()).writeListener);
+    }
+
+    private static final class ByteArrayServletOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream target;
+        private WriteListener writeListener;
+
+        private ByteArrayServletOutputStream(ByteArrayOutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) {
+            target.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            this.writeListener = writeListener;
+        }
+    }
+}
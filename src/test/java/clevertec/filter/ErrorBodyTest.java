@@ -0,0 +1,66 @@
+package clevertec.filter;
+
+import clevertec.exception.ProductNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ErrorBodyTest {
+
+    private static final UUID ID = UUID.fromString("3ecb77f7-0114-47a7-ada7-3ec685d202a7");
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private ServletOutputStream outputStream;
+
+    @Test
+    void shouldKeepNotFoundBodyCompatibleWithExceptionMessage() {
+        // Given
+        ProductNotFoundException exception = new ProductNotFoundException(ID);
+
+        // When
+        ErrorBody body = ErrorBody.productNotFound(ID);
+
+        // Then
+        assertEquals("{\"error\": \"Product not found: " + exception.getMessage() + "\"}", body.toString());
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    @Test
+    void shouldEscapeMessage() {
+        // When
+        ErrorBody body = ErrorBody.of("Invalid request: \"name\"\n\\ \u0001");
+
+        // Then
+        assertEquals("{\"error\": \"Invalid request: \\\"name\\\"\\n\\\\ \\u0001\"}", body.toString());
+    }
+
+    @Test
+    void shouldWriteBytesWithLength() throws Exception {
+        // Given
+        when(response.getOutputStream())
+                .thenReturn(outputStream);
+        byte[] expected = ErrorBody.OVERLOADED.toString().getBytes(StandardCharsets.UTF_8);
+
+        // When
+        ErrorBody.OVERLOADED.write(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+
+        // Then
+        verify(response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(response).setContentLength(expected.length);
+        verify(outputStream).write(expected);
+    }
+}
@@ -0,0 +1,121 @@
+package clevertec.filter;
+
+import clevertec.metrics.HistogramSnapshot;
+import clevertec.metrics.MetricsRegistry;
+import clevertec.metrics.RequestTiming;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RequestMetricsFilterTest {
+
+    private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+    private final RequestMetricsFilter filter = new RequestMetricsFilter(metricsRegistry);
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(request.getMethod())
+                .thenReturn("GET");
+        lenient().when(request.getServletPath())
+                .thenReturn("/products");
+    }
+
+    @Test
+    void shouldTemplateIdentifiersInRoute() {
+        // Given
+        when(request.getPathInfo())
+                .thenReturn("/3ecb77f7-0114-47a7-ada7-3ec685d202a7");
+
+        // When & Then
+        assertEquals("GET /products/{id}", RequestMetricsFilter.route(request));
+    }
+
+    @Test
+    void shouldKeepNamedSegmentsInRoute() {
+        // Given
+        when(request.getPathInfo())
+                .thenReturn("/search");
+
+        // When & Then
+        assertEquals("GET /products/search", RequestMetricsFilter.route(request));
+    }
+
+    @Test
+    void shouldRecordLatencyBytesAndServerTiming() throws Exception {
+        // Given
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(response.getOutputStream())
+                .thenReturn(new ByteArrayServletOutputStream(body));
+        when(response.getStatus())
+                .thenReturn(HttpServletResponse.SC_OK);
+        FilterChain chain = (req, resp) -> {
+            RequestTiming.recordDb(1_000_000);
+            resp.getOutputStream().write("{\"id\":1}".getBytes());
+        };
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        verify(response, atLeastOnce())
+                .setHeader(eq(RequestTiming.SERVER_TIMING_HEADER), startsWith("cache;dur=0.000, db;dur=1.000"));
+        assertEquals(1, metricsRegistry.histogram("http.GET /products.200.us").snapshot().count());
+        HistogramSnapshot db = metricsRegistry.histogram("http.GET /products.db.us").snapshot();
+        assertEquals(1000, db.max());
+        assertEquals(8, metricsRegistry.counter("http.GET /products.bytes-out").sum());
+    }
+
+    private static final class ByteArrayServletOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream target;
+
+        private ByteArrayServletOutputStream(ByteArrayOutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) {
+            target.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            target.write(bytes, offset, length);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package clevertec.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void shouldReturnEmptySnapshotWhenNothingRecorded() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // When
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        // Then
+        assertEquals(0, snapshot.count());
+        assertEquals(0, snapshot.p99());
+    }
+
+    @Test
+    void shouldKeepSmallValuesExact() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // When
+        for (int value = 1; value <= 10; value++) {
+            histogram.record(value);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        // Then
+        assertEquals(10, snapshot.count());
+        assertEquals(5, snapshot.p50());
+        assertEquals(10, snapshot.max());
+        assertEquals(5.5, snapshot.mean());
+    }
+
+    @Test
+    void shouldEstimatePercentilesWithinBucketError() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // When
+        for (int value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        // Then
+        assertWithinError(50_000, snapshot.p50());
+        assertWithinError(99_000, snapshot.p99());
+        assertEquals(100_000, snapshot.max());
+    }
+
+    @Test
+    void shouldMapEveryValueIntoBucketContainingIt() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(LatencyHistogram.bucketUpperBound(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.bucketUpperBound(index - 1) < value);
+        }
+    }
+
+    private void assertWithinError(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 16, "expected ~" + expected + " but was " + actual);
+    }
+}
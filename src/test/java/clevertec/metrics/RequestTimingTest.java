@@ -0,0 +1,66 @@
+package clevertec.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RequestTimingTest {
+
+    @Test
+    void shouldPropagateTimingToExecutorThread() throws Exception {
+        // Given
+        RequestTiming timing = new RequestTiming(0);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Supplier<RequestTiming> task;
+        try (RequestTiming.Scope ignored = timing.bind()) {
+            task = RequestTiming.propagate(() -> {
+                RequestTiming.recordDb(TimeUnit.MILLISECONDS.toNanos(3));
+                return RequestTiming.current();
+            });
+        }
+
+        // When
+        RequestTiming seen = CompletableFuture.supplyAsync(task, executor).get();
+        RequestTiming afterTask = CompletableFuture.supplyAsync(RequestTiming::current, executor).get();
+        executor.shutdown();
+
+        // Then
+        assertSame(timing, seen);
+        assertNull(afterTask);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(3), timing.getDbNanos());
+    }
+
+    @Test
+    void shouldIgnoreRecordsOutsideRequest() {
+        // When
+        RequestTiming.recordCache(100);
+
+        // Then
+        assertNull(RequestTiming.current());
+    }
+
+    @Test
+    void shouldFormatServerTimingInMilliseconds() {
+        // Given
+        RequestTiming timing = new RequestTiming(0);
+        try (RequestTiming.Scope ignored = timing.bind()) {
+            RequestTiming.recordCache(TimeUnit.MICROSECONDS.toNanos(15));
+            RequestTiming.recordDb(TimeUnit.MILLISECONDS.toNanos(2));
+        }
+        timing.addSerialization(TimeUnit.MICROSECONDS.toNanos(500));
+
+        // When
+        String header = timing.toServerTiming(TimeUnit.MILLISECONDS.toNanos(4));
+
+        // Then
+        assertEquals("cache;dur=0.015, db;dur=2.000, ser;dur=0.500, total;dur=4.000", header);
+    }
+}
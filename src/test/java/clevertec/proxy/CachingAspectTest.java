@@ -10,6 +10,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -59,6 +60,55 @@ class CachingAspectTest {
         assert result.equals(Optional.of(product));
     }
 
+    @Test
+    void testCacheProducts() throws Throwable {
+        // Given
+        Product cached = ProductTestData
+                .builder()
+                .build()
+                .buildProduct();
+        Product loaded = ProductTestData
+                .builder()
+                .withId(UUID.fromString("3ecb77f7-0114-47a7-ada7-3ec685d202a7"))
+                .build()
+                .buildProduct();
+        UUID missingId = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+        when(cache.get(cached.getId())).thenReturn(Optional.of(cached));
+        when(cache.get(loaded.getId())).thenReturn(Optional.empty());
+        when(cache.get(missingId)).thenReturn(Optional.empty());
+        when(joinPoint.proceed(new Object[]{List.of(loaded.getId(), missingId)})).thenReturn(List.of(loaded));
+
+        // When
+        Object result = cachingAspect.cacheProducts(joinPoint, List.of(cached.getId(), loaded.getId(), missingId));
+
+        // Then
+        verify(cache).put(loaded.getId(), loaded);
+        assert result.equals(List.of(cached, loaded));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCacheSearch() throws Throwable {
+        // Given
+        Cache<String, List<Product>> searchCache = mock(Cache.class);
+        CachingAspect aspect = new CachingAspect(cache, searchCache);
+        List<Product> products = List.of(ProductTestData
+                .builder()
+                .build()
+                .buildProduct());
+
+        when(searchCache.get("product|10")).thenReturn(Optional.empty());
+        when(joinPoint.proceed()).thenReturn(products);
+
+        // When
+        Object result = aspect.cacheSearch(joinPoint, "Product", 10);
+
+        // Then
+        verify(searchCache).put("product|10", products);
+        assert result.equals(products);
+    }
+
     @Test
     void testCacheSaveProduct() {
         // Given
@@ -0,0 +1,71 @@
+package clevertec.proxy;
+
+import clevertec.exception.DatabaseAccessException;
+import clevertec.metrics.MetricsRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JdbcMetricsAspectTest {
+
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    @Mock
+    private Signature signature;
+
+    private MetricsRegistry metricsRegistry;
+
+    private JdbcMetricsAspect jdbcMetricsAspect;
+
+    @BeforeEach
+    void setUp() {
+        metricsRegistry = new MetricsRegistry();
+        jdbcMetricsAspect = new JdbcMetricsAspect(metricsRegistry);
+    }
+
+    @Test
+    void shouldRecordFailedCallUnderErrorTag() throws Throwable {
+        // Given
+        when(joinPoint.getSignature())
+                .thenReturn(signature);
+        when(signature.getName())
+                .thenReturn("findById");
+        when(joinPoint.proceed())
+                .thenThrow(new DatabaseAccessException("Failed", null));
+
+        // When
+        assertThrows(DatabaseAccessException.class, () -> jdbcMetricsAspect.measure(joinPoint));
+
+        // Then
+        assertEquals(1, metricsRegistry.histogram("jdbc.findById.error.execute.us").snapshot().count());
+        assertEquals(0, metricsRegistry.histogram("jdbc.findById.execute.us").snapshot().count());
+        assertEquals(0, metricsRegistry.histogram("jdbc.findById.rows").snapshot().count());
+    }
+
+    @Test
+    void shouldRecordReturnedCountAsRows() throws Throwable {
+        // Given
+        when(joinPoint.getSignature())
+                .thenReturn(signature);
+        when(signature.getName())
+                .thenReturn("copyIn");
+        when(joinPoint.proceed())
+                .thenReturn(500L);
+
+        // When
+        jdbcMetricsAspect.measure(joinPoint);
+
+        // Then
+        assertEquals(500, metricsRegistry.histogram("jdbc.copyIn.rows").snapshot().max());
+    }
+}
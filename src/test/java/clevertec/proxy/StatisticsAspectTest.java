@@ -0,0 +1,78 @@
+package clevertec.proxy;
+
+import clevertec.dao.ProductDao;
+import clevertec.data.ProductTestData;
+import clevertec.entity.Product;
+import clevertec.stats.CatalogStatistics;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StatisticsAspectTest {
+
+    @Mock
+    private CatalogStatistics catalogStatistics;
+
+    @Mock
+    private ProductDao dao;
+
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    @InjectMocks
+    private StatisticsAspect statisticsAspect;
+
+    @Test
+    void shouldCountConcurrentDeletesOfSameProductOnce() throws Throwable {
+        // Given
+        Product product = ProductTestData.builder()
+                .build()
+                .buildProduct();
+        AtomicReference<Optional<Product>> stored = new AtomicReference<>(Optional.of(product));
+        CountDownLatch bothRead = new CountDownLatch(2);
+        when(joinPoint.getTarget())
+                .thenReturn(dao);
+        when(dao.findById(product.getId()))
+                .thenAnswer(invocation -> {
+                    bothRead.countDown();
+                    return stored.get();
+                });
+        when(joinPoint.proceed())
+                .thenAnswer(invocation -> {
+                    bothRead.await(200, TimeUnit.MILLISECONDS);
+                    stored.set(Optional.empty());
+                    return null;
+                });
+
+        // When
+        CompletableFuture<?> first = CompletableFuture.runAsync(() -> delete(product));
+        CompletableFuture<?> second = CompletableFuture.runAsync(() -> delete(product));
+        CompletableFuture.allOf(first, second).get(10, TimeUnit.SECONDS);
+
+        // Then
+        verify(catalogStatistics, times(1)).onDeleted(product);
+        verify(dao, times(2)).findById(product.getId());
+    }
+
+    private void delete(Product product) {
+        try {
+            statisticsAspect.countDeletedProduct(joinPoint, product.getId());
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package clevertec.service.impl;
+
+import clevertec.data.ProductTestData;
+import clevertec.dto.InfoProductDto;
+import clevertec.exception.ProductNotFoundException;
+import clevertec.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncProductServiceImplTest {
+
+    @Mock
+    private ProductService productService;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldCompleteWithProductFromService() throws Exception {
+        // Given
+        InfoProductDto expected = ProductTestData.builder()
+                .build()
+                .buildInfoProductDto();
+        UUID id = expected.getId();
+        when(productService.get(id))
+                .thenReturn(expected);
+        AsyncProductServiceImpl asyncService = new AsyncProductServiceImpl(productService, executor, 2);
+
+        // When
+        InfoProductDto actual = asyncService.get(id).get(1, TimeUnit.SECONDS);
+
+        // Then
+        verify(productService).get(id);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void shouldCompleteExceptionallyWhenServiceThrows() {
+        // Given
+        UUID id = UUID.fromString("3ecb77f7-0114-47a7-ada7-3ec685d202a7");
+        when(productService.get(id))
+                .thenThrow(new ProductNotFoundException(id));
+        AsyncProductServiceImpl asyncService = new AsyncProductServiceImpl(productService, executor, 2);
+
+        // When
+        CompletableFuture<InfoProductDto> future = asyncService.get(id);
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(ProductNotFoundException.class, exception.getCause());
+    }
+
+    @Test
+    void shouldNotRunMoreTasksThanPoolSize() throws Exception {
+        // Given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        UUID id = UUID.fromString("3ecb77f7-0114-47a7-ada7-3ec685d202a7");
+        when(productService.get(id)).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            release.await(1, TimeUnit.SECONDS);
+            running.decrementAndGet();
+            return null;
+        });
+        AsyncProductServiceImpl asyncService = new AsyncProductServiceImpl(productService, executor, 2);
+
+        // When
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[4];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = asyncService.get(id);
+        }
+        Thread.sleep(100);
+        release.countDown();
+        CompletableFuture.allOf(futures).get(2, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    void shouldReleasePermitBeforeCompletingFuture() throws Exception {
+        // Given
+        CountDownLatch callbackRegistered = new CountDownLatch(1);
+        UUID id = UUID.fromString("3ecb77f7-0114-47a7-ada7-3ec685d202a7");
+        when(productService.get(id)).thenAnswer(invocation -> {
+            callbackRegistered.await(1, TimeUnit.SECONDS);
+            return null;
+        });
+        AsyncProductServiceImpl asyncService = new AsyncProductServiceImpl(productService, executor, 1);
+
+        // When
+        CompletableFuture<InfoProductDto> nested = asyncService.get(id).thenCompose(ignored -> {
+            try {
+                return CompletableFuture.completedFuture(asyncService.get(id).get(500, TimeUnit.MILLISECONDS));
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+        callbackRegistered.countDown();
+
+        // Then
+        assertNull(nested.get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldSkipQueuedTaskWhenResultIsCancelled() {
+        // Given
+        List<Runnable> queue = new ArrayList<>();
+        Executor queueingExecutor = queue::add;
+        UUID id = UUID.fromString("3ecb77f7-0114-47a7-ada7-3ec685d202a7");
+        AsyncProductServiceImpl asyncService = new AsyncProductServiceImpl(productService, queueingExecutor, 1);
+
+        // When
+        asyncService.get(id).cancel(true);
+        queue.forEach(Runnable::run);
+
+        // Then
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void shouldCompleteExceptionallyWhenExecutorRejectsTask() {
+        // Given
+        Executor rejectingExecutor = task -> {
+            throw new RejectedExecutionException("Queue is full");
+        };
+        UUID id = UUID.fromString("3ecb77f7-0114-47a7-ada7-3ec685d202a7");
+        AsyncProductServiceImpl asyncService = new AsyncProductServiceImpl(productService, rejectingExecutor, 1);
+
+        // When
+        CompletableFuture<InfoProductDto> future = asyncService.get(id);
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+    }
+}
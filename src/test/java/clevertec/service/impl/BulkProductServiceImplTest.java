@@ -0,0 +1,149 @@
+package clevertec.service.impl;
+
+import clevertec.config.AppConfig;
+import clevertec.dao.CopyFormat;
+import clevertec.dao.ProductDao;
+import clevertec.dto.ImportResultDto;
+import clevertec.entity.Product;
+import clevertec.mapper.ProductMapperImpl;
+import clevertec.service.BulkProductService.ImportFormat;
+import clevertec.validation.ProductValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BulkProductServiceImplTest {
+
+    @Mock
+    private ProductDao dao;
+
+    private BulkProductServiceImpl bulkProductService;
+
+    @BeforeEach
+    void setUp() {
+        bulkProductService = new BulkProductServiceImpl(dao, new ProductMapperImpl(),
+                new ProductValidator(new AppConfig().validator()), new ObjectMapper(), 2, 10, 64);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldImportValidCsvLinesInChunks() {
+        // Given
+        String csv = """
+                name,price,weight
+                Apple,1.5,0.2
+                "Green Pear",2.0,0.3
+                Plum,3.0,0.1
+                """;
+        when(dao.copyIn(anyList()))
+                .thenAnswer(invocation -> (long) ((List<Product>) invocation.getArgument(0)).size());
+        ArgumentCaptor<List<Product>> chunks = ArgumentCaptor.forClass(List.class);
+
+        // When
+        ImportResultDto result = bulkProductService.importProducts(reader(csv), ImportFormat.CSV);
+
+        // Then
+        verify(dao, times(2)).copyIn(chunks.capture());
+        assertEquals(3, result.getImported());
+        assertEquals(0, result.getRejected());
+        assertEquals("Green Pear", chunks.getAllValues().get(0).get(1).getName());
+        assertEquals(1, chunks.getAllValues().get(1).size());
+    }
+
+    @Test
+    void shouldReportRejectedLines() {
+        // Given
+        String csv = """
+                Apple,-1,0.2
+                Pear,abc,0.3
+                Plum1,3.0,0.1
+                Fig,3.0
+                Kiwi,Infinity,0.1
+                Lime,1.0,NaN
+                """;
+
+        // When
+        ImportResultDto result = bulkProductService.importProducts(reader(csv), ImportFormat.CSV);
+
+        // Then
+        assertEquals(0, result.getImported());
+        assertEquals(6, result.getRejected());
+        assertEquals(2, result.getRejectedLines().get(1).getLine());
+        assertEquals("Invalid price: abc", result.getRejectedLines().get(1).getReason());
+        assertEquals("price: Цена должна быть конечным числом", result.getRejectedLines().get(4).getReason());
+        assertEquals("weight: Вес должен быть больше 0, weight: Вес должен быть конечным числом",
+                result.getRejectedLines().get(5).getReason());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldImportJsonLines() {
+        // Given
+        String jsonLines = """
+                {"name": "Apple", "price": 1.5, "weight": 0.2}
+                {"name": "Pear", "price": 2.0
+                """;
+        when(dao.copyIn(anyList()))
+                .thenAnswer(invocation -> (long) ((List<Product>) invocation.getArgument(0)).size());
+
+        // When
+        ImportResultDto result = bulkProductService.importProducts(reader(jsonLines), ImportFormat.JSON_LINES);
+
+        // Then
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getRejected());
+    }
+
+    @Test
+    void shouldExportThroughCopy() {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        when(dao.copyOut(out, CopyFormat.CSV))
+                .thenReturn(10L);
+
+        // When
+        long exported = bulkProductService.exportProducts(out, CopyFormat.CSV);
+
+        // Then
+        verify(dao).copyOut(out, CopyFormat.CSV);
+        assertEquals(10, exported);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRejectLineLongerThanLimit() {
+        // Given
+        String csv = "Apple,1.5,0.2\n" + "A".repeat(100) + ",1.0,1.0\r\nPlum,3.0,0.1";
+        when(dao.copyIn(anyList()))
+                .thenAnswer(invocation -> (long) ((List<Product>) invocation.getArgument(0)).size());
+
+        // When
+        ImportResultDto result = bulkProductService.importProducts(reader(csv), ImportFormat.CSV);
+
+        // Then
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(2, result.getRejectedLines().get(0).getLine());
+        assertEquals("Line is longer than 64 characters", result.getRejectedLines().get(0).getReason());
+    }
+
+    private BufferedReader reader(String body) {
+        return new BufferedReader(new StringReader(body));
+    }
+}
@@ -2,21 +2,34 @@ package clevertec.service.impl;
 
 import clevertec.data.ProductTestData;
 import clevertec.dto.InfoProductDto;
+import clevertec.dto.ProductFilter;
+import clevertec.dto.ProductLookupDto;
 import clevertec.exception.ProductNotFoundException;
 import clevertec.service.ProductService;
+import clevertec.utils.pdfserializer.CatalogLayout;
+import clevertec.utils.pdfserializer.CatalogPdfWriter;
+import clevertec.utils.pdfserializer.InMemoryPdfStore;
+import clevertec.utils.pdfserializer.PdfDocument;
 import clevertec.utils.pdfserializer.PdfSerializer;
+import clevertec.utils.pdfserializer.PdfStore;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,30 +44,139 @@ class PdfServiceImplTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private PdfStore pdfStore;
+
+    @Mock
+    private CatalogPdfWriter catalogPdfWriter;
+
 
     @Test
-    public void productToPdf_Success() {
+    public void productToPdf_Success() throws IOException {
         // Given
         InfoProductDto infoProductDto = ProductTestData.builder()
                 .build()
                 .buildInfoProductDto();
         UUID id = infoProductDto.getId();
-        Path expectedPath = Paths.get("test.pdf");
+        PdfDocument expected = PdfDocument.ofBuffer("test.pdf", new InMemoryPdfStore(1, 16, 16).acquire());
 
         when(productService.get(id))
                 .thenReturn(infoProductDto);
-        when(pdfSerializer.serializeObjectToPdf(infoProductDto))
-                .thenReturn(expectedPath);
+        when(pdfStore.open(eq(id), eq(PdfServiceImpl.contentHash(infoProductDto)), any()))
+                .thenReturn(expected);
 
         // When
-        Path actualPath = pdfService.productToPdf(id);
+        PdfDocument actual = pdfService.productToPdf(id);
 
         // Then
         verify(productService)
                 .get(id);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void productToPdf_RenderedOnCacheMiss() throws IOException {
+        // Given
+        InfoProductDto infoProductDto = ProductTestData.builder()
+                .build()
+                .buildInfoProductDto();
+        UUID id = infoProductDto.getId();
+        OutputStream out = new ByteArrayOutputStream();
+
+        when(productService.get(id))
+                .thenReturn(infoProductDto);
+        when(pdfStore.open(eq(id), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(2, PdfStore.PdfRenderer.class).render(out);
+                    return null;
+                });
+
+        // When
+        pdfService.productToPdf(id);
+
+        // Then
         verify(pdfSerializer)
-                .serializeObjectToPdf(infoProductDto);
-        assertEquals(expectedPath, actualPath);
+                .serializeObjectToPdf(infoProductDto, out);
+    }
+
+    @Test
+    public void contentHash_ChangesWithProductData() {
+        // Given
+        InfoProductDto product = ProductTestData.builder()
+                .build()
+                .buildInfoProductDto();
+        String original = PdfServiceImpl.contentHash(product);
+
+        // When
+        product.setPrice(product.getPrice() + 1);
+
+        // Then
+        assertNotEquals(original, PdfServiceImpl.contentHash(product));
+    }
+
+    @Test
+    public void catalogToPdf_LoadsIdsInBatchesAndSkipsMissing() throws IOException {
+        // Given
+        InfoProductDto found = ProductTestData.builder()
+                .build()
+                .buildInfoProductDto();
+        UUID missing = UUID.randomUUID();
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), found.getId(), missing);
+        ArgumentCaptor<CatalogPdfWriter.BatchLoader> loader = ArgumentCaptor.forClass(CatalogPdfWriter.BatchLoader.class);
+
+        when(catalogPdfWriter.getMaxProducts())
+                .thenReturn(100);
+        when(productService.getByIds(List.of(found.getId(), missing)))
+                .thenReturn(List.of(new ProductLookupDto(found.getId(), true, found),
+                        new ProductLookupDto(missing, false, null)));
+
+        // When
+        pdfService.catalogToPdf(ids, CatalogLayout.TABLE, new ByteArrayOutputStream());
+
+        // Then
+        verify(catalogPdfWriter)
+                .write(loader.capture(), eq(CatalogLayout.TABLE), any());
+        assertEquals(List.of(found), loader.getValue().load(1, 2));
+        assertNull(loader.getValue().load(2, 2));
+    }
+
+    @Test
+    public void catalogToPdf_PagesWholeCatalogByLastId() throws IOException {
+        // Given
+        InfoProductDto first = ProductTestData.builder()
+                .build()
+                .buildInfoProductDto();
+        InfoProductDto second = ProductTestData.builder()
+                .withId(UUID.randomUUID())
+                .build()
+                .buildInfoProductDto();
+        ArgumentCaptor<CatalogPdfWriter.BatchLoader> loader = ArgumentCaptor.forClass(CatalogPdfWriter.BatchLoader.class);
+
+        when(productService.getProductsAfter(null, 2))
+                .thenReturn(List.of(first, second));
+        when(productService.getProductsAfter(second.getId(), 2))
+                .thenReturn(List.of());
+
+        // When
+        pdfService.catalogToPdf((ProductFilter) null, CatalogLayout.PAGE, new ByteArrayOutputStream());
+
+        // Then
+        verify(catalogPdfWriter)
+                .write(loader.capture(), eq(CatalogLayout.PAGE), any());
+        assertEquals(List.of(first, second), loader.getValue().load(0, 2));
+        assertNull(loader.getValue().load(1, 2));
+    }
+
+    @Test
+    public void catalogToPdf_TooManyIds() {
+        // Given
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        when(catalogPdfWriter.getMaxProducts())
+                .thenReturn(2);
+
+        // When & Then
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> pdfService.catalogToPdf(ids, CatalogLayout.PAGE, new ByteArrayOutputStream()));
     }
 
     @Test
@@ -4,9 +4,11 @@ import clevertec.dao.ProductDao;
 import clevertec.data.ProductTestData;
 import clevertec.dto.InfoProductDto;
 import clevertec.dto.ProductDto;
+import clevertec.dto.ProductLookupDto;
 import clevertec.entity.Product;
 import clevertec.exception.ProductNotFoundException;
 import clevertec.mapper.ProductMapper;
+import clevertec.validation.ProductValidator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -16,6 +18,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -30,6 +33,8 @@ public class ProductServiceImplTest {
     private ProductMapper productMapper;
     @Mock
     private ProductDao dao;
+    @Mock
+    private ProductValidator productValidator;
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -102,6 +107,63 @@ public class ProductServiceImplTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    public void shouldReturnSearchResults() {
+        // Given
+        Product product = ProductTestData.builder()
+                .build()
+                .buildProduct();
+        InfoProductDto infoProductDto = ProductTestData.builder()
+                .build()
+                .buildInfoProductDto();
+
+        when(dao.searchByName("Product", 5))
+                .thenReturn(List.of(product));
+        when(productMapper.toInfoProductDto(product))
+                .thenReturn(infoProductDto);
+
+        // When
+        List<InfoProductDto> result = productService.search(" Product ", 5);
+
+        // Then
+        verify(dao)
+                .searchByName("Product", 5);
+        assertEquals(List.of(infoProductDto), result);
+    }
+
+    @Test
+    public void shouldReturnLookupResultsInRequestOrder() {
+        // Given
+        Product product = ProductTestData.builder()
+                .build()
+                .buildProduct();
+        InfoProductDto infoProductDto = ProductTestData.builder()
+                .build()
+                .buildInfoProductDto();
+        UUID missingId = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        List<UUID> ids = List.of(missingId, product.getId(), missingId);
+
+        when(dao.findAllById(Set.of(missingId, product.getId())))
+                .thenReturn(List.of(product));
+        when(productMapper.toInfoProductDto(product))
+                .thenReturn(infoProductDto);
+
+        // When
+        List<ProductLookupDto> result = productService.getByIds(ids);
+
+        // Then
+        assertEquals(List.of(
+                new ProductLookupDto(missingId, false, null),
+                new ProductLookupDto(product.getId(), true, infoProductDto),
+                new ProductLookupDto(missingId, false, null)), result);
+    }
+
+    @Test
+    public void shouldRejectBlankSearchQuery() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> productService.search("  ", 5));
+    }
+
     @Test
     public void shouldCreateProductAndReturnUuid() {
         //Given
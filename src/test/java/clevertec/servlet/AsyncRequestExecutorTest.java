@@ -0,0 +1,129 @@
+package clevertec.servlet;
+
+import clevertec.filter.ErrorHandlingFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncRequestExecutorTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private AsyncContext asyncContext;
+
+    @Mock
+    private ExecutorService executor;
+
+    private AsyncRequestExecutor asyncRequestExecutor;
+
+    @BeforeEach
+    void setUp() {
+        when(request.startAsync())
+                .thenReturn(asyncContext);
+        asyncRequestExecutor = new AsyncRequestExecutor(executor, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        verify(asyncContext).setTimeout(1000);
+    }
+
+    @Test
+    void shouldWriteResultAndComplete() {
+        // Given
+        List<String> written = new CopyOnWriteArrayList<>();
+
+        // When
+        asyncRequestExecutor.respond(request, CompletableFuture.completedFuture("ok"), written::add);
+
+        // Then
+        assertEquals(List.of("ok"), written);
+        verify(asyncContext).complete();
+        verify(asyncContext, never()).dispatch();
+    }
+
+    @Test
+    void shouldDispatchTimeoutAndIgnoreLateResult() throws Exception {
+        // Given
+        CompletableFuture<String> result = new CompletableFuture<>();
+        List<String> written = new CopyOnWriteArrayList<>();
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+        asyncRequestExecutor.respond(request, result, written::add);
+        verify(asyncContext).addListener(listener.capture());
+
+        // When
+        listener.getValue().onTimeout(new AsyncEvent(asyncContext));
+        result.complete("late");
+
+        // Then
+        assertTrue(written.isEmpty());
+        verify(request).setAttribute(eq(ErrorHandlingFilter.ASYNC_ERROR_ATTRIBUTE), any(TimeoutException.class));
+        verify(asyncContext).dispatch();
+        verify(asyncContext, never()).complete();
+    }
+
+    @Test
+    void shouldCloseLateResultAfterTimeout() throws Exception {
+        // Given
+        AtomicBoolean closed = new AtomicBoolean();
+        AutoCloseable document = () -> closed.set(true);
+        List<AutoCloseable> written = new CopyOnWriteArrayList<>();
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+        asyncRequestExecutor.execute(request, () -> document, written::add);
+        verify(executor).submit(task.capture());
+        verify(asyncContext).addListener(listener.capture());
+
+        // When
+        listener.getValue().onTimeout(new AsyncEvent(asyncContext));
+        task.getValue().run();
+
+        // Then
+        assertTrue(written.isEmpty());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void shouldDispatchRejectionWhenExecutorIsSaturated() {
+        // Given
+        when(executor.submit(any(Runnable.class)))
+                .thenThrow(new RejectedExecutionException("queue is full"));
+
+        // When
+        asyncRequestExecutor.execute(request, () -> "ok", value -> {
+        });
+
+        // Then
+        verify(request, timeout(1000))
+                .setAttribute(eq(ErrorHandlingFilter.ASYNC_ERROR_ATTRIBUTE), any(RejectedExecutionException.class));
+        verify(asyncContext).dispatch();
+    }
+}
@@ -0,0 +1,292 @@
+package clevertec.servlet;
+
+import clevertec.data.ProductTestData;
+import clevertec.dto.InfoProductDto;
+import clevertec.dto.ProductDto;
+import clevertec.metrics.RequestTiming;
+import clevertec.utils.json.JsonCodecs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BodyCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BodyCodec codec = new BodyCodec(objectMapper);
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Test
+    void shouldSetStatusBeforeWritingBody() throws IOException {
+        // Given
+        List<InfoProductDto> products = List.of(ProductTestData.builder()
+                .build()
+                .buildInfoProductDto());
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(response.getOutputStream())
+                .thenReturn(new ByteArrayServletOutputStream(body));
+
+        // When
+        codec.write(request, response, products, HttpServletResponse.SC_OK);
+
+        // Then
+        InOrder order = inOrder(response);
+        order.verify(response).setStatus(HttpServletResponse.SC_OK);
+        order.verify(response).getOutputStream();
+        assertEquals(objectMapper.writeValueAsString(products), body.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldNotWriteBodyForNoContent() throws IOException {
+        // When
+        codec.write(request, response, null, HttpServletResponse.SC_NO_CONTENT);
+
+        // Then
+        verify(response).setStatus(HttpServletResponse.SC_NO_CONTENT);
+        verify(response, never()).getOutputStream();
+    }
+
+    @Test
+    void shouldWriteSmileWhenAccepted() throws IOException {
+        // Given
+        InfoProductDto product = ProductTestData.builder()
+                .build()
+                .buildInfoProductDto();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(request.getHeader("Accept"))
+                .thenReturn("application/x-jackson-smile, application/json;q=0.5");
+        when(response.getOutputStream())
+                .thenReturn(new ByteArrayServletOutputStream(body));
+
+        // When
+        codec.write(request, response, product, HttpServletResponse.SC_OK);
+
+        // Then
+        verify(response).setContentType(BodyCodec.SMILE);
+        ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory());
+        assertEquals(product, smileMapper.readValue(body.toByteArray(), InfoProductDto.class));
+    }
+
+    @Test
+    void shouldPickHighestWeightedAcceptedType() throws IOException {
+        // Given
+        InfoProductDto product = ProductTestData.builder()
+                .build()
+                .buildInfoProductDto();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(request.getHeader("Accept"))
+                .thenReturn("application/json;q=0.1, application/x-jackson-smile");
+        when(response.getOutputStream())
+                .thenReturn(new ByteArrayServletOutputStream(body));
+
+        // When
+        codec.write(request, response, product, HttpServletResponse.SC_OK);
+
+        // Then
+        verify(response).setContentType(BodyCodec.SMILE);
+        ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory());
+        assertEquals(product, smileMapper.readValue(body.toByteArray(), InfoProductDto.class));
+    }
+
+    @Test
+    void shouldPreferJsonWhenBinaryTypeHasLowerWeight() throws IOException {
+        // Given
+        InfoProductDto product = ProductTestData.builder()
+                .build()
+                .buildInfoProductDto();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(request.getHeader("Accept"))
+                .thenReturn("application/cbor;q=0.5, */*;q=0.8");
+        when(response.getOutputStream())
+                .thenReturn(new ByteArrayServletOutputStream(body));
+
+        // When
+        codec.write(request, response, product, HttpServletResponse.SC_OK);
+
+        // Then
+        verify(response, never()).setContentType(BodyCodec.CBOR);
+        assertEquals(product, objectMapper.readValue(body.toByteArray(), InfoProductDto.class));
+    }
+
+    @Test
+    void shouldReadCborBody() throws IOException {
+        // Given
+        ProductDto expected = ProductTestData.builder()
+                .build()
+                .buildProductDto();
+        byte[] cbor = objectMapper.copyWith(new CBORFactory()).writeValueAsBytes(expected);
+        when(request.getContentType())
+                .thenReturn(BodyCodec.CBOR);
+        when(request.getInputStream())
+                .thenReturn(new ByteArrayServletInputStream(cbor));
+
+        // When
+        ProductDto actual = codec.read(request, ProductDto.class);
+
+        // Then
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void shouldReadBodyFromInputStream() throws IOException {
+        // Given
+        ProductDto expected = ProductTestData.builder()
+                .build()
+                .buildProductDto();
+        byte[] json = objectMapper.writeValueAsBytes(expected);
+        when(request.getInputStream())
+                .thenReturn(new ByteArrayServletInputStream(json));
+
+        // When
+        ProductDto actual = codec.read(request, ProductDto.class);
+
+        // Then
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void shouldWriteSameJsonWithGeneratedCodecs() throws IOException {
+        // Given
+        BodyCodec generated = new BodyCodec(objectMapper, new JsonCodecs(), "generated");
+        List<InfoProductDto> products = List.of(ProductTestData.builder()
+                .build()
+                .buildInfoProductDto());
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(response.getOutputStream())
+                .thenReturn(new ByteArrayServletOutputStream(body));
+
+        // When
+        generated.write(request, response, products, HttpServletResponse.SC_OK);
+
+        // Then
+        assertEquals(objectMapper.writeValueAsString(products), body.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldSetServerTimingWithSerializationBeforeWritingBody() throws IOException {
+        // Given
+        RequestTiming timing = new RequestTiming(System.nanoTime());
+        List<InfoProductDto> products = List.of(ProductTestData.builder()
+                .build()
+                .buildInfoProductDto());
+        byte[] expected = objectMapper.writeValueAsBytes(products);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(request.getAttribute(RequestTiming.ATTRIBUTE))
+                .thenReturn(timing);
+        when(response.getOutputStream())
+                .thenReturn(new ByteArrayServletOutputStream(body));
+
+        // When
+        codec.write(request, response, products, HttpServletResponse.SC_OK);
+
+        // Then
+        InOrder order = inOrder(response);
+        order.verify(response)
+                .setHeader(eq(RequestTiming.SERVER_TIMING_HEADER), argThat(value -> value.contains("ser;dur=")));
+        order.verify(response).setContentLength(expected.length);
+        order.verify(response).getOutputStream();
+        assertTrue(timing.getSerializationNanos() > 0);
+        assertEquals(new String(expected, StandardCharsets.UTF_8), body.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldStreamBodyLargerThanBuffer() throws IOException {
+        // Given
+        List<String> values = Collections.nCopies(BodyCodec.BUFFERED_BODY_BYTES / 8, "0123456789");
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(response.getOutputStream())
+                .thenReturn(new ByteArrayServletOutputStream(body));
+
+        // When
+        codec.write(request, response, values, HttpServletResponse.SC_OK);
+
+        // Then
+        verify(response, never()).setContentLength(anyInt());
+        assertEquals(objectMapper.writeValueAsString(values), body.toString(StandardCharsets.UTF_8));
+    }
+
+    private static final class ByteArrayServletOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream target;
+
+        private ByteArrayServletOutputStream(ByteArrayOutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) {
+            target.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+
+    private static final class ByteArrayServletInputStream extends ServletInputStream {
+
+        private final ByteArrayInputStream source;
+
+        private ByteArrayServletInputStream(byte[] bytes) {
+            this.source = new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public int read() {
+            return source.read();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return source.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package clevertec.stats;
+
+import clevertec.dao.ProductDao;
+import clevertec.data.ProductTestData;
+import clevertec.dto.CatalogStatisticsDto;
+import clevertec.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogStatisticsTest {
+
+    private static final UUID FIRST_ID = UUID.fromString("3ecb77f7-0114-47a7-ada7-3ec685d202a7");
+    private static final UUID SECOND_ID = UUID.fromString("ea211d6b-5648-4c6d-8d37-8b16303afdf5");
+
+    @Mock
+    private ProductDao dao;
+
+    private CatalogStatistics catalogStatistics;
+
+    @BeforeEach
+    void setUp() {
+        catalogStatistics = new CatalogStatistics(dao, 300);
+    }
+
+    @Test
+    void shouldLoadStatisticsFromDatabase() {
+        // Given
+        streamProducts(product(FIRST_ID, 10.0, 1.0), product(SECOND_ID, 30.0, 2.0));
+
+        // When
+        catalogStatistics.reconcile();
+        CatalogStatisticsDto statistics = catalogStatistics.getStatistics();
+
+        // Then
+        assertEquals(2, statistics.getCount());
+        assertEquals(10.0, statistics.getMinPrice());
+        assertEquals(30.0, statistics.getMaxPrice());
+        assertEquals(20.0, statistics.getAvgPrice());
+        assertEquals(3.0, statistics.getTotalWeight());
+    }
+
+    @Test
+    void shouldReplaceValuesOnUpdate() {
+        // Given
+        catalogStatistics.onSaved(product(FIRST_ID, 10.0, 1.0));
+        catalogStatistics.onSaved(product(SECOND_ID, 30.0, 2.0));
+
+        // When
+        catalogStatistics.onUpdated(product(SECOND_ID, 30.0, 2.0), product(SECOND_ID, 5.0, 4.0));
+        CatalogStatisticsDto statistics = catalogStatistics.getStatistics();
+
+        // Then
+        assertEquals(2, statistics.getCount());
+        assertEquals(5.0, statistics.getMinPrice());
+        assertEquals(10.0, statistics.getMaxPrice());
+        assertEquals(5.0, statistics.getTotalWeight());
+    }
+
+    @Test
+    void shouldForgetDeletedProduct() {
+        // Given
+        catalogStatistics.onSaved(product(FIRST_ID, 10.0, 1.0));
+
+        // When
+        catalogStatistics.onDeleted(product(FIRST_ID, 10.0, 1.0));
+        CatalogStatisticsDto statistics = catalogStatistics.getStatistics();
+
+        // Then
+        assertEquals(0, statistics.getCount());
+        assertNull(statistics.getMinPrice());
+        assertNull(statistics.getAvgPrice());
+        assertEquals(0.0, statistics.getTotalWeight());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldReplayChangesMadeDuringStream() {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(0);
+            consumer.accept(product(FIRST_ID, 10.0, 1.0));
+            catalogStatistics.onSaved(product(SECOND_ID, 30.0, 2.0));
+            return null;
+        }).when(dao).streamAll(any(Consumer.class));
+
+        // When
+        catalogStatistics.reconcile();
+        CatalogStatisticsDto statistics = catalogStatistics.getStatistics();
+
+        // Then
+        assertEquals(2, statistics.getCount());
+        assertEquals(30.0, statistics.getMaxPrice());
+        assertEquals(3.0, statistics.getTotalWeight());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCorrectDriftWhileCatalogKeepsChanging() {
+        // Given
+        catalogStatistics.onSaved(product(FIRST_ID, 10.0, 1.0));
+        doAnswer(invocation -> {
+            catalogStatistics.onSaved(product(SECOND_ID, 30.0, 2.0));
+            return null;
+        }).when(dao).streamAll(any(Consumer.class));
+
+        // When
+        catalogStatistics.reconcile();
+        catalogStatistics.onDeleted(product(SECOND_ID, 30.0, 2.0));
+
+        // Then
+        assertEquals(0, catalogStatistics.getStatistics().getCount());
+        assertEquals(0.0, catalogStatistics.getStatistics().getTotalWeight());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void streamProducts(Product... products) {
+        doAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(0);
+            for (Product product : products) {
+                consumer.accept(product);
+            }
+            return null;
+        }).when(dao).streamAll(any(Consumer.class));
+    }
+
+    private Product product(UUID id, double price, double weight) {
+        return ProductTestData.builder()
+                .withId(id)
+                .withPrice(price)
+                .withWeight(weight)
+                .build()
+                .buildProduct();
+    }
+}
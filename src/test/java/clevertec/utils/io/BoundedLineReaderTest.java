@@ -0,0 +1,44 @@
+package clevertec.utils.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedLineReaderTest {
+
+    @Test
+    void shouldSplitLinesOnAllTerminators() throws IOException {
+        // Given
+        BoundedLineReader reader = new BoundedLineReader(new StringReader("a\nb\r\nc\rd\n\ne"), 10);
+
+        // When, Then
+        assertThat(reader.readLine()).isEqualTo("a");
+        assertThat(reader.readLine()).isEqualTo("b");
+        assertThat(reader.readLine()).isEqualTo("c");
+        assertThat(reader.readLine()).isEqualTo("d");
+        assertThat(reader.readLine()).isEmpty();
+        assertThat(reader.readLine()).isEqualTo("e");
+        assertThat(reader.readLine()).isNull();
+    }
+
+    @Test
+    void shouldTruncateLongLineAndSkipItsRest() throws IOException {
+        // Given
+        BoundedLineReader reader = new BoundedLineReader(new StringReader("x".repeat(20_000) + "\nok\n"), 4);
+
+        // When
+        String first = reader.readLine();
+        boolean firstTruncated = reader.isTruncated();
+        String second = reader.readLine();
+
+        // Then
+        assertThat(first).isEqualTo("xxxx");
+        assertThat(firstTruncated).isTrue();
+        assertThat(second).isEqualTo("ok");
+        assertThat(reader.isTruncated()).isFalse();
+        assertThat(reader.readLine()).isNull();
+    }
+}
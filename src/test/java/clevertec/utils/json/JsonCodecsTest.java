@@ -0,0 +1,136 @@
+package clevertec.utils.json;
+
+import clevertec.dto.InfoProductDto;
+import clevertec.dto.ProductDto;
+import clevertec.dto.ProductLookupDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonCodecsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final JsonCodecs codecs = new JsonCodecs();
+
+    @Test
+    void shouldWriteSameJsonAsObjectMapper() throws IOException {
+        // Given
+        InfoProductDto product = InfoProductDto.builder()
+                .id(UUID.randomUUID())
+                .name("Café \"quoted\" \\ \n\t\u0001 😀")
+                .price(1e21)
+                .build();
+        List<ProductLookupDto> lookups = List.of(
+                new ProductLookupDto(product.getId(), true, product),
+                new ProductLookupDto(UUID.randomUUID(), false, null));
+
+        // When
+        String single = write(product);
+        String list = write(lookups);
+
+        // Then
+        assertThat(single).isEqualTo(objectMapper.writeValueAsString(product));
+        assertThat(list).isEqualTo(objectMapper.writeValueAsString(lookups));
+    }
+
+    @Test
+    void shouldWriteNonFiniteDoubleAsString() throws IOException {
+        // Given
+        InfoProductDto product = InfoProductDto.builder()
+                .price(Double.NaN)
+                .weight(Double.POSITIVE_INFINITY)
+                .build();
+
+        // When
+        String actual = write(product);
+
+        // Then
+        assertThat(actual).isEqualTo(objectMapper.writeValueAsString(product));
+    }
+
+    @Test
+    void shouldOnlyWriteKnownTypesAndHomogeneousLists() {
+        // Given
+        InfoProductDto product = InfoProductDto.builder().build();
+
+        // When, Then
+        assertThat(codecs.canWrite(product)).isTrue();
+        assertThat(codecs.canWrite(List.of())).isTrue();
+        assertThat(codecs.canWrite(List.of(product, ProductDto.builder().build()))).isFalse();
+        assertThat(codecs.canWrite(Map.of("count", 1))).isFalse();
+        assertThat(codecs.canWrite(null)).isFalse();
+    }
+
+    @Test
+    void shouldReadWhatObjectMapperWrites() throws IOException {
+        // Given
+        ProductDto expected = ProductDto.builder()
+                .name("Wireless \"Pro\" Headphones")
+                .price(129.99)
+                .weight(null)
+                .build();
+        String json = " \n" + objectMapper.writeValueAsString(expected).replace(",", " ,\t");
+
+        // When
+        ProductDto actual = read(ProductDto.class, json);
+
+        // Then
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldReadEscapesAndQuotedNumbers() throws IOException {
+        // Given
+        String json = "{\"name\":\"Caf\\u00e9\\/Bar\",\"price\":\"12.5\",\"weight\":3}";
+
+        // When
+        ProductDto actual = read(ProductDto.class, json);
+
+        // Then
+        assertThat(actual.getName()).isEqualTo("Café/Bar");
+        assertThat(actual.getPrice()).isEqualTo(12.5);
+        assertThat(actual.getWeight()).isEqualTo(3.0);
+    }
+
+    @Test
+    void shouldRejectUnknownField() {
+        // Given
+        String json = "{\"name\":\"Phone\",\"color\":\"red\"}";
+
+        // When, Then
+        assertThatThrownBy(() -> read(ProductDto.class, json))
+                .isInstanceOf(JsonCodecException.class)
+                .hasMessageContaining("Unrecognized field \"color\"");
+    }
+
+    @Test
+    void shouldRejectMalformedJson() {
+        // Given
+        String json = "{\"name\":\"Phone\",,\"price\":1}";
+
+        // When, Then
+        assertThatThrownBy(() -> read(ProductDto.class, json))
+                .isInstanceOf(JsonCodecException.class);
+    }
+
+    private String write(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codecs.write(value, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private <T> T read(Class<T> type, String json) throws IOException {
+        return codecs.read(codecs.find(type), new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,217 @@
+package clevertec.utils.pdfserializer;
+
+import clevertec.dto.InfoProductDto;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogPdfWriterTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldMergeFragmentsInBatchOrder() throws IOException {
+        // Given
+        CatalogPdfWriter writer = new CatalogPdfWriter(new PdfSerializer(), executor, 16, 3, 2, 100);
+        List<InfoProductDto> products = products(10);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        int fragments = writer.write(slicing(products), CatalogLayout.PAGE, out);
+
+        // Then
+        assertThat(fragments).isEqualTo(4);
+        PdfReader reader = new PdfReader(out.toByteArray());
+        assertThat(reader.getNumberOfPages()).isEqualTo(10);
+        for (int page = 1; page <= 10; page++) {
+            assertThat(PdfTextExtractor.getTextFromPage(reader, page)).contains("Product " + (page - 1));
+        }
+        reader.close();
+    }
+
+    @Test
+    void shouldKeepAtMostWindowBatchesInFlight() throws Exception {
+        // Given
+        CountDownLatch firstBatch = new CountDownLatch(1);
+        BlockingSerializer serializer = new BlockingSerializer(firstBatch);
+        CatalogPdfWriter writer = new CatalogPdfWriter(serializer, executor, 16, 1, 2, 100);
+        CatalogPdfWriter.BatchLoader slicing = slicing(products(8));
+        Set<Integer> loaded = ConcurrentHashMap.newKeySet();
+
+        // When
+        CompletableFuture<Integer> result = CompletableFuture.supplyAsync(() -> {
+            try {
+                return writer.write((batchIndex, batchSize) -> {
+                    loaded.add(batchIndex);
+                    return slicing.load(batchIndex, batchSize);
+                }, CatalogLayout.TABLE, new ByteArrayOutputStream());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        while (serializer.started.get() < 2) {
+            Thread.onSpinWait();
+        }
+        Thread.sleep(100);
+
+        // Then
+        assertThat(loaded).containsExactlyInAnyOrder(0, 1);
+        assertThat(serializer.started).hasValue(2);
+        firstBatch.countDown();
+        assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(8);
+    }
+
+    @Test
+    void shouldRejectCatalogBeforeWritingWhenCapacityIsTaken() throws Exception {
+        // Given
+        CountDownLatch firstBatch = new CountDownLatch(1);
+        BlockingSerializer serializer = new BlockingSerializer(firstBatch);
+        CatalogPdfWriter writer = new CatalogPdfWriter(serializer, executor, 2, 1, 2, 100);
+        CompletableFuture<Integer> running = CompletableFuture.supplyAsync(() -> {
+            try {
+                return writer.write(slicing(products(4)), CatalogLayout.TABLE, new ByteArrayOutputStream());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        while (serializer.started.get() == 0) {
+            Thread.onSpinWait();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When, Then
+        assertThatThrownBy(() -> writer.write(slicing(products(1)), CatalogLayout.PAGE, out))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(out.size()).isZero();
+        firstBatch.countDown();
+        assertThat(running.get(10, TimeUnit.SECONDS)).isEqualTo(4);
+        assertThat(writer.write(slicing(products(1)), CatalogLayout.PAGE, out)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldStopAtMaxProducts() throws IOException {
+        // Given
+        CatalogPdfWriter writer = new CatalogPdfWriter(new PdfSerializer(), executor, 16, 5, 4, 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        int fragments = writer.write((batchIndex, batchSize) -> {
+            loads.incrementAndGet();
+            return products(batchSize);
+        }, CatalogLayout.TABLE, new ByteArrayOutputStream());
+
+        // Then
+        assertThat(fragments).isEqualTo(2);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldWriteValidDocumentForEmptyCatalog() throws IOException {
+        // Given
+        CatalogPdfWriter writer = new CatalogPdfWriter(new PdfSerializer(), executor, 16, 5, 2, 100);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        int fragments = writer.write((batchIndex, batchSize) -> null, CatalogLayout.PAGE, out);
+
+        // Then
+        assertThat(fragments).isZero();
+        PdfReader reader = new PdfReader(out.toByteArray());
+        assertThat(reader.getNumberOfPages()).isEqualTo(1);
+        reader.close();
+    }
+
+    @Test
+    void shouldPropagateLoaderFailureBeforeWritingDocument() {
+        // Given
+        CatalogPdfWriter writer = new CatalogPdfWriter(new PdfSerializer(), executor, 16, 5, 2, 100);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When, Then
+        assertThatThrownBy(() -> writer.write((batchIndex, batchSize) -> {
+            throw new IllegalArgumentException("price range is invalid");
+        }, CatalogLayout.PAGE, out))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(out.size()).isZero();
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CatalogPdfWriter.BatchLoader slicing(List<InfoProductDto> products) {
+        return (batchIndex, batchSize) -> {
+            int from = batchIndex * batchSize;
+            return from < products.size() ? products.subList(from, Math.min(from + batchSize, products.size())) : null;
+        };
+    }
+
+    private static List<InfoProductDto> products(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> InfoProductDto.builder()
+                        .id(UUID.randomUUID())
+                        .name("Product " + i)
+                        .price(10.0 + i)
+                        .weight(1.0)
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Рендеринг таблицы, который задерживает первый пакет (единственный с заголовком) до открытия защелки.
+     */
+    private static class BlockingSerializer extends PdfSerializer {
+
+        private final CountDownLatch firstBatch;
+        private final AtomicInteger started = new AtomicInteger();
+
+        private BlockingSerializer(CountDownLatch firstBatch) {
+            this.firstBatch = firstBatch;
+        }
+
+        @Override
+        public void serializeTableToPdf(Class<?> type, List<?> objects, boolean withTitle, OutputStream out) {
+            started.incrementAndGet();
+            if (withTitle) {
+                awaitUninterruptibly(firstBatch);
+            }
+            super.serializeTableToPdf(type, objects, withTitle, out);
+        }
+    }
+}
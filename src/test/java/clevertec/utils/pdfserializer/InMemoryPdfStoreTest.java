@@ -0,0 +1,91 @@
+package clevertec.utils.pdfserializer;
+
+import clevertec.data.ProductTestData;
+import clevertec.dto.InfoProductDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryPdfStoreTest {
+
+    @Test
+    void shouldRenderDocumentIntoBuffer() throws IOException {
+        // Given
+        InMemoryPdfStore store = new InMemoryPdfStore(4, 1024, 4096);
+        InfoProductDto product = ProductTestData.builder()
+                .build()
+                .buildInfoProductDto();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        try (PdfDocument document = store.open(product.getId(), "00",
+                buffer -> new PdfSerializer().serializeObjectToPdf(product, buffer))) {
+            document.writeTo(out);
+
+            // Then
+            assertThat(document.getFileName()).isEqualTo(product.getId() + ".pdf");
+            assertThat(document.getContentLength()).isEqualTo(out.size());
+        }
+        assertThat(new String(out.toByteArray(), 0, 5, StandardCharsets.US_ASCII)).isEqualTo("%PDF-");
+    }
+
+    @Test
+    void shouldReuseReleasedBuffers() throws IOException {
+        // Given
+        InMemoryPdfStore store = new InMemoryPdfStore(4, 16, 64);
+        UUID id = UUID.randomUUID();
+        store.open(id, "00", out -> out.write(new byte[10])).close();
+
+        // When
+        PdfDocument document = store.open(id, "00", out -> out.write(new byte[10]));
+
+        // Then
+        assertThat(store.getAllocations()).isEqualTo(1);
+        assertThat(store.getPooledCount()).isZero();
+        document.close();
+        assertThat(store.getPooledCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotRetainOversizedBuffers() throws IOException {
+        // Given
+        InMemoryPdfStore store = new InMemoryPdfStore(4, 16, 64);
+
+        // When
+        PdfDocument document = store.open(UUID.randomUUID(), "00", out -> out.write(new byte[100]));
+        document.close();
+
+        // Then
+        assertThat(document.getContentLength()).isEqualTo(100);
+        assertThat(store.getPooledCount()).isZero();
+    }
+
+    @Test
+    void shouldReleaseBufferWhenRenderFails() {
+        // Given
+        InMemoryPdfStore store = new InMemoryPdfStore(4, 16, 64);
+
+        // When, Then
+        assertThatThrownBy(() -> store.open(UUID.randomUUID(), "00", out -> {
+            throw new IOException("render failed");
+        })).isInstanceOf(IOException.class);
+        assertThat(store.getPooledCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectWritesAfterRelease() {
+        // Given
+        PdfBuffer buffer = new InMemoryPdfStore(4, 16, 64).acquire();
+        buffer.close();
+
+        // When, Then
+        assertThatThrownBy(() -> buffer.write(1))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
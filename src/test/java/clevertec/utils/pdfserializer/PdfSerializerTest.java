@@ -2,51 +2,49 @@ package clevertec.utils.pdfserializer;
 
 import clevertec.data.ProductTestData;
 import clevertec.dto.InfoProductDto;
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PdfSerializerTest {
 
     private PdfSerializer pdfSerializer;
-    private String testFilePath;
 
     @BeforeEach
     void setUp() {
         pdfSerializer = new PdfSerializer();
-        String simpleName = "InfoProductDto";
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
-        String formattedDateTime = LocalDateTime.now().format(formatter);
-        String fileName = simpleName + "_" + formattedDateTime + ".pdf";
-        testFilePath = "pdf" + File.separator + fileName;
-    }
-
-    @AfterEach
-    void tearDown() throws Exception {
-        Files.deleteIfExists(new File(testFilePath).toPath());
     }
 
     @Test
-    void testSerializeObjectToPdf_CreatesFile() {
+    void testSerializeObjectToPdf_WritesDocumentToStream() {
         // Given
         InfoProductDto infoProductDto = ProductTestData.builder()
                 .build()
                 .buildInfoProductDto();
-        Path expected = Path.of(testFilePath);
+        ClosingTrackingStream out = new ClosingTrackingStream();
 
         // When
-        Path actual = pdfSerializer.serializeObjectToPdf(infoProductDto);
+        pdfSerializer.serializeObjectToPdf(infoProductDto, out);
 
         // Then
-        assertEquals(expected, actual);
+        String content = out.toString(StandardCharsets.ISO_8859_1);
+        assertTrue(content.startsWith("%PDF-"));
+        assertTrue(content.stripTrailing().endsWith("%%EOF"));
+        assertFalse(out.closed);
+    }
+
+    private static class ClosingTrackingStream extends ByteArrayOutputStream {
+
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
     }
 }
@@ -0,0 +1,46 @@
+package clevertec.utils.uuid;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UuidsTest {
+
+    private static final UUID ID = UUID.fromString("3ecb77f7-0114-47a7-ada7-3ec685d202a7");
+
+    @Test
+    void shouldParseCanonicalUuidAfterOffset() {
+        // When
+        UUID parsed = Uuids.parse("/3ECB77F7-0114-47a7-ada7-3ec685d202a7", 1);
+
+        // Then
+        assertEquals(ID, parsed);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "1-2-3-4-5", "3ecb77f7-0114-47a7-ada7-3ec685d202a",
+            "3ecb77f7-0114-47a7-ada7-3ec685d202a7x", "3ecb77f7x0114-47a7-ada7-3ec685d202a7",
+            "3ecb77f7-0114-47a7-ada7-3ec685d202g7"})
+    void shouldReturnNullForInvalidUuid(String text) {
+        // When & Then
+        assertNull(Uuids.parse(text));
+    }
+
+    @Test
+    void shouldWriteLowercaseAscii() {
+        // Given
+        byte[] target = new byte[Uuids.LENGTH + 2];
+
+        // When
+        Uuids.writeAscii(ID, target, 1);
+
+        // Then
+        assertEquals(ID.toString(), new String(target, 1, Uuids.LENGTH, StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,46 @@
+package clevertec.validation;
+
+import clevertec.config.AppConfig;
+import clevertec.dto.ProductDto;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductValidatorTest {
+
+    private final ProductValidator productValidator = new ProductValidator(new AppConfig().validator());
+
+    @Test
+    void shouldAcceptValidProduct() {
+        // Given
+        ProductDto productDto = new ProductDto("Green Pear", 2.0, 0.3);
+
+        // When, Then
+        assertThatCode(() -> productValidator.validate(productDto))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldRejectInfinitePrice() {
+        // Given
+        ProductDto productDto = new ProductDto("Apple", Double.POSITIVE_INFINITY, 0.2);
+
+        // When, Then
+        assertThatThrownBy(() -> productValidator.validate(productDto))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("price: Цена должна быть конечным числом");
+    }
+
+    @Test
+    void shouldRejectNanWeightAndInvalidName() {
+        // Given
+        ProductDto productDto = new ProductDto("Apple1", 1.5, Double.NaN);
+
+        // When, Then
+        assertThatThrownBy(() -> productValidator.validate(productDto))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("name: Неверный формат имени, weight: Вес должен быть больше 0, "
+                        + "weight: Вес должен быть конечным числом");
+    }
+}